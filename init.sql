@@ -5,7 +5,8 @@ CREATE TABLE `users` (
     `role` ENUM('USER','ADMIN') NOT NULL COLLATE 'utf8mb4_0900_ai_ci',
     `created_at` DATETIME NULL DEFAULT (CURRENT_TIMESTAMP),
     PRIMARY KEY (`id`) USING BTREE,
-    UNIQUE INDEX `username` (`username`) USING BTREE
+    UNIQUE INDEX `username` (`username`) USING BTREE,
+    INDEX `idx_users_created_at` (`created_at`) USING BTREE
 );
 
 CREATE TABLE `movies` (
@@ -19,7 +20,10 @@ CREATE TABLE `movies` (
     `actors` TEXT NULL DEFAULT NULL COLLATE 'utf8mb4_0900_ai_ci',
     `imdbRating` VARCHAR(10) NULL DEFAULT NULL COLLATE 'utf8mb4_0900_ai_ci',
     `runtime` VARCHAR(50) NULL DEFAULT NULL COLLATE 'utf8mb4_0900_ai_ci',
-    PRIMARY KEY (`id`) USING BTREE
+    PRIMARY KEY (`id`) USING BTREE,
+    INDEX `idx_movies_title` (`title`) USING BTREE,
+    FULLTEXT INDEX `ft_movies_title` (`title`),
+    FULLTEXT INDEX `ft_movies_search` (`title`, `director`, `actors`)
 );
 
 CREATE TABLE `film_session` (
@@ -30,7 +34,11 @@ CREATE TABLE `film_session` (
     `start_time` TIME NOT NULL,
     `end_time` TIME NOT NULL,
     `capacity` INT NOT NULL,
-    PRIMARY KEY (`id`) USING BTREE
+    `waiting_room` BOOLEAN NOT NULL DEFAULT FALSE,
+    `version` INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (`id`) USING BTREE,
+    INDEX `idx_film_session_date_start` (`date`, `start_time`) USING BTREE,
+    INDEX `idx_film_session_title_date` (`movie_title`, `date`) USING BTREE
 );
 
 CREATE TABLE `ticket` (
@@ -41,13 +49,56 @@ CREATE TABLE `ticket` (
     `purchase_time` DATETIME NULL DEFAULT (CURRENT_TIMESTAMP),
     `status` ENUM('PENDING','CONFIRMED','CANCELLED','RETURNED') NOT NULL COLLATE 'utf8mb4_0900_ai_ci',
     `request_type` ENUM('PURCHASE','RETURN') NOT NULL DEFAULT 'PURCHASE' COLLATE 'utf8mb4_0900_ai_ci',
+    `version` INT NOT NULL DEFAULT 0,
     PRIMARY KEY (`id`) USING BTREE,
+    UNIQUE INDEX `uq_ticket_session_seat` (`session_id`, `seat_number`) USING BTREE,
     INDEX `fk_ticket_user` (`user_id`) USING BTREE,
     INDEX `fk_ticket_session` (`session_id`) USING BTREE,
+    INDEX `idx_ticket_status_purchase` (`status`, `purchase_time`) USING BTREE,
     CONSTRAINT `fk_ticket_session` FOREIGN KEY (`session_id`) REFERENCES `film_session` (`id`) ON UPDATE CASCADE ON DELETE CASCADE,
     CONSTRAINT `fk_ticket_user` FOREIGN KEY (`user_id`) REFERENCES `users` (`id`) ON UPDATE CASCADE ON DELETE CASCADE
 );
 
+CREATE TABLE `seat_hold` (
+    `id` INT NOT NULL AUTO_INCREMENT,
+    `session_id` INT NOT NULL,
+    `seat_number` INT NOT NULL,
+    `user_id` INT NOT NULL,
+    `expires_at` DATETIME NOT NULL,
+    PRIMARY KEY (`id`) USING BTREE,
+    UNIQUE INDEX `uq_seat_hold_session_seat` (`session_id`, `seat_number`) USING BTREE,
+    INDEX `idx_seat_hold_expires` (`expires_at`) USING BTREE
+);
+
+CREATE TABLE `waiting_room` (
+    `id` INT NOT NULL AUTO_INCREMENT,
+    `session_id` INT NOT NULL,
+    `user_id` INT NOT NULL,
+    `last_seen_at` DATETIME NOT NULL,
+    `admitted_until` DATETIME NULL DEFAULT NULL,
+    `claimed_at` DATETIME NULL DEFAULT NULL,
+    PRIMARY KEY (`id`) USING BTREE,
+    UNIQUE INDEX `uq_waiting_room_session_user` (`session_id`, `user_id`) USING BTREE,
+    INDEX `idx_waiting_room_admitted` (`session_id`, `admitted_until`) USING BTREE,
+    INDEX `idx_waiting_room_last_seen` (`last_seen_at`) USING BTREE
+);
+
+CREATE TABLE `cache_change_log` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT,
+    `region` VARCHAR(64) NOT NULL,
+    `entity_key` VARCHAR(255) NOT NULL,
+    `node_id` VARCHAR(64) NOT NULL,
+    `created_at` DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    PRIMARY KEY (`id`) USING BTREE,
+    INDEX `idx_cache_change_log_created` (`created_at`) USING BTREE
+);
+
+CREATE TABLE `id_sequence` (
+    `sequence_name` VARCHAR(255) NOT NULL COLLATE 'utf8mb4_0900_ai_ci',
+    `next_val` BIGINT NOT NULL,
+    PRIMARY KEY (`sequence_name`) USING BTREE
+);
+
 INSERT INTO `users` (`username`, `password`, `role`, `created_at`) VALUES
 ('admin', '$2a$10$R4o9QwMEPW9.YpctiGUsROhxmWd8U8/q5QlV/GE.erbKaXZgJ8sjm', 'ADMIN', '2024-12-13 08:10:49.658637'),
 ('user123', '$2a$10$QAmv0FYxfZkEBWVgWjlbjuEZRXAMMJcFQprqOmq0mpqT5fMNT4wPa', 'USER', CURRENT_TIMESTAMP);
@@ -60,4 +111,10 @@ INSERT INTO `film_session` (`movie_title`, `price`, `date`, `start_time`, `end_t
 INSERT INTO `ticket` (`user_id`, `session_id`, `seat_number`, `status`, `request_type`) VALUES
 (2, 1, '15', 'PENDING', 'PURCHASE'),
 (2, 2, '16', 'CONFIRMED', 'PURCHASE'),
-(2, 3, '25', 'PENDING', 'PURCHASE');
\ No newline at end of file
+(2, 3, '25', 'PENDING', 'PURCHASE');
+
+INSERT INTO `id_sequence` (`sequence_name`, `next_val`)
+SELECT 'users', COALESCE(MAX(`id`), 0) + 1 FROM `users`
+UNION ALL SELECT 'movies', COALESCE(MAX(`id`), 0) + 1 FROM `movies`
+UNION ALL SELECT 'film_session', COALESCE(MAX(`id`), 0) + 1 FROM `film_session`
+UNION ALL SELECT 'ticket', COALESCE(MAX(`id`), 0) + 1 FROM `ticket`;
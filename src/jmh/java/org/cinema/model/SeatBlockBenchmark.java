@@ -0,0 +1,112 @@
+package org.cinema.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link SeatInventory#findBestBlock(int)} with a seat-by-seat walk that tries rows and starts
+ * in the same order and checks every seat of every candidate block.
+ * In a near-full hall most requests find no block at all, so both have to go through every row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SeatBlockBenchmark {
+
+    @Param({"100", "500"})
+    private int capacity;
+
+    @Param({"near-full", "fragmented"})
+    private String hall;
+
+    @Param({"2", "4"})
+    private int count;
+
+    private SeatInventory inventory;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        inventory = new SeatInventory(capacity);
+        for (int seat = 1; seat <= capacity; seat++) {
+            boolean taken = switch (hall) {
+                case "near-full" -> random.nextInt(100) < 95;
+                case "fragmented" -> seat % 3 != 0 && random.nextInt(100) < 80;
+                default -> throw new IllegalArgumentException("Unknown hall: " + hall);
+            };
+            if (taken) {
+                inventory.mark(seat, SeatState.SOLD);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Integer> bestBlockBitmask() {
+        return inventory.findBestBlock(count);
+    }
+
+    @Benchmark
+    public List<Integer> bestBlockSeatWalk() {
+        int rows = (capacity + SeatInventory.ROW_WIDTH - 1) / SeatInventory.ROW_WIDTH;
+        int middleRow = (rows - 1) / 2;
+        for (int distance = 0; distance < rows; distance++) {
+            int behind = middleRow + distance;
+            int front = middleRow - distance;
+            if (behind < rows) {
+                List<Integer> seats = walkRow(behind);
+                if (!seats.isEmpty()) {
+                    return seats;
+                }
+            }
+            if (distance > 0 && front >= 0) {
+                List<Integer> seats = walkRow(front);
+                if (!seats.isEmpty()) {
+                    return seats;
+                }
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    private List<Integer> walkRow(int row) {
+        int first = row * SeatInventory.ROW_WIDTH + 1;
+        int length = Math.min(SeatInventory.ROW_WIDTH, capacity - row * SeatInventory.ROW_WIDTH);
+        int idealStart = (length - count) / 2;
+        int bestStart = -1;
+        for (int start = 0; start + count <= length; start++) {
+            boolean free = true;
+            for (int i = 0; i < count && free; i++) {
+                free = inventory.isFree(first + start + i);
+            }
+            if (free && (bestStart < 0 || Math.abs(start - idealStart) < Math.abs(bestStart - idealStart))) {
+                bestStart = start;
+            }
+        }
+        if (bestStart < 0) {
+            return Collections.emptyList();
+        }
+        List<Integer> seats = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            seats.add(first + bestStart + i);
+        }
+        return seats;
+    }
+}
@@ -0,0 +1,76 @@
+package org.cinema.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares drawing the seat map from {@link SeatInventory} with the list scan it replaced,
+ * where every seat of the hall was looked up with {@code takenSeats.contains(seat)}.
+ * A near-full hall is the worst case for the scan; a fragmented one leaves free seats all over the hall.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SeatInventoryBenchmark {
+
+    @Param({"100", "500"})
+    private int capacity;
+
+    @Param({"near-full", "fragmented"})
+    private String hall;
+
+    private List<Integer> takenSeats;
+    private SeatInventory inventory;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        takenSeats = new ArrayList<>();
+        inventory = new SeatInventory(capacity);
+        for (int seat = 1; seat <= capacity; seat++) {
+            boolean taken = switch (hall) {
+                case "near-full" -> random.nextInt(100) < 95;
+                case "fragmented" -> seat % 3 != 0 && random.nextInt(100) < 80;
+                default -> throw new IllegalArgumentException("Unknown hall: " + hall);
+            };
+            if (taken) {
+                takenSeats.add(seat);
+                inventory.mark(seat, SeatState.SOLD);
+            }
+        }
+        Collections.shuffle(takenSeats, random);
+    }
+
+    @Benchmark
+    public void seatMapListScan(Blackhole blackhole) {
+        for (int seat = 1; seat <= capacity; seat++) {
+            blackhole.consume(takenSeats.contains(seat));
+        }
+    }
+
+    @Benchmark
+    public void seatMapInventory(Blackhole blackhole) {
+        for (int seat = 1; seat <= capacity; seat++) {
+            blackhole.consume(inventory.isFree(seat));
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package org.cinema.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.cinema.dto.CacheRegionStats;
+import org.cinema.model.FilmSession;
+import org.cinema.model.Movie;
+import org.cinema.util.PropertiesUtil;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuration class for the Hibernate second-level and query cache.
+ * Builds the in-process Ehcache regions used for {@link org.cinema.model.FilmSession} and {@link org.cinema.model.Movie},
+ * each bounded in entries and time to live ({@code cache.*} keys of {@code application.properties}).
+ * Every node has its own copy; another node's edit reaches it through {@link InvalidationBus}, and the TTL
+ * stays the upper bound on staleness should an invalidation event ever be lost.
+ */
+@Slf4j
+public final class CacheConfig {
+
+    public static final String FILM_SESSION_REGION = FilmSession.CACHE_REGION;
+    public static final String FILM_SESSION_QUERY_REGION = FilmSession.QUERY_CACHE_REGION;
+    public static final String MOVIE_REGION = Movie.CACHE_REGION;
+    public static final String MOVIE_QUERY_REGION = Movie.QUERY_CACHE_REGION;
+
+    private static final String DEFAULT_QUERY_REGION = "default-query-results-region";
+    private static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    private static final List<String> ENTITY_REGIONS = List.of(FILM_SESSION_REGION, MOVIE_REGION);
+    private static final List<String> QUERY_REGIONS = List.of(FILM_SESSION_QUERY_REGION, MOVIE_QUERY_REGION);
+    private static final Map<String, String> ENTITY_REGION_OF_QUERY_REGION = Map.of(
+            FILM_SESSION_QUERY_REGION, FILM_SESSION_REGION,
+            MOVIE_QUERY_REGION, MOVIE_REGION);
+
+    private CacheConfig() {
+    }
+
+    /**
+     * Creates the cache manager handed to Hibernate with all regions already defined,
+     * so a region missing here fails the startup instead of silently growing unbounded.
+     */
+    public static CacheManager createCacheManager() {
+        CacheManager cacheManager = Caching.getCachingProvider(EhcacheCachingProvider.class.getName())
+                .getCacheManager();
+
+        createRegion(cacheManager, FILM_SESSION_REGION,
+                PropertiesUtil.getInt("cache.film.session.entries", 2000),
+                PropertiesUtil.getInt("cache.film.session.ttl.seconds", 300));
+        createRegion(cacheManager, FILM_SESSION_QUERY_REGION,
+                PropertiesUtil.getInt("cache.film.session.queries.entries", 200),
+                PropertiesUtil.getInt("cache.film.session.queries.ttl.seconds", 60));
+        createRegion(cacheManager, MOVIE_REGION,
+                PropertiesUtil.getInt("cache.movie.entries", 1000),
+                PropertiesUtil.getInt("cache.movie.ttl.seconds", 3600));
+        createRegion(cacheManager, MOVIE_QUERY_REGION,
+                PropertiesUtil.getInt("cache.movie.queries.entries", 500),
+                PropertiesUtil.getInt("cache.movie.queries.ttl.seconds", 600));
+        createRegion(cacheManager, DEFAULT_QUERY_REGION, 100, 60);
+
+        // Hibernate compares query results against these timestamps, they must outlive every query region.
+        cacheManager.createCache(UPDATE_TIMESTAMPS_REGION, Eh107Configuration.fromEhcacheCacheConfiguration(
+                CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class,
+                        ResourcePoolsBuilder.heap(1000))));
+
+        log.info("Second-level cache regions created: {}", cacheManager.getCacheNames());
+        return cacheManager;
+    }
+
+    /**
+     * Drops what another node's write may have made stale: the query region it evicted, together with the entity
+     * region of the same entity type, since the event doesn't say which entities changed. {@link
+     * InvalidationBus#ALL_KEYS} drops every region.
+     */
+    public static void evictChangedRegion(SessionFactory sessionFactory, String queryRegion) {
+        if (InvalidationBus.ALL_KEYS.equals(queryRegion)) {
+            sessionFactory.getCache().evictAllRegions();
+            log.debug("All cache regions evicted.");
+            return;
+        }
+        sessionFactory.getCache().evictQueryRegion(queryRegion);
+        String entityRegion = ENTITY_REGION_OF_QUERY_REGION.get(queryRegion);
+        if (entityRegion != null) {
+            sessionFactory.getCache().evictRegion(entityRegion);
+        }
+        log.debug("Cache region '{}' evicted after a change on another node.", queryRegion);
+    }
+
+    /**
+     * Collects hit, miss and put counts of the entity and query regions since startup.
+     * Session factories sharing the regions (the primary's and the read replica's) are summed up;
+     * {@code null} factories are skipped.
+     */
+    public static List<CacheRegionStats> getStats(SessionFactory... sessionFactories) {
+        List<CacheRegionStats> stats = new ArrayList<>();
+        for (String region : ENTITY_REGIONS) {
+            stats.add(toStats(region, sessionFactories, true));
+        }
+        for (String region : QUERY_REGIONS) {
+            stats.add(toStats(region, sessionFactories, false));
+        }
+        return stats;
+    }
+
+    private static CacheRegionStats toStats(String region, SessionFactory[] sessionFactories, boolean entityRegion) {
+        long hits = 0;
+        long misses = 0;
+        long puts = 0;
+        for (SessionFactory sessionFactory : sessionFactories) {
+            if (sessionFactory == null) {
+                continue;
+            }
+            Statistics statistics = sessionFactory.getStatistics();
+            CacheRegionStatistics regionStatistics = entityRegion
+                    ? statistics.getDomainDataRegionStatistics(region)
+                    : statistics.getQueryRegionStatistics(region);
+            if (regionStatistics != null) {
+                hits += regionStatistics.getHitCount();
+                misses += regionStatistics.getMissCount();
+                puts += regionStatistics.getPutCount();
+            }
+        }
+        return new CacheRegionStats(region, hits, misses, puts);
+    }
+
+    private static void createRegion(CacheManager cacheManager, String region, int entries, int ttlSeconds) {
+        cacheManager.createCache(region, Eh107Configuration.fromEhcacheCacheConfiguration(
+                CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class,
+                                ResourcePoolsBuilder.heap(entries))
+                        .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ttlSeconds)))));
+        log.debug("Cache region '{}' created: {} entries, TTL {} seconds.", region, entries, ttlSeconds);
+    }
+}
@@ -0,0 +1,39 @@
+package org.cinema.config;
+
+import org.cinema.dto.InvalidationEvent;
+import org.cinema.repository.impl.ChangeLogRepositoryImpl;
+
+import java.util.List;
+
+/**
+ * Transport over the {@code cache_change_log} table of the primary database, which every node polls.
+ */
+public class DatabaseInvalidationTransport implements InvalidationTransport {
+
+    private static final int PURGE_BATCH_SIZE = 1000;
+
+    private final ChangeLogRepositoryImpl changeLogRepository = ChangeLogRepositoryImpl.getInstance();
+
+    @Override
+    public void publish(String region, String key, String nodeId) {
+        changeLogRepository.append(region, key, nodeId);
+    }
+
+    @Override
+    public List<InvalidationEvent> receiveAfter(long sequence, int limit) {
+        return changeLogRepository.findAfter(sequence, limit);
+    }
+
+    @Override
+    public long latestSequence() {
+        return changeLogRepository.findLatestSequence();
+    }
+
+    @Override
+    public void purge(int retentionSeconds) {
+        int deleted;
+        do {
+            deleted = changeLogRepository.deleteOlderThan(retentionSeconds, PURGE_BATCH_SIZE);
+        } while (deleted == PURGE_BATCH_SIZE);
+    }
+}
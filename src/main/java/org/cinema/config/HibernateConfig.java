@@ -4,19 +4,35 @@ import jakarta.servlet.ServletContextEvent;
 import jakarta.servlet.ServletContextListener;
 import jakarta.servlet.annotation.WebListener;
 import lombok.extern.slf4j.Slf4j;
+import org.cinema.util.PropertiesUtil;
 import org.hibernate.HibernateException;
 import org.hibernate.SessionFactory;
+import org.hibernate.c3p0.internal.C3P0ConnectionProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
 import org.hibernate.cfg.Configuration;
 
+import javax.cache.CacheManager;
+
 /**
  * Configuration class for managing Hibernate.
  * Responsible for initializing and shutting down the {@link SessionFactory}.
+ * Before the session factory is built, {@link SchemaMigrator} brings the schema up to date, and Hibernate only
+ * validates its mappings against it.
+ * Connections come from the c3p0 pool configured in {@code hibernate.cfg.xml} through {@link MeteredConnectionProvider};
+ * the pool is filled with its initial connections while the session factory starts.
+ * The second-level cache regions are built by {@link CacheConfig} and handed to Hibernate's JCache region factory.
+ * When {@code db.replica.url} is set, a second session factory is built against the read replica and handed to
+ * {@link ReplicaRouter}; it shares the cache regions, but its sessions only read from them, so whatever is cached
+ * was read from the primary.
  */
 @Slf4j
 @WebListener
 public class HibernateConfig implements ServletContextListener {
 
     private static SessionFactory sessionFactory;
+    private static SessionFactory replicaSessionFactory;
+    private static CacheManager cacheManager;
 
     public static SessionFactory getSessionFactory() {
         if (sessionFactory == null) {
@@ -25,6 +41,17 @@ public class HibernateConfig implements ServletContextListener {
         return sessionFactory;
     }
 
+    public static boolean isInitialized() {
+        return sessionFactory != null;
+    }
+
+    /**
+     * @return the read replica's session factory, or {@code null} if no replica is configured
+     */
+    public static SessionFactory getReplicaSessionFactory() {
+        return replicaSessionFactory;
+    }
+
     /**
      * Initializes the session factory at the application startup.
      * This method is called when the server starts.
@@ -35,15 +62,53 @@ public class HibernateConfig implements ServletContextListener {
     public void contextInitialized(ServletContextEvent sce) {
         try {
             log.debug("Initializing Hibernate SessionFactory...");
-            sessionFactory = new Configuration().configure().buildSessionFactory();
+            cacheManager = CacheConfig.createCacheManager();
+            Configuration configuration = new Configuration().configure();
+            SchemaMigrator.migrate(configuration.getProperty(AvailableSettings.URL),
+                    configuration.getProperty(AvailableSettings.USER),
+                    configuration.getProperty(AvailableSettings.PASS));
+            configuration.getProperties().put(ConfigSettings.CACHE_MANAGER, cacheManager);
+            sessionFactory = configuration.buildSessionFactory();
             sce.getServletContext().setAttribute("SessionFactory", sessionFactory);
             log.info("Hibernate SessionFactory initialized successfully.");
+            MeteredConnectionProvider.getCurrent().logStats();
+            replicaSessionFactory = buildReplicaSessionFactory();
+            ReplicaRouter.setReplicaSessionFactory(replicaSessionFactory);
+            InvalidationBus.getInstance().subscribe(InvalidationBus.QUERY_CACHE,
+                    region -> CacheConfig.evictChangedRegion(sessionFactory, region));
         } catch (HibernateException e) {
             log.error("Failed to initialize Hibernate SessionFactory(contextInitialized): {}", e.getMessage());
             throw new RuntimeException("SessionFactory initialization failed.", e);
         }
     }
 
+    /**
+     * Builds the replica's session factory from the same mappings as the primary's.
+     * The replica never touches the schema, and its pool is a plain c3p0 pool so that
+     * {@link MeteredConnectionProvider} keeps reporting the primary's pool.
+     *
+     * @return the session factory, or {@code null} if {@code db.replica.url} isn't set
+     */
+    private static SessionFactory buildReplicaSessionFactory() {
+        String url = PropertiesUtil.get("db.replica.url", "");
+        if (url.isBlank()) {
+            log.info("No read replica configured, all reads go to the primary.");
+            return null;
+        }
+        Configuration configuration = new Configuration().configure();
+        String username = configuration.getProperty(AvailableSettings.USER);
+        String password = configuration.getProperty(AvailableSettings.PASS);
+        configuration.setProperty(AvailableSettings.URL, url);
+        configuration.setProperty(AvailableSettings.USER, PropertiesUtil.get("db.replica.username", username));
+        configuration.setProperty(AvailableSettings.PASS, PropertiesUtil.get("db.replica.password", password));
+        configuration.setProperty(AvailableSettings.HBM2DDL_AUTO, "none");
+        configuration.setProperty(AvailableSettings.CONNECTION_PROVIDER, C3P0ConnectionProvider.class.getName());
+        configuration.getProperties().put(ConfigSettings.CACHE_MANAGER, cacheManager);
+        SessionFactory replica = configuration.buildSessionFactory();
+        log.info("Read replica SessionFactory initialized at {}.", url);
+        return replica;
+    }
+
     /**
      * Closes the session factory when the application shuts down.
      * This method is called when the server stops.
@@ -52,6 +117,14 @@ public class HibernateConfig implements ServletContextListener {
      */
     @Override
     public void contextDestroyed(ServletContextEvent sce) {
+        if (replicaSessionFactory != null) {
+            try {
+                replicaSessionFactory.close();
+                log.info("Read replica SessionFactory closed successfully.");
+            } catch (HibernateException e) {
+                log.error("Error closing read replica SessionFactory: {}", e.getMessage(), e);
+            }
+        }
         if (sessionFactory != null) {
             try {
                 log.debug("Closing Hibernate SessionFactory...");
@@ -63,5 +136,8 @@ public class HibernateConfig implements ServletContextListener {
         } else {
             log.warn("SessionFactory is null, nothing to close.");
         }
+        if (cacheManager != null) {
+            cacheManager.close();
+        }
     }
 }
@@ -0,0 +1,45 @@
+package org.cinema.config;
+
+import org.cinema.dto.InvalidationEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Transport that keeps the events in memory: a single node on its own, or several buses sharing one
+ * instance in the same JVM, e.g. in tests that stand in for the database change log.
+ */
+public class InMemoryInvalidationTransport implements InvalidationTransport {
+
+    private record StoredEvent(InvalidationEvent event, long publishedAtMillis) {
+    }
+
+    private final List<StoredEvent> events = new ArrayList<>();
+    private long lastSequence;
+
+    @Override
+    public synchronized void publish(String region, String key, String nodeId) {
+        events.add(new StoredEvent(new InvalidationEvent(++lastSequence, region, key, nodeId),
+                System.currentTimeMillis()));
+    }
+
+    @Override
+    public synchronized List<InvalidationEvent> receiveAfter(long sequence, int limit) {
+        return events.stream()
+                .map(StoredEvent::event)
+                .filter(event -> event.getSequence() > sequence)
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public synchronized long latestSequence() {
+        return lastSequence;
+    }
+
+    @Override
+    public synchronized void purge(int retentionSeconds) {
+        long cutoff = System.currentTimeMillis() - retentionSeconds * 1000L;
+        events.removeIf(stored -> stored.publishedAtMillis() < cutoff);
+    }
+}
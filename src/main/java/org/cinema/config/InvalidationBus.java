@@ -0,0 +1,222 @@
+package org.cinema.config;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.cinema.dto.InvalidationEvent;
+import org.cinema.util.PropertiesUtil;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps the node-local caches of the web nodes consistent with each other.
+ * A node that changes cached data publishes an event naming the cache region and the changed key; every node
+ * polls the transport every {@code cache.invalidation.poll.interval.millis} and hands the events published by
+ * the other nodes to the handlers subscribed to their region.
+ * Caches that must not serve stale data ask {@link #isFresh()} before answering from memory: it is false when
+ * the last successful poll started more than {@code cache.invalidation.max.staleness.millis} ago, which bounds
+ * how long another node's change can go unnoticed. The Hibernate second-level and query caches ask it whenever
+ * a session is opened (see {@link ReplicaRouter#openSession(org.hibernate.SessionFactory)}).
+ * A node starts reading a little behind the latest event, so changes still being committed while it starts
+ * aren't skipped. Events that show up late (their transaction committed after later ones) are still picked up,
+ * because the poll rereads from the oldest missing sequence number. Events are published in the transaction of
+ * the change they describe, so a sequence number still missing after {@code cache.invalidation.gap.timeout.seconds}
+ * belongs to a transaction that rolled back (the timeout has to exceed the longest write transaction) and is
+ * simply forgotten: nothing changed that a cache could hold.
+ * The application uses the bus of {@link #getInstance()}; a bus of its own, with its own node ID and clock,
+ * can be created for tests, e.g. several sharing an {@link InMemoryInvalidationTransport}.
+ */
+@Slf4j
+public final class InvalidationBus {
+
+    /**
+     * Key that stands for every entry of the region.
+     */
+    public static final String ALL_KEYS = "*";
+
+    /**
+     * Region of the events whose key is the name of a Hibernate query cache region.
+     */
+    public static final String QUERY_CACHE = "hibernate.query";
+
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_TRACKED_GAPS = 1000;
+    private static final int STARTUP_REPLAY = 100;
+
+    @Getter
+    private static final InvalidationBus instance = new InvalidationBus(resolveNodeId(), null,
+            TimeUnit.MILLISECONDS.toNanos(PropertiesUtil.getInt("cache.invalidation.max.staleness.millis", 1000)),
+            TimeUnit.SECONDS.toNanos(PropertiesUtil.getInt("cache.invalidation.gap.timeout.seconds", 30)),
+            PropertiesUtil.getInt("cache.invalidation.retention.seconds", 3600),
+            System::nanoTime);
+
+    @Getter
+    private final String nodeId;
+    private final long maxStalenessNanos;
+    private final long gapTimeoutNanos;
+    private final int retentionSeconds;
+    private final LongSupplier nanoClock;
+
+    private final Map<String, List<Consumer<String>>> subscribers = new ConcurrentHashMap<>();
+
+    private volatile InvalidationTransport transport;
+    private volatile long lastPollStartNanos;
+    private volatile boolean polled;
+
+    private long cursor = -1;
+    private final TreeMap<Long, Long> gaps = new TreeMap<>();
+
+    /**
+     * @param transport transport to use, or null to create the configured one on first use
+     * @param nanoClock source of {@link System#nanoTime()}-like readings
+     */
+    InvalidationBus(String nodeId, InvalidationTransport transport, long maxStalenessNanos, long gapTimeoutNanos,
+                    int retentionSeconds, LongSupplier nanoClock) {
+        this.nodeId = nodeId;
+        this.transport = transport;
+        this.maxStalenessNanos = maxStalenessNanos;
+        this.gapTimeoutNanos = gapTimeoutNanos;
+        this.retentionSeconds = retentionSeconds;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Registers a handler for the events of the region published by other nodes. The handler receives the key
+     * of the changed entry, or {@link #ALL_KEYS}.
+     */
+    public void subscribe(String region, Consumer<String> handler) {
+        subscribers.computeIfAbsent(region, name -> new CopyOnWriteArrayList<>()).add(handler);
+    }
+
+    /**
+     * Tells the other nodes that the entry has changed. The caller evicts its own copy itself.
+     * With the database transport the event joins the thread's innermost transaction (see
+     * {@link org.cinema.repository.UnitOfWork}), so it has to be published from the transaction that makes the
+     * change: it is then only seen if the change is committed, and a failure to record it fails the change.
+     */
+    public void publish(String region, String key) {
+        transport().publish(region, key, nodeId);
+        log.debug("Invalidation of '{}' in region '{}' published.", key, region);
+    }
+
+    /**
+     * @return true if the changes other nodes made until {@code cache.invalidation.max.staleness.millis} ago
+     *         have been applied to the local caches
+     */
+    public boolean isFresh() {
+        return polled && nanoClock.getAsLong() - lastPollStartNanos <= maxStalenessNanos;
+    }
+
+    /**
+     * Reads the events published since the previous poll and hands those of the other nodes to the subscribers.
+     */
+    public synchronized void poll() {
+        long started = nanoClock.getAsLong();
+        InvalidationTransport source = transport();
+        if (cursor < 0 || (polled && started - lastPollStartNanos > TimeUnit.SECONDS.toNanos(retentionSeconds))) {
+            cursor = Math.max(0, source.latestSequence() - STARTUP_REPLAY);
+            gaps.clear();
+            if (polled) {
+                log.warn("Cache invalidation events may have been purged unread, dropping all cached entries.");
+                dropEverything();
+            }
+        }
+
+        long from = gaps.isEmpty() ? cursor : Math.min(cursor, gaps.firstKey() - 1);
+        List<InvalidationEvent> events;
+        do {
+            events = source.receiveAfter(from, BATCH_SIZE);
+            for (InvalidationEvent event : events) {
+                receive(event, started);
+            }
+            if (!events.isEmpty()) {
+                from = events.get(events.size() - 1).getSequence();
+            }
+        } while (events.size() == BATCH_SIZE);
+
+        if (gaps.values().removeIf(noticed -> started - noticed > gapTimeoutNanos)) {
+            log.debug("Sequence numbers of rolled back cache invalidation events forgotten.");
+        }
+        lastPollStartNanos = started;
+        polled = true;
+    }
+
+    /**
+     * Drops the events that are older than {@code cache.invalidation.retention.seconds}.
+     */
+    public void purge() {
+        transport().purge(retentionSeconds);
+    }
+
+    /**
+     * Replaces the transport. Reading starts over at the transport's latest event.
+     */
+    public synchronized void useTransport(InvalidationTransport replacement) {
+        transport = replacement;
+        cursor = -1;
+        gaps.clear();
+        polled = false;
+        log.info("Cache invalidation transport set to {}.", replacement.getClass().getSimpleName());
+    }
+
+    private void receive(InvalidationEvent event, long now) {
+        long sequence = event.getSequence();
+        if (sequence <= cursor && gaps.remove(sequence) == null) {
+            return;
+        }
+        if (sequence > cursor + 1) {
+            for (long missing = Math.max(cursor + 1, sequence - MAX_TRACKED_GAPS); missing < sequence; missing++) {
+                gaps.put(missing, now);
+            }
+        }
+        cursor = Math.max(cursor, sequence);
+        if (nodeId.equals(event.getNodeId())) {
+            return;
+        }
+        log.debug("Applying {}.", event);
+        handle(event.getRegion(), event.getKey());
+    }
+
+    private void dropEverything() {
+        subscribers.keySet().forEach(region -> handle(region, ALL_KEYS));
+    }
+
+    private void handle(String region, String key) {
+        for (Consumer<String> handler : subscribers.getOrDefault(region, List.of())) {
+            try {
+                handler.accept(key);
+            } catch (RuntimeException e) {
+                log.error("Cache invalidation of '{}' in region '{}' failed: {}", key, region, e.getMessage(), e);
+            }
+        }
+    }
+
+    private InvalidationTransport transport() {
+        InvalidationTransport current = transport;
+        if (current == null) {
+            synchronized (this) {
+                if (transport == null) {
+                    transport = "memory".equalsIgnoreCase(PropertiesUtil.get("cache.invalidation.transport", "database"))
+                            ? new InMemoryInvalidationTransport()
+                            : new DatabaseInvalidationTransport();
+                    log.info("Cache invalidation transport: {}, node ID: {}.",
+                            transport.getClass().getSimpleName(), nodeId);
+                }
+                current = transport;
+            }
+        }
+        return current;
+    }
+
+    private static String resolveNodeId() {
+        String configured = PropertiesUtil.get("cluster.node.id", "");
+        return configured.isBlank() ? UUID.randomUUID().toString() : configured.trim();
+    }
+}
@@ -0,0 +1,34 @@
+package org.cinema.config;
+
+import org.cinema.dto.InvalidationEvent;
+
+import java.util.List;
+
+/**
+ * Carries cache invalidation events between the web nodes for {@link InvalidationBus}.
+ * A transport numbers the events it accepts with increasing sequence numbers, but an event may become readable
+ * after events with higher numbers (e.g. while the transaction that published it is still open), or never
+ * (if that transaction rolls back); the bus copes with both.
+ */
+public interface InvalidationTransport {
+
+    /**
+     * Publishes the event to every node, this one included.
+     */
+    void publish(String region, String key, String nodeId);
+
+    /**
+     * @return up to {@code limit} readable events with a sequence number above the given one, in sequence order
+     */
+    List<InvalidationEvent> receiveAfter(long sequence, int limit);
+
+    /**
+     * @return the highest sequence number assigned so far, where a node that has just started begins to read
+     */
+    long latestSequence();
+
+    /**
+     * Drops events older than the retention, which every node has read long before.
+     */
+    void purge(int retentionSeconds);
+}
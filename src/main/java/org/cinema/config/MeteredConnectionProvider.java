@@ -0,0 +1,124 @@
+package org.cinema.config;
+
+import com.mchange.v2.c3p0.PooledDataSource;
+import com.mchange.v2.resourcepool.TimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.cinema.dto.ConnectionPoolStats;
+import org.hibernate.c3p0.internal.C3P0ConnectionProvider;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * c3p0 connection provider that measures how long Hibernate waits for a pooled connection.
+ * Pool sizes come from c3p0 itself; checkout wait times and checkout timeouts are recorded here,
+ * so latency spikes caused by pool starvation can be told apart from slow queries.
+ * Configured through {@code hibernate.connection.provider_class} in {@code hibernate.cfg.xml}.
+ */
+@Slf4j
+public class MeteredConnectionProvider extends C3P0ConnectionProvider {
+
+    private static volatile MeteredConnectionProvider current;
+
+    private final LongAdder checkouts = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+    private final AtomicLong lastLoggedTimeouts = new AtomicLong();
+
+    /**
+     * Returns the provider of the running session factory.
+     *
+     * @throws IllegalStateException if Hibernate hasn't started the pool yet
+     */
+    public static MeteredConnectionProvider getCurrent() {
+        MeteredConnectionProvider provider = current;
+        if (provider == null) {
+            throw new IllegalStateException("Connection pool isn't initialized.");
+        }
+        return provider;
+    }
+
+    // C3P0ConnectionProvider declares the raw Map of Hibernate's Configurable, so the override has to keep it.
+    @Override
+    @SuppressWarnings("rawtypes")
+    public void configure(Map props) {
+        super.configure(props);
+        current = this;
+        log.info("Connection pool configured: {}", getStats());
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            Connection connection = super.getConnection();
+            recordWait(System.nanoTime() - start);
+            return connection;
+        } catch (SQLException e) {
+            if (isCheckoutTimeout(e)) {
+                timeouts.increment();
+                log.warn("Timed out after {} ms waiting for a pooled connection.",
+                        (System.nanoTime() - start) / 1_000_000);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (current == this) {
+            current = null;
+        }
+        super.stop();
+    }
+
+    public ConnectionPoolStats getStats() {
+        long count = checkouts.sum();
+        double averageWaitMillis = count == 0 ? 0 : totalWaitNanos.sum() / 1_000_000.0 / count;
+        double maxWaitMillis = maxWaitNanos.get() / 1_000_000.0;
+        try {
+            PooledDataSource pool = (PooledDataSource) unwrap(DataSource.class);
+            return new ConnectionPoolStats(pool.getNumConnectionsDefaultUser(), pool.getNumBusyConnectionsDefaultUser(),
+                    pool.getNumIdleConnectionsDefaultUser(), pool.getNumThreadsAwaitingCheckoutDefaultUser(),
+                    pool.getNumUnclosedOrphanedConnectionsDefaultUser(), count, timeouts.sum(),
+                    averageWaitMillis, maxWaitMillis);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to read connection pool statistics.", e);
+        }
+    }
+
+    /**
+     * Logs the pool statistics, at warn level if callers are queueing for connections
+     * or checkouts have timed out since the previous call.
+     */
+    public void logStats() {
+        ConnectionPoolStats stats = getStats();
+        long newTimeouts = stats.getTimeouts() - lastLoggedTimeouts.getAndSet(stats.getTimeouts());
+        if (newTimeouts > 0 || stats.getThreadsAwaiting() > 0) {
+            log.warn("Connection pool is starved ({} new checkout timeout(s)): {}", newTimeouts, stats);
+        } else {
+            log.info("Connection pool: {}", stats);
+        }
+    }
+
+    private void recordWait(long waitNanos) {
+        checkouts.increment();
+        totalWaitNanos.add(waitNanos);
+        maxWaitNanos.accumulate(waitNanos);
+    }
+
+    private static boolean isCheckoutTimeout(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
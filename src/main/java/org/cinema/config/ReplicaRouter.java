@@ -0,0 +1,177 @@
+package org.cinema.config;
+
+import com.mchange.v2.resourcepool.CannotAcquireResourceException;
+import com.mchange.v2.resourcepool.TimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.cinema.util.PropertiesUtil;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.SessionBuilder;
+import org.hibernate.SessionFactory;
+import org.hibernate.exception.JDBCConnectionException;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.Supplier;
+
+/**
+ * Routes read-only sessions between the primary database and its read replica.
+ * Reads go to the replica while it is reachable and no further behind the primary than
+ * {@code db.replica.max.lag.seconds}; otherwise, and whenever the current thread is pinned to the primary
+ * (see {@link #runOnPrimary(Supplier)}), they fall back to the primary. The replica's health is refreshed by a
+ * background job and marked down immediately when a read fails to reach it.
+ */
+@Slf4j
+public final class ReplicaRouter {
+
+    private static final ThreadLocal<Integer> primaryPins = ThreadLocal.withInitial(() -> 0);
+
+    private static final long maxLagSeconds = PropertiesUtil.getInt("db.replica.max.lag.seconds", 2);
+
+    private static volatile SessionFactory replicaSessionFactory;
+    private static volatile boolean available;
+
+    private ReplicaRouter() {
+    }
+
+    static void setReplicaSessionFactory(SessionFactory sessionFactory) {
+        replicaSessionFactory = sessionFactory;
+        available = sessionFactory != null;
+    }
+
+    public static boolean isConfigured() {
+        return replicaSessionFactory != null;
+    }
+
+    /**
+     * Picks the session factory for a read-only operation.
+     *
+     * @param primary the primary session factory, used whenever the replica can't serve the read
+     * @return the replica session factory, or {@code primary}
+     */
+    public static SessionFactory forReads(SessionFactory primary) {
+        SessionFactory replica = replicaSessionFactory;
+        if (replica == null || !available || primaryPins.get() > 0) {
+            return primary;
+        }
+        return replica;
+    }
+
+    /**
+     * Opens a session on the factory picked by {@link #forReads(SessionFactory)}. Sessions on the replica only
+     * read the shared second-level and query caches and never put into them ({@link CacheMode#GET}), so rows
+     * read from a lagging replica can't repopulate them right after another node's change was evicted.
+     * While changes from other nodes may be missing ({@link InvalidationBus#isFresh()} is false), sessions don't
+     * read the caches at all: on the primary they reload what they read into them ({@link CacheMode#REFRESH}),
+     * on the replica they bypass them ({@link CacheMode#IGNORE}).
+     */
+    public static Session openSession(SessionFactory factory) {
+        return openSession(factory, factory.withOptions());
+    }
+
+    /**
+     * Like {@link #openSession(SessionFactory)}, with the options of the given builder of the same factory.
+     */
+    public static Session openSession(SessionFactory factory, SessionBuilder options) {
+        Session session = options.openSession();
+        boolean replica = factory == replicaSessionFactory;
+        if (!InvalidationBus.getInstance().isFresh()) {
+            session.setCacheMode(replica ? CacheMode.IGNORE : CacheMode.REFRESH);
+        } else if (replica) {
+            session.setCacheMode(CacheMode.GET);
+        }
+        return session;
+    }
+
+    /**
+     * Runs the action with every read of the current thread sent to the primary,
+     * e.g. to read back a write made a moment ago.
+     */
+    public static <R> R runOnPrimary(Supplier<R> action) {
+        pinToPrimary();
+        try {
+            return action.get();
+        } finally {
+            unpin();
+        }
+    }
+
+    public static void pinToPrimary() {
+        primaryPins.set(primaryPins.get() + 1);
+    }
+
+    public static void unpin() {
+        int pins = primaryPins.get() - 1;
+        if (pins > 0) {
+            primaryPins.set(pins);
+        } else {
+            primaryPins.remove();
+        }
+    }
+
+    /**
+     * Takes the replica out of rotation after a read failed to reach it.
+     * It's put back by the next successful {@link #checkHealth()}.
+     */
+    public static void markUnavailable(Throwable cause) {
+        if (available) {
+            available = false;
+            log.warn("Read replica marked unavailable, reads fall back to the primary: {}", cause.getMessage());
+        }
+    }
+
+    /**
+     * Checks whether the error means the database couldn't be reached at all, as opposed to a failing statement.
+     */
+    public static boolean isConnectionFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof JDBCConnectionException
+                    || cause instanceof CannotAcquireResourceException
+                    || cause instanceof TimeoutException) {
+                return true;
+            }
+            if (cause instanceof SQLException sqlException && sqlException.getSQLState() != null
+                    && sqlException.getSQLState().startsWith("08")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Measures the replica's lag and puts it in or out of rotation.
+     * A server that isn't replicating from anywhere (e.g. a standalone instance used as a replica locally)
+     * reports no replica status and counts as up to date; stopped replication counts as unavailable.
+     */
+    public static void checkHealth() {
+        SessionFactory replica = replicaSessionFactory;
+        if (replica == null) {
+            return;
+        }
+        Long lag;
+        try (Session session = replica.openSession()) {
+            lag = session.doReturningWork(connection -> {
+                try (Statement statement = connection.createStatement();
+                     ResultSet resultSet = statement.executeQuery("SHOW REPLICA STATUS")) {
+                    if (!resultSet.next()) {
+                        return 0L;
+                    }
+                    long secondsBehind = resultSet.getLong("Seconds_Behind_Source");
+                    return resultSet.wasNull() ? null : secondsBehind;
+                }
+            });
+        } catch (RuntimeException e) {
+            markUnavailable(e);
+            return;
+        }
+
+        boolean healthy = lag != null && lag <= maxLagSeconds;
+        if (healthy != available) {
+            log.warn(healthy ? "Read replica is back in rotation ({} seconds behind)."
+                    : "Read replica taken out of rotation ({} seconds behind).", lag == null ? "unknown" : lag);
+        }
+        available = healthy;
+        log.debug("Read replica is {} seconds behind the primary.", lag);
+    }
+}
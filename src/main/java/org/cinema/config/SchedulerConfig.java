@@ -0,0 +1,114 @@
+package org.cinema.config;
+
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+import jakarta.servlet.annotation.WebListener;
+import lombok.extern.slf4j.Slf4j;
+import org.cinema.service.impl.ScheduleIndex;
+import org.cinema.service.impl.SeatHoldServiceImpl;
+import org.cinema.service.impl.WaitingRoomServiceImpl;
+import org.cinema.util.PropertiesUtil;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration class for background maintenance jobs.
+ * Jobs start after their first interval, so they never run before {@link HibernateConfig} has built the
+ * {@link org.hibernate.SessionFactory}, whatever order the container initializes the listeners in.
+ */
+@Slf4j
+@WebListener
+public class SchedulerConfig implements ServletContextListener {
+
+    private ScheduledExecutorService scheduler;
+    private ScheduledExecutorService invalidationPoller;
+
+    /**
+     * Starts the scheduler and registers the maintenance jobs.
+     *
+     * @param sce the servlet context event object
+     */
+    @Override
+    public void contextInitialized(ServletContextEvent sce) {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cinema-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        int sweepInterval = PropertiesUtil.getInt("seat.hold.sweep.interval.seconds", 30);
+        schedule("seat hold sweep", () -> SeatHoldServiceImpl.getInstance().sweepExpiredHolds(), sweepInterval);
+
+        int waitingRoomAdmitInterval = PropertiesUtil.getInt("waiting.room.admit.interval.seconds", 2);
+        schedule("waiting room admission", () -> WaitingRoomServiceImpl.getInstance().admitWaitingUsers(),
+                waitingRoomAdmitInterval);
+
+        int waitingRoomSweepInterval = PropertiesUtil.getInt("waiting.room.sweep.interval.seconds", 30);
+        schedule("waiting room sweep", () -> WaitingRoomServiceImpl.getInstance().sweepInactiveEntries(),
+                waitingRoomSweepInterval);
+
+        int invalidationPurgeInterval = PropertiesUtil.getInt("cache.invalidation.purge.interval.seconds", 600);
+        schedule("cache invalidation purge", () -> InvalidationBus.getInstance().purge(), invalidationPurgeInterval);
+
+        int scheduleIndexInterval = PropertiesUtil.getInt("schedule.index.reload.interval.seconds", 300);
+        schedule("schedule index reload", () -> ScheduleIndex.getInstance().reload(), scheduleIndexInterval);
+
+        int poolMetricsInterval = PropertiesUtil.getInt("connection.pool.metrics.interval.seconds", 60);
+        schedule("connection pool metrics", () -> MeteredConnectionProvider.getCurrent().logStats(),
+                poolMetricsInterval);
+
+        int replicaHealthInterval = PropertiesUtil.getInt("db.replica.health.interval.seconds", 5);
+        schedule("read replica health check", ReplicaRouter::checkHealth, replicaHealthInterval);
+
+        /*
+         * The invalidation poll has a thread of its own, so a long sweep never delays it past the staleness
+         * the caches allow. Its first interval is too short to rely on, so it waits for the session factory.
+         */
+        invalidationPoller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cinema-invalidation-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        int pollInterval = PropertiesUtil.getInt("cache.invalidation.poll.interval.millis", 250);
+        invalidationPoller.scheduleWithFixedDelay(() -> {
+            if (!HibernateConfig.isInitialized()) {
+                return;
+            }
+            try {
+                InvalidationBus.getInstance().poll();
+            } catch (Exception e) {
+                log.error("Cache invalidation poll failed: {}", e.getMessage(), e);
+            }
+        }, pollInterval, pollInterval, TimeUnit.MILLISECONDS);
+        log.info("Background scheduler started.");
+    }
+
+    /**
+     * Stops the scheduler when the application shuts down.
+     *
+     * @param sce the servlet context event object
+     */
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+        if (invalidationPoller != null) {
+            invalidationPoller.shutdownNow();
+        }
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            log.info("Background scheduler stopped.");
+        }
+    }
+
+    private void schedule(String name, Runnable job, int intervalSeconds) {
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                job.run();
+            } catch (Exception e) {
+                log.error("Background job '{}' failed: {}", name, e.getMessage(), e);
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        log.debug("Background job '{}' scheduled every {} seconds.", name, intervalSeconds);
+    }
+}
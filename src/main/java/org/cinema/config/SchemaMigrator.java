@@ -0,0 +1,299 @@
+package org.cinema.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.cinema.util.PropertiesUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Applies the versioned SQL scripts in {@code db/migration} on the classpath to the primary database.
+ * Scripts are named {@code V<version>__<description>.sql} and run in version order, each exactly once;
+ * applied versions are recorded in the {@code schema_migration} table together with a checksum of the script,
+ * and a script that was changed after it had been applied stops the startup.
+ * The whole run holds a MySQL named lock, so when several nodes start together only one of them migrates
+ * and the others wait for it and then find nothing left to do.
+ * MySQL commits DDL implicitly, so a script that fails halfway has to be safe to run again.
+ * A script checks its preconditions with queries: a query that returns rows stops the migration, reporting
+ * its first column (the explanation) and the remaining columns of up to {@value #MAX_REPORTED_ROWS} rows.
+ */
+@Slf4j
+public final class SchemaMigrator {
+
+    private static final String LOCATION = "db/migration";
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    private static final String LOCK_NAME = "cinema_schema_migration";
+    private static final int MAX_REPORTED_ROWS = 50;
+
+    private static final int lockTimeoutSeconds = PropertiesUtil.getInt("db.migration.lock.timeout.seconds", 120);
+
+    private record Migration(int version, String description, String script, long checksum) {
+    }
+
+    private SchemaMigrator() {
+    }
+
+    /**
+     * Brings the database schema up to the latest script version.
+     *
+     * @throws IllegalStateException if the lock isn't granted in time, a script fails
+     *                               or an applied script has been changed
+     */
+    public static void migrate(String url, String username, String password) {
+        List<Migration> migrations = findMigrations();
+        try (Connection connection = DriverManager.getConnection(url, username, password)) {
+            connection.setAutoCommit(true);
+            acquireLock(connection);
+            try {
+                int applied = applyPending(connection, migrations);
+                log.info("Database schema is up to date ({} script(s) found, {} applied now).",
+                        migrations.size(), applied);
+            } finally {
+                releaseLock(connection);
+            }
+        } catch (SQLException e) {
+            log.error("Schema migration failed: {}", e.getMessage(), e);
+            throw new IllegalStateException("Schema migration failed.", e);
+        }
+    }
+
+    private static int applyPending(Connection connection, List<Migration> migrations) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS `schema_migration` (" +
+                    "`version` INT NOT NULL, " +
+                    "`description` VARCHAR(255) NOT NULL, " +
+                    "`checksum` BIGINT NOT NULL, " +
+                    "`applied_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP, " +
+                    "PRIMARY KEY (`version`))");
+        }
+
+        Map<Integer, Long> appliedChecksums = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT version, checksum FROM schema_migration")) {
+            while (resultSet.next()) {
+                appliedChecksums.put(resultSet.getInt(1), resultSet.getLong(2));
+            }
+        }
+
+        int applied = 0;
+        for (Migration migration : migrations) {
+            Long checksum = appliedChecksums.get(migration.version());
+            if (checksum != null) {
+                if (checksum != migration.checksum()) {
+                    throw new IllegalStateException("Migration V" + migration.version() +
+                            " has been changed after it was applied.");
+                }
+                continue;
+            }
+            apply(connection, migration);
+            applied++;
+        }
+        return applied;
+    }
+
+    private static void apply(Connection connection, Migration migration) throws SQLException {
+        log.info("Applying migration V{} ({})...", migration.version(), migration.description());
+        long start = System.nanoTime();
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : splitStatements(migration.script())) {
+                if (statement.execute(sql)) {
+                    try (ResultSet resultSet = statement.getResultSet()) {
+                        checkNoRows(migration, resultSet);
+                    }
+                }
+            }
+        }
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO schema_migration (version, description, checksum) VALUES (?, ?, ?)")) {
+            insert.setInt(1, migration.version());
+            insert.setString(2, migration.description());
+            insert.setLong(3, migration.checksum());
+            insert.executeUpdate();
+        }
+        log.info("Migration V{} applied in {} ms.", migration.version(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Stops the migration if a precondition query of the script returned rows.
+     *
+     * @throws IllegalStateException listing the rows
+     */
+    private static void checkNoRows(Migration migration, ResultSet resultSet) throws SQLException {
+        if (!resultSet.next()) {
+            return;
+        }
+        String problem = resultSet.getString(1);
+        int columns = resultSet.getMetaData().getColumnCount();
+        List<String> rows = new ArrayList<>();
+        int count = 0;
+        do {
+            if (++count <= MAX_REPORTED_ROWS) {
+                StringBuilder row = new StringBuilder();
+                for (int column = 2; column <= columns; column++) {
+                    row.append(column > 2 ? ", " : "").append(resultSet.getMetaData().getColumnLabel(column))
+                            .append('=').append(resultSet.getString(column));
+                }
+                rows.add(row.toString());
+            }
+        } while (resultSet.next());
+        log.error("Migration V{} stopped: {} {} row(s): {}", migration.version(), problem, count, rows);
+        throw new IllegalStateException("Migration V" + migration.version() + " stopped: " + problem + " "
+                + count + " row(s)" + (count > MAX_REPORTED_ROWS ? ", the first " + MAX_REPORTED_ROWS : "")
+                + ": " + String.join("; ", rows));
+    }
+
+    private static void acquireLock(Connection connection) throws SQLException {
+        log.debug("Waiting up to {} seconds for the schema migration lock...", lockTimeoutSeconds);
+        try (PreparedStatement statement = connection.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            statement.setString(1, LOCK_NAME);
+            statement.setInt(2, lockTimeoutSeconds);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next() || resultSet.getInt(1) != 1) {
+                    throw new IllegalStateException("Schema migration lock wasn't granted within "
+                            + lockTimeoutSeconds + " seconds.");
+                }
+            }
+        }
+    }
+
+    private static void releaseLock(Connection connection) {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            statement.setString(1, LOCK_NAME);
+            statement.executeQuery().close();
+        } catch (SQLException e) {
+            log.warn("Failed to release the schema migration lock: {}", e.getMessage());
+        }
+    }
+
+    private static List<Migration> findMigrations() {
+        List<Migration> migrations = new ArrayList<>();
+        for (String name : listScripts()) {
+            Matcher matcher = SCRIPT_NAME.matcher(name);
+            if (!matcher.matches()) {
+                log.warn("Ignoring '{}' in {}: not a V<version>__<description>.sql script.", name, LOCATION);
+                continue;
+            }
+            String script = readScript(LOCATION + "/" + name);
+            CRC32 crc = new CRC32();
+            crc.update(script.getBytes(StandardCharsets.UTF_8));
+            migrations.add(new Migration(Integer.parseInt(matcher.group(1)),
+                    matcher.group(2).replace('_', ' '), script, crc.getValue()));
+        }
+        migrations.sort(Comparator.comparingInt(Migration::version));
+        for (int i = 1; i < migrations.size(); i++) {
+            if (migrations.get(i).version() == migrations.get(i - 1).version()) {
+                throw new IllegalStateException("Duplicate migration version V" + migrations.get(i).version() + ".");
+            }
+        }
+        return migrations;
+    }
+
+    /**
+     * Lists the file names in the migration directory, whether the classes are deployed exploded or in a jar.
+     */
+    private static List<String> listScripts() {
+        URL directory = SchemaMigrator.class.getClassLoader().getResource(LOCATION);
+        if (directory == null) {
+            log.warn("No {} directory on the classpath, nothing to migrate.", LOCATION);
+            return List.of();
+        }
+        List<String> names = new ArrayList<>();
+        try {
+            if ("jar".equals(directory.getProtocol())) {
+                JarURLConnection connection = (JarURLConnection) directory.openConnection();
+                connection.setUseCaches(false);
+                try (JarFile jar = connection.getJarFile()) {
+                    Enumeration<JarEntry> entries = jar.entries();
+                    while (entries.hasMoreElements()) {
+                        String entry = entries.nextElement().getName();
+                        if (entry.startsWith(LOCATION + "/") && entry.length() > LOCATION.length() + 1
+                                && entry.indexOf('/', LOCATION.length() + 1) < 0) {
+                            names.add(entry.substring(LOCATION.length() + 1));
+                        }
+                    }
+                }
+            } else {
+                try (Stream<Path> files = Files.list(Path.of(directory.toURI()))) {
+                    files.filter(Files::isRegularFile).forEach(file -> names.add(file.getFileName().toString()));
+                }
+            }
+        } catch (IOException | URISyntaxException e) {
+            throw new IllegalStateException("Failed to list the migration scripts in " + directory + ".", e);
+        }
+        return names;
+    }
+
+    private static String readScript(String resource) {
+        try (InputStream input = SchemaMigrator.class.getClassLoader().getResourceAsStream(resource)) {
+            if (input == null) {
+                throw new IllegalStateException("Migration script " + resource + " can't be read.");
+            }
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Migration script " + resource + " can't be read.", e);
+        }
+    }
+
+    /**
+     * Splits a script into statements at semicolons outside quotes, dropping {@code --} comments.
+     */
+    private static List<String> splitStatements(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        char quote = 0;
+        for (int i = 0; i < script.length(); i++) {
+            char c = script.charAt(i);
+            if (quote != 0) {
+                current.append(c);
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"' || c == '`') {
+                quote = c;
+                current.append(c);
+            } else if (c == '-' && script.startsWith("--", i)) {
+                int end = script.indexOf('\n', i);
+                i = end < 0 ? script.length() : end;
+                current.append('\n');
+            } else if (c == ';') {
+                addStatement(statements, current);
+            } else {
+                current.append(c);
+            }
+        }
+        addStatement(statements, current);
+        return statements;
+    }
+
+    private static void addStatement(List<String> statements, StringBuilder current) {
+        String statement = current.toString().trim();
+        if (!statement.isEmpty()) {
+            statements.add(statement);
+        }
+        current.setLength(0);
+    }
+}
@@ -6,15 +6,18 @@ import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.cinema.dto.Page;
+import org.cinema.dto.TicketView;
 import org.cinema.exception.NoDataFoundException;
-import org.cinema.model.*;
+import org.cinema.filter.FlashMessageFilter;
 import org.cinema.service.TicketService;
 import org.cinema.service.impl.TicketServiceImpl;
 import org.cinema.util.ValidationUtil;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.Set;
+import java.util.List;
 
 @Slf4j
 @WebServlet(name = "AdminConfirmServlet", urlPatterns = {"/admin/tickets/confirm"})
@@ -23,6 +26,7 @@ public class AdminConfirmServlet extends HttpServlet {
     private static final String VIEW_PATH = "/WEB-INF/views/confirmTickets.jsp";
     private static final String MESSAGE_PARAM = "message";
     private static final String REDIRECT_PATH = "/admin/tickets/confirm";
+    private static final String PAGE_PARAM = "page";
 
     private TicketService ticketService;
 
@@ -39,22 +43,23 @@ public class AdminConfirmServlet extends HttpServlet {
 
         try {
             log.debug("Start to fetch tickets...");
-            Set<Ticket> tickets = ticketService.findAll();
-            request.setAttribute("tickets", tickets);
+            Page<TicketView> tickets = ticketService.findPage(request.getParameter(PAGE_PARAM));
+            request.setAttribute("tickets", tickets.getItems());
+            request.setAttribute("nextPageToken", tickets.getNextPageToken());
             
             String message = request.getParameter(MESSAGE_PARAM);
             if (message != null && !message.isEmpty()) {
                 request.setAttribute(MESSAGE_PARAM, message);
             }
             
-        } catch (NoDataFoundException e) {
-            handleError(request, "Error! " + e.getMessage(),
-                    "No tickets found: {}", e, e.getMessage());
-            request.setAttribute("tickets", Collections.emptySet());
+        } catch (IllegalArgumentException e) {
+            handleError(request, "Error! Invalid input: " + e.getMessage(),
+                    "Validation error during tickets fetching", e);
+            request.setAttribute("tickets", Collections.emptyList());
         } catch (Exception e) {
             handleError(request, "An unexpected error occurred while fetching tickets",
                     "Unexpected error during tickets fetching: {}", e, e.getMessage());
-            request.setAttribute("tickets", Collections.emptySet());
+            request.setAttribute("tickets", Collections.emptyList());
         }
 
         request.getRequestDispatcher(VIEW_PATH).forward(request, response);
@@ -67,40 +72,60 @@ public class AdminConfirmServlet extends HttpServlet {
 
         try {
             String action = request.getParameter("action");
-            String ticketIdParam = request.getParameter("id");
-
-            ValidationUtil.validateParameters(action, ticketIdParam);
-
-            log.debug("Processing action {} for ticket ID {}", action, ticketIdParam);
-            String message = ticketService.processTicketAction(action, ticketIdParam);
+            String message = processAction(action, request);
             
             response.sendRedirect(request.getContextPath() + REDIRECT_PATH + "?" + MESSAGE_PARAM + "=" + 
                     response.encodeRedirectURL(message));
             return;
             
         } catch (IllegalArgumentException e) {
-            handleSessionError(request, "Error! Invalid input: " + e.getMessage(),
+            handleSessionError(request, response, "Error! Invalid input: " + e.getMessage(),
                     "Validation error during ticket confirmation", e);
         } catch (NoDataFoundException e) {
-            handleSessionError(request, "Error! " + e.getMessage(),
+            handleSessionError(request, response, "Error! " + e.getMessage(),
                     "Business error during ticket confirmation: {}", e, e.getMessage());
         } catch (Exception e) {
-            handleSessionError(request, "An unexpected error occurred while processing the ticket",
+            handleSessionError(request, response, "An unexpected error occurred while processing the ticket",
                     "Unexpected error during ticket confirmation: {}", e, e.getMessage());
         }
 
         response.sendRedirect(request.getContextPath() + REDIRECT_PATH);
     }
 
+    private String processAction(String action, HttpServletRequest request) {
+        ValidationUtil.validateNotBlank(action, "Action");
+        return switch (action) {
+            case "confirmSelected", "cancelSelected" -> {
+                String[] ids = request.getParameterValues("ids");
+                log.debug("Processing bulk action {} for {} ticket(s)", action, ids == null ? 0 : ids.length);
+                yield ticketService.processBulkAction(action, ids == null ? List.of() : Arrays.asList(ids));
+            }
+            case "confirmSession" -> {
+                log.debug("Confirming all pending tickets of session {}", request.getParameter("sessionId"));
+                yield ticketService.confirmAllOfSession(request.getParameter("sessionId"));
+            }
+            case "cancelStale" -> {
+                log.debug("Cancelling pending tickets older than {} minutes", request.getParameter("olderThanMinutes"));
+                yield ticketService.cancelPendingOlderThan(request.getParameter("olderThanMinutes"));
+            }
+            default -> {
+                String ticketIdParam = request.getParameter("id");
+                ValidationUtil.validateParameters(action, ticketIdParam);
+                log.debug("Processing action {} for ticket ID {}", action, ticketIdParam);
+                yield ticketService.processTicketAction(action, ticketIdParam);
+            }
+        };
+    }
+
     private void handleError(HttpServletRequest request, String userMessage,
             String logMessage, Exception e, Object... logParams) {
         log.error(logMessage, logParams, e);
         request.setAttribute(MESSAGE_PARAM, userMessage);
     }
 
-    private void handleSessionError(HttpServletRequest request, String userMessage,
+    private void handleSessionError(HttpServletRequest request, HttpServletResponse response, String userMessage,
             String logMessage, Exception e, Object... logParams) {
         log.error(logMessage, logParams, e);
-        request.getSession().setAttribute(MESSAGE_PARAM, userMessage);
+        FlashMessageFilter.setMessage(request, response, userMessage);
     }
 }
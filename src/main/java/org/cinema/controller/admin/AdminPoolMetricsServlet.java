@@ -0,0 +1,39 @@
+package org.cinema.controller.admin;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.cinema.config.MeteredConnectionProvider;
+
+import java.io.IOException;
+import java.util.Map;
+
+@Slf4j
+@WebServlet(name = "AdminPoolMetricsServlet", urlPatterns = {"/admin/metrics/pool"})
+public class AdminPoolMetricsServlet extends HttpServlet {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        log.debug("Handling GET request for connection pool metrics...");
+
+        Object body;
+        try {
+            body = MeteredConnectionProvider.getCurrent().getStats();
+            response.setStatus(HttpServletResponse.SC_OK);
+        } catch (Exception e) {
+            log.error("Failed to read connection pool metrics: {}", e.getMessage(), e);
+            body = Map.of("message", "Connection pool metrics are unavailable");
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        }
+
+        response.setHeader("Cache-Control", "no-store");
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getWriter(), body);
+    }
+}
@@ -7,15 +7,19 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.cinema.dto.FilmSessionDTO;
+import org.cinema.dto.Page;
+import org.cinema.exception.EditConflictException;
 import org.cinema.exception.EntityAlreadyExistException;
 import org.cinema.exception.NoDataFoundException;
 import org.cinema.exception.OmdbApiException;
+import org.cinema.filter.FlashMessageFilter;
 import org.cinema.service.SessionService;
 import org.cinema.service.impl.SessionServiceImpl;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.Set;
+import java.util.List;
 
 @Slf4j
 @WebServlet(name = "AdminSessionServlet", urlPatterns = {"/admin/sessions"})
@@ -24,6 +28,7 @@ public class AdminSessionServlet extends HttpServlet {
     private static final String VIEW_PATH = "/WEB-INF/views/sessions.jsp";
     private static final String REDIRECT_PATH = "/admin/sessions";
     private static final String MESSAGE_PARAM = "message";
+    private static final String PAGE_PARAM = "page";
 
     private SessionService sessionService;
 
@@ -44,9 +49,10 @@ public class AdminSessionServlet extends HttpServlet {
                 handleEditAction(request);
             }
             
-            log.debug("Fetching all sessions...");
-            Set<FilmSessionDTO> filmSessions = sessionService.findAll();
-            request.setAttribute("filmSessions", filmSessions);
+            log.debug("Fetching a page of sessions...");
+            Page<FilmSessionDTO> filmSessions = sessionService.findPage(request.getParameter(PAGE_PARAM));
+            request.setAttribute("filmSessions", filmSessions.getItems());
+            request.setAttribute("nextPageToken", filmSessions.getNextPageToken());
             
             String message = request.getParameter(MESSAGE_PARAM);
             if (message != null && !message.isEmpty()) {
@@ -59,11 +65,11 @@ public class AdminSessionServlet extends HttpServlet {
         } catch (NoDataFoundException e) {
             handleError(request, "Error! " + e.getMessage(),
                     "No sessions found: {}", e, e.getMessage());
-            request.setAttribute("filmSessions", Collections.emptySet());
+            request.setAttribute("filmSessions", Collections.emptyList());
         } catch (Exception e) {
             handleError(request, "An unexpected error occurred while fetching sessions",
                     "Unexpected error during sessions fetching: {}", e, e.getMessage());
-            request.setAttribute("filmSessions", Collections.emptySet());
+            request.setAttribute("filmSessions", Collections.emptyList());
         }
 
         request.getRequestDispatcher(VIEW_PATH).forward(request, response);
@@ -82,25 +88,28 @@ public class AdminSessionServlet extends HttpServlet {
                 case "add" -> handleAddAction(request);
                 case "edit" -> handleEditSubmitAction(request);
                 case "delete" -> handleDeleteAction(request);
+                case "waitingRoom" -> sessionService.setWaitingRoom(getRequiredParameter(request, "id"),
+                        getRequiredParameter(request, "enabled"));
+                case "deleteSelected" -> handleDeleteSelectedAction(request);
                 default -> {
                     log.warn("Unknown action requested: {}", action);
                     yield "Unknown action requested";
                 }
             };
 
-            request.getSession().setAttribute(MESSAGE_PARAM, message);
+            FlashMessageFilter.setMessage(request, response, message);
             
         } catch (IllegalArgumentException e) {
-            handleSessionError(request, "Error! Invalid input: " + e.getMessage(),
+            handleSessionError(request, response, "Error! Invalid input: " + e.getMessage(),
                     "Validation error for session operation", e);
-        } catch (NoDataFoundException | EntityAlreadyExistException e) {
-            handleSessionError(request, "Error! " + e.getMessage(),
+        } catch (NoDataFoundException | EntityAlreadyExistException | EditConflictException e) {
+            handleSessionError(request, response, "Error! " + e.getMessage(),
                     "Business error during session operation: {}", e, e.getMessage());
         } catch (OmdbApiException e) {
-            handleSessionError(request, "Error! Failed to communicate with OMDB API. Please try again later.",
+            handleSessionError(request, response, "Error! Failed to communicate with OMDB API. Please try again later.",
                     "OMDB API error during session operation", e);
         } catch (Exception e) {
-            handleSessionError(request, "An unexpected error occurred while processing the session",
+            handleSessionError(request, response, "An unexpected error occurred while processing the session",
                     "Unexpected error during session operation: {}", e, e.getMessage());
         }
 
@@ -114,6 +123,18 @@ public class AdminSessionServlet extends HttpServlet {
     }
 
     private String handleAddAction(HttpServletRequest request) {
+        String repeatDays = request.getParameter("repeatDays");
+        if (repeatDays != null && !repeatDays.trim().isEmpty() && !"1".equals(repeatDays.trim())) {
+            return sessionService.saveForDays(
+                    getRequiredParameter(request, "movieTitle"),
+                    getRequiredParameter(request, "date"),
+                    getRequiredParameter(request, "startTime"),
+                    getRequiredParameter(request, "endTime"),
+                    getRequiredParameter(request, "capacity"),
+                    getRequiredParameter(request, "price"),
+                    repeatDays.trim()
+            );
+        }
         return sessionService.save(
                 getRequiredParameter(request, "movieTitle"),
                 getRequiredParameter(request, "date"),
@@ -132,7 +153,8 @@ public class AdminSessionServlet extends HttpServlet {
                 getRequiredParameter(request, "startTime"),
                 getRequiredParameter(request, "endTime"),
                 getRequiredParameter(request, "capacity"),
-                getRequiredParameter(request, "price")
+                getRequiredParameter(request, "price"),
+                getRequiredParameter(request, "version")
         );
     }
 
@@ -140,6 +162,11 @@ public class AdminSessionServlet extends HttpServlet {
         return sessionService.delete(getRequiredParameter(request, "id"));
     }
 
+    private String handleDeleteSelectedAction(HttpServletRequest request) {
+        String[] ids = request.getParameterValues("ids");
+        return sessionService.deleteAll(ids == null ? List.of() : Arrays.asList(ids));
+    }
+
     private String getRequiredParameter(HttpServletRequest request, String paramName) {
         String value = request.getParameter(paramName);
         if (value == null || value.trim().isEmpty()) {
@@ -154,9 +181,9 @@ public class AdminSessionServlet extends HttpServlet {
         request.setAttribute(MESSAGE_PARAM, userMessage);
     }
 
-    private void handleSessionError(HttpServletRequest request, String userMessage,
+    private void handleSessionError(HttpServletRequest request, HttpServletResponse response, String userMessage,
             String logMessage, Exception e, Object... logParams) {
         log.error(logMessage, logParams, e);
-        request.getSession().setAttribute(MESSAGE_PARAM, userMessage);
+        FlashMessageFilter.setMessage(request, response, userMessage);
     }
 }
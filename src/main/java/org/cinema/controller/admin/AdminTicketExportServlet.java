@@ -0,0 +1,152 @@
+package org.cinema.controller.admin;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.cinema.dto.TicketExportRow;
+import org.cinema.service.TicketService;
+import org.cinema.service.impl.TicketServiceImpl;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams the ticket history as CSV or NDJSON, optionally gzipped, e.g. for the nightly finance export.
+ * Rows are written as they are read from the database, so the response never has to fit in memory.
+ * Parameters: {@code format} ({@code csv} or {@code ndjson}), {@code from} and {@code to} (purchase dates,
+ * inclusive), {@code status} and {@code gzip=true}.
+ */
+@Slf4j
+@WebServlet(name = "AdminTicketExportServlet", urlPatterns = {"/admin/tickets/export"})
+public class AdminTicketExportServlet extends HttpServlet {
+
+    private static final String CSV_HEADER = "id,username,session_id,movie_title,date,start_time,seat_number," +
+            "price,purchase_time,status,request_type";
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    private TicketService ticketService;
+
+    @Override
+    public void init() {
+        ticketService = TicketServiceImpl.getInstance();
+        log.info("AdminTicketExportServlet initialized.");
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        log.debug("Handling GET request for ticket export...");
+
+        String format = Objects.requireNonNullElse(request.getParameter("format"), "csv").trim().toLowerCase();
+        if (!"csv".equals(format) && !"ndjson".equals(format)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Format must be csv or ndjson.");
+            return;
+        }
+        boolean gzip = "true".equalsIgnoreCase(request.getParameter("gzip"));
+
+        String fileName = "tickets." + format + (gzip ? ".gz" : "");
+        response.setHeader("Cache-Control", "no-store");
+        response.setHeader("Content-Disposition", "attachment; filename=\"" + fileName + "\"");
+        response.setContentType(gzip ? "application/gzip"
+                : "csv".equals(format) ? "text/csv; charset=UTF-8" : "application/x-ndjson; charset=UTF-8");
+
+        OutputStream out = gzip ? new GZIPOutputStream(response.getOutputStream(), 8192)
+                : response.getOutputStream();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try {
+            long rows = "csv".equals(format)
+                    ? exportCsv(request, writer)
+                    : exportNdjson(request, writer);
+            writer.close();
+            log.info("Ticket export finished: {} rows as {}{}.", rows, format, gzip ? " (gzip)" : "");
+        } catch (IllegalArgumentException e) {
+            log.warn("Validation error: {}", e.getMessage(), e);
+            response.reset();
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid input: " + e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Ticket export failed: {}", e.getMessage(), e);
+            if (!response.isCommitted()) {
+                response.reset();
+                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Ticket export failed");
+                return;
+            }
+            throw new ServletException("Ticket export aborted after the response was committed.", e);
+        }
+    }
+
+    private long exportCsv(HttpServletRequest request, Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        return export(request, row -> {
+            try {
+                writer.write(row.getId() + "," + csv(row.getUsername()) + "," + row.getSessionId() + "," +
+                        csv(row.getMovieTitle()) + "," + row.getDate() + "," + row.getStartTime() + "," +
+                        csv(row.getSeatNumber()) + "," + row.getPrice() + "," +
+                        Objects.toString(row.getPurchaseTime(), "") + "," + row.getStatus() + "," +
+                        row.getRequestType() + "\n");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private long exportNdjson(HttpServletRequest request, Writer writer) throws IOException {
+        JsonGenerator json = jsonFactory.createGenerator(writer)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        long rows = export(request, row -> {
+            try {
+                json.writeStartObject();
+                json.writeNumberField("id", row.getId());
+                json.writeStringField("username", row.getUsername());
+                json.writeNumberField("sessionId", row.getSessionId());
+                json.writeStringField("movieTitle", row.getMovieTitle());
+                json.writeStringField("date", Objects.toString(row.getDate(), null));
+                json.writeStringField("startTime", Objects.toString(row.getStartTime(), null));
+                json.writeStringField("seatNumber", row.getSeatNumber());
+                json.writeNumberField("price", row.getPrice());
+                json.writeStringField("purchaseTime", Objects.toString(row.getPurchaseTime(), null));
+                json.writeStringField("status", Objects.toString(row.getStatus(), null));
+                json.writeStringField("requestType", Objects.toString(row.getRequestType(), null));
+                json.writeEndObject();
+                json.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        json.close();
+        return rows;
+    }
+
+    private long export(HttpServletRequest request, Consumer<TicketExportRow> sink) {
+        return ticketService.export(
+                request.getParameter("from"),
+                request.getParameter("to"),
+                request.getParameter("status"),
+                sink
+        );
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
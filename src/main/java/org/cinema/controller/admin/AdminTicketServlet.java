@@ -7,21 +7,23 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.cinema.dto.FilmSessionDTO;
+import org.cinema.dto.Page;
+import org.cinema.dto.TicketView;
+import org.cinema.exception.EditConflictException;
 import org.cinema.exception.EntityAlreadyExistException;
 import org.cinema.exception.NoDataFoundException;
+import org.cinema.filter.FlashMessageFilter;
 import org.cinema.model.FilmSession;
 import org.cinema.model.Ticket;
-import org.cinema.model.User;
 import org.cinema.service.SessionService;
 import org.cinema.service.TicketService;
-import org.cinema.service.UserService;
 import org.cinema.service.impl.SessionServiceImpl;
 import org.cinema.service.impl.TicketServiceImpl;
-import org.cinema.service.impl.UserServiceImpl;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.Set;
+import java.util.List;
 
 @Slf4j
 @WebServlet(name = "AdminTicketServlet", urlPatterns = {"/admin/tickets"})
@@ -30,15 +32,14 @@ public class AdminTicketServlet extends HttpServlet {
     private static final String VIEW_PATH = "/WEB-INF/views/tickets.jsp";
     private static final String REDIRECT_PATH = "/admin/tickets";
     private static final String MESSAGE_PARAM = "message";
+    private static final String PAGE_PARAM = "page";
 
     private TicketService ticketService;
     private SessionService sessionService;
-    private UserService userService;
 
     @Override
     public void init() {
         ticketService = TicketServiceImpl.getInstance();
-        userService = UserServiceImpl.getInstance();
         sessionService = SessionServiceImpl.getInstance();
         log.info("AdminTicketServlet initialized.");
     }
@@ -76,17 +77,17 @@ public class AdminTicketServlet extends HttpServlet {
         try {
             String action = request.getParameter("action");
             String message = processAction(action, request);
-            request.getSession().setAttribute(MESSAGE_PARAM, message);
+            FlashMessageFilter.setMessage(request, response, message);
 
         } catch (IllegalArgumentException e) {
             log.warn("Validation error: {}", e.getMessage(), e);
-            request.getSession().setAttribute(MESSAGE_PARAM, "Error! Invalid input: " + e.getMessage());
-        } catch (NoDataFoundException | EntityAlreadyExistException e) {
+            FlashMessageFilter.setMessage(request, response, "Error! Invalid input: " + e.getMessage());
+        } catch (NoDataFoundException | EntityAlreadyExistException | EditConflictException e) {
             log.warn("Business error: {}", e.getMessage(), e);
-            request.getSession().setAttribute(MESSAGE_PARAM, e.getMessage());
+            FlashMessageFilter.setMessage(request, response, e.getMessage());
         } catch (Exception e) {
             log.error("Unexpected error: {}", e.getMessage(), e);
-            request.getSession().setAttribute(MESSAGE_PARAM, "An unexpected error occurred");
+            FlashMessageFilter.setMessage(request, response, "An unexpected error occurred");
         }
 
         response.sendRedirect(request.getContextPath() + REDIRECT_PATH);
@@ -96,6 +97,7 @@ public class AdminTicketServlet extends HttpServlet {
         return switch (action) {
             case "add" -> handleAddAction(request);
             case "delete" -> handleDeleteAction(request);
+            case "deleteSelected" -> handleDeleteSelectedAction(request);
             case "update" -> handleUpdateAction(request);
             default -> {
                 log.warn("Unknown action requested: {}", action);
@@ -107,19 +109,17 @@ public class AdminTicketServlet extends HttpServlet {
     private void loadDataForView(HttpServletRequest request) {
         log.debug("Loading data for view...");
 
-        Set<User> users = userService.findAll();
-        Set<FilmSessionDTO> filmSessions = sessionService.findAll();
-        Set<Ticket> tickets = ticketService.findAll();
+        List<FilmSessionDTO> filmSessions = sessionService.findAll();
+        Page<TicketView> tickets = ticketService.findPage(request.getParameter(PAGE_PARAM));
 
-        request.setAttribute("tickets", tickets);
-        request.setAttribute("users", users);
+        request.setAttribute("tickets", tickets.getItems());
+        request.setAttribute("nextPageToken", tickets.getNextPageToken());
         request.setAttribute("filmSessions", filmSessions);
     }
 
     private void setEmptyCollections(HttpServletRequest request) {
-        request.setAttribute("tickets", Collections.emptySet());
-        request.setAttribute("users", Collections.emptySet());
-        request.setAttribute("filmSessions", Collections.emptySet());
+        request.setAttribute("tickets", Collections.emptyList());
+        request.setAttribute("filmSessions", Collections.emptyList());
     }
 
     private String handleAddAction(HttpServletRequest request) {
@@ -136,6 +136,11 @@ public class AdminTicketServlet extends HttpServlet {
         return ticketService.delete(getRequiredParameter(request, "id"));
     }
 
+    private String handleDeleteSelectedAction(HttpServletRequest request) {
+        String[] ids = request.getParameterValues("ids");
+        return ticketService.deleteAll(ids == null ? List.of() : Arrays.asList(ids));
+    }
+
     private String handleUpdateAction(HttpServletRequest request) {
         return ticketService.update(
                 getRequiredParameter(request, "id"),
@@ -143,7 +148,8 @@ public class AdminTicketServlet extends HttpServlet {
                 getRequiredParameter(request, "sessionId"),
                 getRequiredParameter(request, "seatNumber"),
                 getRequiredParameter(request, "status"),
-                getRequiredParameter(request, "requestType")
+                getRequiredParameter(request, "requestType"),
+                getRequiredParameter(request, "version")
         );
     }
 
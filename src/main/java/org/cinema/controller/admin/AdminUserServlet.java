@@ -6,14 +6,15 @@ import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.cinema.dto.Page;
 import org.cinema.exception.EntityAlreadyExistException;
 import org.cinema.exception.NoDataFoundException;
+import org.cinema.filter.FlashMessageFilter;
 import org.cinema.model.User;
 import org.cinema.service.UserService;
 import org.cinema.service.impl.UserServiceImpl;
 import java.io.IOException;
 import java.util.Collections;
-import java.util.Set;
 
 @Slf4j
 @WebServlet(name = "AdminUserServlet", urlPatterns = {"/admin/users"})
@@ -22,6 +23,7 @@ public class AdminUserServlet extends HttpServlet {
     private static final String VIEW_PATH = "/WEB-INF/views/users.jsp";
     private static final String REDIRECT_PATH = "/admin/users";
     private static final String MESSAGE_PARAM = "message";
+    private static final String PAGE_PARAM = "page";
 
     private UserService userService;
 
@@ -70,17 +72,17 @@ public class AdminUserServlet extends HttpServlet {
         try {
             String action = request.getParameter("action");
             String message = processAction(action, request);
-            request.getSession().setAttribute(MESSAGE_PARAM, message);
+            FlashMessageFilter.setMessage(request, response, message);
 
         } catch (IllegalArgumentException e) {
             log.warn("Validation error: {}", e.getMessage(), e);
-            request.getSession().setAttribute(MESSAGE_PARAM, "Error! Invalid input: " + e.getMessage());
+            FlashMessageFilter.setMessage(request, response, "Error! Invalid input: " + e.getMessage());
         } catch (NoDataFoundException | EntityAlreadyExistException e) {
             log.warn("Business error: {}", "Error! " + e.getMessage(), e);
-            request.getSession().setAttribute(MESSAGE_PARAM, e.getMessage());
+            FlashMessageFilter.setMessage(request, response, e.getMessage());
         } catch (Exception e) {
             log.error("Unexpected error: {}", e.getMessage(), e);
-            request.getSession().setAttribute(MESSAGE_PARAM, "An unexpected error occurred");
+            FlashMessageFilter.setMessage(request, response, "An unexpected error occurred");
         }
 
         response.sendRedirect(request.getContextPath() + REDIRECT_PATH);
@@ -100,12 +102,13 @@ public class AdminUserServlet extends HttpServlet {
 
     private void loadDataForView(HttpServletRequest request) {
         log.debug("Loading data for view...");
-        Set<User> users = userService.findAll();
-        request.setAttribute("users", users);
+        Page<User> users = userService.findPage(request.getParameter(PAGE_PARAM));
+        request.setAttribute("users", users.getItems());
+        request.setAttribute("nextPageToken", users.getNextPageToken());
     }
 
     private void setEmptyCollections(HttpServletRequest request) {
-        request.setAttribute("users", Collections.emptySet());
+        request.setAttribute("users", Collections.emptyList());
     }
 
     private String handleAddAction(HttpServletRequest request) {
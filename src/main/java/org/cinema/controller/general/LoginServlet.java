@@ -5,11 +5,14 @@ import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import jakarta.servlet.http.HttpSession;
 import lombok.extern.slf4j.Slf4j;
+import org.cinema.dto.AuthenticatedUser;
+import org.cinema.filter.Authentication;
+import org.cinema.model.Role;
 import org.cinema.service.UserService;
 import org.cinema.service.impl.UserServiceImpl;
 import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
 
 @Slf4j
 @WebServlet(name = "LoginServlet", urlPatterns = {"/login"})
@@ -60,10 +63,10 @@ public class LoginServlet extends HttpServlet {
     private void processLogin(HttpServletRequest request, HttpServletResponse response,
             String username, String password) throws IOException, ServletException {
         try {
-            HttpSession session = loginService.login(username, password, request.getSession());
-            String role = (String) session.getAttribute("role");
+            AuthenticatedUser user = loginService.login(username, password);
+            Authentication.signIn(request, response, user);
 
-            if ("ADMIN".equals(role)) {
+            if (user.getRole() == Role.ADMIN) {
                 log.info("Admin '{}' logged in successfully", username);
                 redirectToPath(request, response, ADMIN_REDIRECT_PATH);
             } else {
@@ -75,6 +78,12 @@ public class LoginServlet extends HttpServlet {
             log.warn("Login failed for user '{}': {}", username, e.getMessage());
             handleError(request, "Error! " + e.getMessage());
             forwardToLoginPage(request, response);
+        } catch (RejectedExecutionException e) {
+            log.warn("Login of user '{}' turned away under load: {}", username, e.getMessage());
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader("Retry-After", "5");
+            handleError(request, "Error! Too many sign-ins at the moment. Please try again in a few seconds.");
+            forwardToLoginPage(request, response);
         }
     }
 
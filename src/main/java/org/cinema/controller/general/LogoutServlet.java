@@ -5,6 +5,7 @@ import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.cinema.filter.Authentication;
 import java.io.IOException;
 
 @WebServlet(name = "LogoutServlet", urlPatterns = {"/logout"})
@@ -15,9 +16,7 @@ public class LogoutServlet extends HttpServlet {
     @Override
     protected void doPost(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
-        if (request.getSession(false) != null) {
-            request.getSession().invalidate();
-        }
+        Authentication.signOut(request, response);
         request.getRequestDispatcher(VIEW_PATH).forward(request, response);
     }
 }
@@ -5,16 +5,16 @@ import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import jakarta.servlet.http.HttpSession;
 import lombok.extern.slf4j.Slf4j;
+import org.cinema.dto.UserTicketView;
 import org.cinema.exception.NoDataFoundException;
-import org.cinema.model.Ticket;
+import org.cinema.filter.Authentication;
 import org.cinema.service.TicketService;
 import org.cinema.service.impl.TicketServiceImpl;
 
 import java.io.IOException;
 import java.util.Collections;
-import java.util.Set;
+import java.util.List;
 
 @Slf4j
 @WebServlet(name = "MyTicketsServlet", urlPatterns = {"/user/tickets"})
@@ -74,13 +74,13 @@ public class MyTicketsServlet extends HttpServlet {
     }
 
     private void loadUserTickets(HttpServletRequest request) {
-        Integer userId = getUserId(request.getSession());
-        Set<Ticket> tickets = ticketService.findByUserId(userId.toString());
+        Integer userId = getUserId(request);
+        List<UserTicketView> tickets = ticketService.findByUserId(userId.toString());
         request.setAttribute("tickets", tickets);
     }
 
-    private Integer getUserId(HttpSession session) {
-        Integer userId = (Integer) session.getAttribute("userId");
+    private Integer getUserId(HttpServletRequest request) {
+        Integer userId = Authentication.getUserId(request);
         if (userId == null) {
             throw new IllegalArgumentException("User ID not found in session");
         }
@@ -106,7 +106,7 @@ public class MyTicketsServlet extends HttpServlet {
     }
 
     private void setEmptyTickets(HttpServletRequest request) {
-        request.setAttribute("tickets", Collections.emptySet());
+        request.setAttribute("tickets", Collections.emptyList());
     }
 
     private void handleError(HttpServletRequest request, String message, Exception e) {
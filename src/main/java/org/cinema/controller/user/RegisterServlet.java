@@ -7,6 +7,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.cinema.exception.EntityAlreadyExistException;
+import org.cinema.filter.FlashMessageFilter;
 import org.cinema.model.User;
 import org.cinema.service.UserService;
 import org.cinema.service.impl.UserServiceImpl;
@@ -53,13 +54,13 @@ public class RegisterServlet extends HttpServlet {
             handleSuccessfulRegistration(request, response);
             return;
         } catch (IllegalArgumentException e) {
-            handleRegistrationError(request, "Invalid input: " + e.getMessage(),
+            handleRegistrationError(request, response, "Invalid input: " + e.getMessage(),
                     "Validation error during registration attempt", e);
         } catch (EntityAlreadyExistException e) {
-            handleRegistrationError(request, "User with this login already exists",
+            handleRegistrationError(request, response, "User with this login already exists",
                     "Registration failed - user already exists: {}", e, e.getMessage());
         } catch (Exception e) {
-            handleRegistrationError(request, "An unexpected error occurred during registration",
+            handleRegistrationError(request, response, "An unexpected error occurred during registration",
                     "Unexpected error during registration attempt: {}", e, e.getMessage());
         }
 
@@ -74,9 +75,9 @@ public class RegisterServlet extends HttpServlet {
                 response.encodeRedirectURL("Registration successful! Please login."));
     }
 
-    private void handleRegistrationError(HttpServletRequest request, String userMessage,
+    private void handleRegistrationError(HttpServletRequest request, HttpServletResponse response, String userMessage,
                                          String logMessage, Exception e, Object... logParams) {
         log.error(logMessage, logParams, e);
-        request.getSession().setAttribute(MESSAGE_PARAM, userMessage);
+        FlashMessageFilter.setMessage(request, response, userMessage);
     }
 }
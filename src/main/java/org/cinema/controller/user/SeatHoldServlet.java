@@ -0,0 +1,82 @@
+package org.cinema.controller.user;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.cinema.exception.NoDataFoundException;
+import org.cinema.filter.Authentication;
+import org.cinema.exception.SeatTakenException;
+import org.cinema.service.SeatHoldService;
+import org.cinema.service.impl.SeatHoldServiceImpl;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Slf4j
+@WebServlet(name = "SeatHoldServlet", urlPatterns = {"/user/tickets/hold"})
+public class SeatHoldServlet extends HttpServlet {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private SeatHoldService seatHoldService;
+
+    @Override
+    public void init() {
+        seatHoldService = SeatHoldServiceImpl.getInstance();
+        log.info("SeatHoldServlet initialized.");
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        log.debug("Handling POST request for seat hold...");
+
+        try {
+            String userId = String.valueOf(Authentication.getUserId(request));
+            String action = getRequiredParameter(request, "action");
+            String sessionId = getRequiredParameter(request, "sessionId");
+            String seatNumber = getRequiredParameter(request, "seatNumber");
+
+            String message = switch (action) {
+                case "hold" -> seatHoldService.holdSeat(userId, sessionId, seatNumber);
+                case "release" -> seatHoldService.releaseSeat(userId, sessionId, seatNumber);
+                default -> throw new IllegalArgumentException("Unknown action requested: " + action);
+            };
+            writeResponse(response, HttpServletResponse.SC_OK, true, message);
+
+        } catch (SeatTakenException e) {
+            log.warn("Seat hold rejected: {}", e.getMessage());
+            writeResponse(response, HttpServletResponse.SC_CONFLICT, false, "Error! " + e.getMessage());
+        } catch (IllegalArgumentException | NoDataFoundException e) {
+            log.warn("Invalid seat hold request: {}", e.getMessage());
+            writeResponse(response, HttpServletResponse.SC_BAD_REQUEST, false, "Error! " + e.getMessage());
+        } catch (Exception e) {
+            log.error("Unexpected error during seat hold: {}", e.getMessage(), e);
+            writeResponse(response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, false,
+                    "An unexpected error occurred while holding the seat");
+        }
+    }
+
+    private void writeResponse(HttpServletResponse response, int status, boolean success, String message)
+            throws IOException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("success", success);
+        body.put("message", message);
+
+        response.setStatus(status);
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getWriter(), body);
+    }
+
+    private String getRequiredParameter(HttpServletRequest request, String paramName) {
+        String value = request.getParameter(paramName);
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException(paramName + " is required");
+        }
+        return value.trim();
+    }
+}
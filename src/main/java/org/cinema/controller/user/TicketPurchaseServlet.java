@@ -9,14 +9,20 @@ import lombok.extern.slf4j.Slf4j;
 import org.cinema.dto.FilmSessionDTO;
 import org.cinema.exception.EntityAlreadyExistException;
 import org.cinema.exception.NoDataFoundException;
+import org.cinema.filter.Authentication;
+import org.cinema.filter.FlashMessageFilter;
+import org.cinema.filter.ReadYourWritesFilter;
 import org.cinema.model.FilmSession;
 import org.cinema.service.SessionService;
 import org.cinema.service.TicketService;
+import org.cinema.service.WaitingRoomService;
 import org.cinema.service.impl.SessionServiceImpl;
 import org.cinema.service.impl.TicketServiceImpl;
+import org.cinema.service.impl.WaitingRoomServiceImpl;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.Set;
+import java.util.List;
 
 @Slf4j
 @WebServlet(name = "TicketPurchaseServlet", urlPatterns = {"/user/tickets/purchase"})
@@ -27,11 +33,13 @@ public class TicketPurchaseServlet extends HttpServlet {
 
     private TicketService ticketService;
     private SessionService sessionService;
+    private WaitingRoomService waitingRoomService;
 
     @Override
     public void init() {
         ticketService = TicketServiceImpl.getInstance();
         sessionService = SessionServiceImpl.getInstance();
+        waitingRoomService = WaitingRoomServiceImpl.getInstance();
         log.info("TicketPurchaseServlet initialized.");
     }
 
@@ -42,7 +50,7 @@ public class TicketPurchaseServlet extends HttpServlet {
 
         try {
             String selectedDate = request.getParameter("date");
-            Set<FilmSessionDTO> filmSessions;
+            List<FilmSessionDTO> filmSessions;
 
             if (selectedDate == null || selectedDate.isEmpty()) {
                 log.debug("No date selected, fetching all sessions");
@@ -63,9 +71,28 @@ public class TicketPurchaseServlet extends HttpServlet {
             String sessionId = request.getParameter("sessionId");
             if (sessionId != null && !sessionId.trim().isEmpty()) {
                 log.debug("Loading details for session ID: {}", sessionId);
-                FilmSession selectedSession = ticketService.getSessionDetailsWithTickets(sessionId);
+                Integer userId = Authentication.getUserId(request);
+                FilmSession selectedSession = ticketService.getSessionDetailsWithTickets(sessionId,
+                        String.valueOf(userId));
                 request.setAttribute("selectedSession", selectedSession);
                 request.setAttribute("sessionId", sessionId);
+                request.setAttribute("maxSeatsTogether", ticketService.getMaxSeatsTogether());
+
+                String seatCount = request.getParameter("seatCount");
+                if (seatCount != null && !seatCount.trim().isEmpty()) {
+                    log.debug("Looking for {} adjacent seats in session ID: {}", seatCount, sessionId);
+                    request.setAttribute("seatCount", seatCount);
+                    try {
+                        request.setAttribute("suggestedSeats",
+                                ticketService.findBestAvailableSeats(selectedSession, seatCount));
+                    } catch (IllegalArgumentException e) {
+                        log.warn("Invalid number of adjacent seats '{}': {}", seatCount, e.getMessage());
+                        request.setAttribute("seatCountError", e.getMessage());
+                    } catch (NoDataFoundException e) {
+                        log.warn("No adjacent seats found: {}", e.getMessage());
+                        request.setAttribute(MESSAGE_PARAM, "Error! " + e.getMessage());
+                    }
+                }
             }
 
             String message = request.getParameter(MESSAGE_PARAM);
@@ -93,32 +120,56 @@ public class TicketPurchaseServlet extends HttpServlet {
         log.debug("Handling POST request for ticket purchase...");
 
         try {
-            Integer userId = (Integer) request.getSession().getAttribute("userId");
+            Integer userId = Authentication.getUserId(request);
             String sessionId = request.getParameter("sessionId");
-            String seatNumber = request.getParameter("seatNumber");
+            List<String> seatNumbers = getSeatNumbers(request);
 
-            log.debug("Processing ticket purchase for user ID: {}, session ID: {}, seat: {}", 
-                    userId, sessionId, seatNumber);
+            log.debug("Processing ticket purchase for user ID: {}, session ID: {}, seats: {}",
+                    userId, sessionId, seatNumbers);
 
-            String message = ticketService.purchaseTicket(String.valueOf(userId), sessionId, seatNumber);
+            String message = ticketService.purchaseTickets(String.valueOf(userId), sessionId, seatNumbers);
+            releaseWaitingRoomSlot(String.valueOf(userId), sessionId);
+            ReadYourWritesFilter.requireFreshReads(request, response);
             response.sendRedirect(request.getContextPath() + "/user/tickets/purchase?" + MESSAGE_PARAM + "=" +
                     response.encodeRedirectURL(message));
             return;
 
         } catch (IllegalArgumentException e) {
-            handleSessionError(request, "Error! Invalid input: " + e.getMessage(),
+            handleSessionError(request, response, "Error! Invalid input: " + e.getMessage(),
                     "Validation error during ticket purchase", e);
         } catch (NoDataFoundException | EntityAlreadyExistException e) {
-            handleSessionError(request, "Error! " + e.getMessage(),
+            handleSessionError(request, response, "Error! " + e.getMessage(),
                     "Business error during ticket purchase: {}", e, e.getMessage());
         } catch (Exception e) {
-            handleSessionError(request, "An unexpected error occurred while processing the purchase",
+            handleSessionError(request, response, "An unexpected error occurred while processing the purchase",
                     "Unexpected error during ticket purchase: {}", e, e.getMessage());
         }
 
         response.sendRedirect(request.getContextPath() + "/user/tickets/purchase");
     }
 
+    private void releaseWaitingRoomSlot(String userId, String sessionId) {
+        if (!waitingRoomService.isEnabled()) {
+            return;
+        }
+        try {
+            waitingRoomService.leave(userId, sessionId);
+        } catch (Exception e) {
+            log.warn("Failed to release waiting room slot of session {}: {}", sessionId, e.getMessage());
+        }
+    }
+
+    private List<String> getSeatNumbers(HttpServletRequest request) {
+        String seatNumbers = request.getParameter("seatNumbers");
+        if (seatNumbers == null || seatNumbers.isBlank()) {
+            return Collections.emptyList();
+        }
+        return Arrays.stream(seatNumbers.split(","))
+                .map(String::trim)
+                .filter(seat -> !seat.isEmpty())
+                .toList();
+    }
+
     private void handleError(HttpServletRequest request, String userMessage,
             String logMessage, Exception e, Object... logParams) {
         if (e != null) {
@@ -127,13 +178,13 @@ public class TicketPurchaseServlet extends HttpServlet {
             log.warn(logMessage, logParams);
         }
         request.setAttribute(MESSAGE_PARAM, userMessage);
-        request.setAttribute("filmSessions", Collections.emptySet());
+        request.setAttribute("filmSessions", Collections.emptyList());
         request.setAttribute("selectedSession", null);
     }
 
-    private void handleSessionError(HttpServletRequest request, String userMessage,
+    private void handleSessionError(HttpServletRequest request, HttpServletResponse response, String userMessage,
             String logMessage, Exception e, Object... logParams) {
         log.error(logMessage, logParams, e);
-        request.getSession().setAttribute(MESSAGE_PARAM, userMessage);
+        FlashMessageFilter.setMessage(request, response, userMessage);
     }
 }
@@ -5,10 +5,11 @@ import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import jakarta.servlet.http.HttpSession;
 import lombok.extern.slf4j.Slf4j;
 import org.cinema.exception.EntityAlreadyExistException;
 import org.cinema.exception.NoDataFoundException;
+import org.cinema.filter.Authentication;
+import org.cinema.filter.FlashMessageFilter;
 import org.cinema.model.User;
 import org.cinema.service.UserService;
 import org.cinema.service.impl.UserServiceImpl;
@@ -35,7 +36,7 @@ public class UserEditServlet extends HttpServlet {
         log.debug("Handling GET request for profile editing...");
 
         try {
-            Integer userId = getUserId(request.getSession());
+            Integer userId = getUserId(request);
             log.debug("Loading profile for user ID: {}", userId);
 
             User user = userService.getById(String.valueOf(userId))
@@ -67,7 +68,7 @@ public class UserEditServlet extends HttpServlet {
         log.debug("Handling POST request for profile editing...");
 
         try {
-            Integer userId = getUserId(request.getSession());
+            Integer userId = getUserId(request);
             String username = request.getParameter("username");
             String password = request.getParameter("password");
 
@@ -83,21 +84,21 @@ public class UserEditServlet extends HttpServlet {
             return;
 
         } catch (IllegalArgumentException e) {
-            handleSessionError(request, "Error! Invalid input: " + e.getMessage(),
+            handleSessionError(request, response, "Error! Invalid input: " + e.getMessage(),
                     "Validation error during profile update", e);
         } catch (NoDataFoundException | EntityAlreadyExistException e) {
-            handleSessionError(request, "Error! " + e.getMessage(),
+            handleSessionError(request, response, "Error! " + e.getMessage(),
                     "Business error during profile update: {}", e, e.getMessage());
         } catch (Exception e) {
-            handleSessionError(request, "An unexpected error occurred while updating profile",
+            handleSessionError(request, response, "An unexpected error occurred while updating profile",
                     "Unexpected error during profile update: {}", e, e.getMessage());
         }
 
         response.sendRedirect(request.getContextPath() + "/user/edit");
     }
 
-    private Integer getUserId(HttpSession session) {
-        Integer userId = (Integer) session.getAttribute("userId");
+    private Integer getUserId(HttpServletRequest request) {
+        Integer userId = Authentication.getUserId(request);
         if (userId == null) {
             throw new IllegalArgumentException("User ID not found in session");
         }
@@ -115,9 +116,9 @@ public class UserEditServlet extends HttpServlet {
         request.setAttribute("user", null);
     }
 
-    private void handleSessionError(HttpServletRequest request, String userMessage,
+    private void handleSessionError(HttpServletRequest request, HttpServletResponse response, String userMessage,
             String logMessage, Exception e, Object... logParams) {
         log.error(logMessage, logParams, e);
-        request.getSession().setAttribute(MESSAGE_PARAM, userMessage);
+        FlashMessageFilter.setMessage(request, response, userMessage);
     }
 }
\ No newline at end of file
@@ -0,0 +1,59 @@
+package org.cinema.controller.user;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.cinema.dto.WaitingRoomStatus;
+import org.cinema.filter.Authentication;
+import org.cinema.service.WaitingRoomService;
+import org.cinema.service.impl.WaitingRoomServiceImpl;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Slf4j
+@WebServlet(name = "WaitingRoomServlet", urlPatterns = {"/user/queue/status"})
+public class WaitingRoomServlet extends HttpServlet {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private WaitingRoomService waitingRoomService;
+
+    @Override
+    public void init() {
+        waitingRoomService = WaitingRoomServiceImpl.getInstance();
+        log.info("WaitingRoomServlet initialized.");
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        try {
+            String userId = String.valueOf(Authentication.getUserId(request));
+            String sessionId = request.getParameter("sessionId");
+
+            WaitingRoomStatus status = waitingRoomService.getStatus(userId, sessionId);
+            body.put("admitted", status.isAdmitted());
+            body.put("position", status.getPosition());
+            response.setStatus(HttpServletResponse.SC_OK);
+
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid waiting room request: {}", e.getMessage());
+            body.put("message", "Error! " + e.getMessage());
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+        } catch (Exception e) {
+            log.error("Unexpected error while polling the waiting room: {}", e.getMessage(), e);
+            body.put("message", "An unexpected error occurred while checking your place in line");
+            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        }
+
+        response.setHeader("Cache-Control", "no-store");
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getWriter(), body);
+    }
+}
@@ -0,0 +1,17 @@
+package org.cinema.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.cinema.model.Role;
+
+/**
+ * The signed-in user a request acts for: the user's ID and role, as checked at login.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class AuthenticatedUser {
+    private final int userId;
+    private final Role role;
+}
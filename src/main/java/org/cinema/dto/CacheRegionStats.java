@@ -0,0 +1,20 @@
+package org.cinema.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class CacheRegionStats {
+    private final String region;
+    private final long hits;
+    private final long misses;
+    private final long puts;
+
+    public double getHitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+}
@@ -0,0 +1,20 @@
+package org.cinema.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class ConnectionPoolStats {
+    private final int total;
+    private final int busy;
+    private final int idle;
+    private final int threadsAwaiting;
+    private final int orphaned;
+    private final long checkouts;
+    private final long timeouts;
+    private final double averageWaitMillis;
+    private final double maxWaitMillis;
+}
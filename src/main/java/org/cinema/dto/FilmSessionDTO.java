@@ -21,6 +21,8 @@ public class FilmSessionDTO {
     private LocalTime startTime;
     private LocalTime endTime;
     private int capacity;
+    private boolean waitingRoom;
+    private int version;
 
     public static FilmSessionDTO fromStrings(String movieTitle, String dateStr, String startTimeStr, 
                                            String endTimeStr, String capacityStr, String priceStr) {
@@ -41,9 +43,10 @@ public class FilmSessionDTO {
 
     public static FilmSessionDTO fromStringsWithId(String id, String movieTitle, String dateStr, 
                                                  String startTimeStr, String endTimeStr, 
-                                                 String capacityStr, String priceStr) {
+                                                 String capacityStr, String priceStr, String versionStr) {
         FilmSessionDTO dto = fromStrings(movieTitle, dateStr, startTimeStr, endTimeStr, capacityStr, priceStr);
         dto.setId(Integer.parseInt(id));
+        dto.setVersion(ValidationUtil.parseVersion(versionStr));
         return dto;
     }
 }
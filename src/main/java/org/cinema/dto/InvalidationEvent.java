@@ -0,0 +1,19 @@
+package org.cinema.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * A change to cached data, published by the node that made it: the sequence number the transport assigned,
+ * the cache region it concerns, the key of the changed entry and the ID of the publishing node.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class InvalidationEvent {
+    private final long sequence;
+    private final String region;
+    private final String key;
+    private final String nodeId;
+}
@@ -0,0 +1,23 @@
+package org.cinema.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class Page<T> {
+    private final List<T> items;
+    private final String nextPageToken;
+
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+
+    public boolean hasNext() {
+        return nextPageToken != null;
+    }
+}
@@ -0,0 +1,14 @@
+package org.cinema.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import java.util.List;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class SeatOrder {
+    private final int userId;
+    private final List<Integer> seatNumbers;
+}
@@ -0,0 +1,20 @@
+package org.cinema.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.cinema.model.Status;
+
+import java.util.Map;
+
+/**
+ * Outcome of a bulk ticket transition: how many tickets it changed, and how many of the targeted tickets
+ * are in each status once it's done (including the ones it had to skip).
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class TicketBulkResult {
+    private final int updated;
+    private final Map<Status, Long> statusCounts;
+}
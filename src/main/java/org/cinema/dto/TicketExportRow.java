@@ -0,0 +1,29 @@
+package org.cinema.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.cinema.model.RequestType;
+import org.cinema.model.Status;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class TicketExportRow {
+    private final int id;
+    private final String username;
+    private final int sessionId;
+    private final String movieTitle;
+    private final LocalDate date;
+    private final LocalTime startTime;
+    private final String seatNumber;
+    private final BigDecimal price;
+    private final LocalDateTime purchaseTime;
+    private final Status status;
+    private final RequestType requestType;
+}
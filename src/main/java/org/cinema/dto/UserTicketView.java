@@ -0,0 +1,23 @@
+package org.cinema.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.cinema.model.RequestType;
+import org.cinema.model.Status;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class UserTicketView {
+    private final int id;
+    private final String movieTitle;
+    private final LocalDate date;
+    private final LocalTime startTime;
+    private final String seatNumber;
+    private final Status status;
+    private final RequestType requestType;
+}
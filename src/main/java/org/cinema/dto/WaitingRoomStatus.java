@@ -0,0 +1,30 @@
+package org.cinema.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * A user's state in the waiting room of a film session. An admission is {@code claimed} once the user's
+ * purchase request has taken it up; a position of 0 means the user isn't in line (any more).
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class WaitingRoomStatus {
+    private final boolean admitted;
+    private final boolean claimed;
+    private final int position;
+
+    public static WaitingRoomStatus admitted(boolean claimed) {
+        return new WaitingRoomStatus(true, claimed, 0);
+    }
+
+    public static WaitingRoomStatus waiting(int position) {
+        return new WaitingRoomStatus(false, false, position);
+    }
+
+    public static WaitingRoomStatus notQueued() {
+        return new WaitingRoomStatus(false, false, 0);
+    }
+}
@@ -0,0 +1,7 @@
+package org.cinema.exception;
+
+public class EditConflictException extends RuntimeException {
+    public EditConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package org.cinema.exception;
+
+public class SeatTakenException extends EntityAlreadyExistException {
+    public SeatTakenException(String message) {
+        super(message);
+    }
+}
@@ -1,33 +1,37 @@
 package org.cinema.filter;
 
 import jakarta.servlet.*;
-import jakarta.servlet.annotation.WebFilter;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import jakarta.servlet.http.HttpSession;
 import lombok.extern.slf4j.Slf4j;
+import org.cinema.dto.AuthenticatedUser;
+import org.cinema.model.Role;
 import java.io.IOException;
+import java.util.Optional;
 
 @Slf4j
-@WebFilter("/admin/*")
 public class AdminAccessFilter implements Filter {
 
+    @Override
+    public void init(FilterConfig filterConfig) {
+        Authentication.checkConfiguration();
+    }
+
     @Override
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
             throws IOException, ServletException {
         HttpServletRequest httpRequest = (HttpServletRequest) request;
         HttpServletResponse httpResponse = (HttpServletResponse) response;
-        HttpSession session = httpRequest.getSession(false);
 
-        if (isAdmin(session)) {
+        if (isAdmin(Authentication.authenticate(httpRequest, httpResponse))) {
             chain.doFilter(request, response);
         } else {
             handleUnauthorizedAdmin(httpRequest, httpResponse);
         }
     }
 
-    private boolean isAdmin(HttpSession session) {
-        return session != null && "ADMIN".equals(session.getAttribute("role"));
+    private boolean isAdmin(Optional<AuthenticatedUser> user) {
+        return user.map(AuthenticatedUser::getRole).filter(Role.ADMIN::equals).isPresent();
     }
 
     private void handleUnauthorizedAdmin(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
@@ -0,0 +1,136 @@
+package org.cinema.filter;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import lombok.extern.slf4j.Slf4j;
+import org.cinema.dto.AuthenticatedUser;
+import org.cinema.model.Role;
+import org.cinema.util.CookieUtil;
+import org.cinema.util.PropertiesUtil;
+import org.cinema.util.SessionTokenUtil;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Tells which user a request acts for, in the session mode chosen by {@code session.mode}.
+ * In {@code container} mode (the default) the user's ID and role are kept in the container's HTTP session,
+ * so a user stays signed in only on the node that holds the session.
+ * In {@code token} mode they travel in a signed, expiring cookie ({@link SessionTokenUtil}) that every node
+ * verifies on its own, so any node can serve any request and the web nodes keep no per-user login state.
+ * The cookie is renewed once less than half of {@code auth.token.ttl.seconds} is left, so active users stay
+ * signed in; it can't be revoked before it expires, which is why the TTL stays short.
+ */
+@Slf4j
+public final class Authentication {
+
+    public static final String TOKEN_COOKIE = "CINEMA_AUTH";
+
+    private static final String USER_ATTRIBUTE = "authentication.user";
+    private static final String EXPIRES_ATTRIBUTE = "authentication.expiresAt";
+
+    private static final boolean tokenMode = "token".equalsIgnoreCase(PropertiesUtil.get("session.mode", "container"));
+
+    private Authentication() {
+    }
+
+    public static boolean isTokenMode() {
+        return tokenMode;
+    }
+
+    /**
+     * Fails the startup of a node in token mode that has no {@code auth.token.secret}: without the secret shared
+     * by all nodes, a token issued by one node would be rejected by the others.
+     *
+     * @throws IllegalStateException if the configuration is incomplete
+     */
+    public static void checkConfiguration() {
+        if (tokenMode && !SessionTokenUtil.isSecretConfigured()) {
+            throw new IllegalStateException("session.mode=token requires auth.token.secret, shared by all nodes.");
+        }
+    }
+
+    /**
+     * @return the user the request acts for, or empty if nobody is signed in
+     */
+    public static Optional<AuthenticatedUser> currentUser(HttpServletRequest request) {
+        Object resolved = request.getAttribute(USER_ATTRIBUTE);
+        if (resolved != null) {
+            return Optional.of((AuthenticatedUser) resolved);
+        }
+        Optional<AuthenticatedUser> user = tokenMode ? fromToken(request) : fromSession(request.getSession(false));
+        user.ifPresent(found -> request.setAttribute(USER_ATTRIBUTE, found));
+        return user;
+    }
+
+    /**
+     * @return the ID of the user the request acts for, or {@code null} if nobody is signed in
+     */
+    public static Integer getUserId(HttpServletRequest request) {
+        return currentUser(request).map(AuthenticatedUser::getUserId).orElse(null);
+    }
+
+    /**
+     * Like {@link #currentUser(HttpServletRequest)}, and renews the user's token when it is getting old.
+     * Used by the access filters, which every signed-in page passes.
+     */
+    public static Optional<AuthenticatedUser> authenticate(HttpServletRequest request, HttpServletResponse response) {
+        Optional<AuthenticatedUser> user = currentUser(request);
+        Instant expiresAt = (Instant) request.getAttribute(EXPIRES_ATTRIBUTE);
+        if (user.isPresent() && expiresAt != null && Duration.between(Instant.now(), expiresAt).getSeconds()
+                < SessionTokenUtil.getTtlSeconds() / 2) {
+            CookieUtil.write(request, response, TOKEN_COOKIE, SessionTokenUtil.issue(user.get()),
+                    SessionTokenUtil.getTtlSeconds());
+            log.debug("Session token of user {} renewed.", user.get().getUserId());
+        }
+        return user;
+    }
+
+    /**
+     * Signs the user in for the following requests: with a token cookie in token mode, or in the HTTP session.
+     */
+    public static void signIn(HttpServletRequest request, HttpServletResponse response, AuthenticatedUser user) {
+        if (tokenMode) {
+            CookieUtil.write(request, response, TOKEN_COOKIE, SessionTokenUtil.issue(user), SessionTokenUtil.getTtlSeconds());
+        } else {
+            HttpSession session = request.getSession();
+            session.setAttribute("userId", user.getUserId());
+            session.setAttribute("role", user.getRole().toString());
+        }
+        request.setAttribute(USER_ATTRIBUTE, user);
+    }
+
+    /**
+     * Signs the user out: drops the token cookie and the HTTP session, whichever the user has.
+     */
+    public static void signOut(HttpServletRequest request, HttpServletResponse response) {
+        if (tokenMode) {
+            CookieUtil.clear(request, response, TOKEN_COOKIE);
+        }
+        HttpSession session = request.getSession(false);
+        if (session != null) {
+            session.invalidate();
+        }
+        request.removeAttribute(USER_ATTRIBUTE);
+        request.removeAttribute(EXPIRES_ATTRIBUTE);
+    }
+
+    private static Optional<AuthenticatedUser> fromToken(HttpServletRequest request) {
+        return CookieUtil.read(request, TOKEN_COOKIE)
+                .flatMap(SessionTokenUtil::verify)
+                .map(token -> {
+                    request.setAttribute(EXPIRES_ATTRIBUTE, token.expiresAt());
+                    return token.user();
+                });
+    }
+
+    private static Optional<AuthenticatedUser> fromSession(HttpSession session) {
+        if (session == null || !(session.getAttribute("userId") instanceof Integer userId)
+                || !(session.getAttribute("role") instanceof String role)) {
+            return Optional.empty();
+        }
+        return Optional.of(new AuthenticatedUser(userId, Role.valueOf(role)));
+    }
+}
@@ -0,0 +1,53 @@
+package org.cinema.filter;
+
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.cinema.util.CookieUtil;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+@Slf4j
+public class FlashMessageFilter implements Filter {
+
+    private static final String FLASH_COOKIE = "CINEMA_FLASH";
+    private static final String MESSAGE_ATTRIBUTE = "message";
+    private static final int MAX_AGE_SECONDS = 60;
+
+    /**
+     * Hands the message left by the previous request (typically a POST that redirected) to the page being shown:
+     * the first GET request carrying the flash cookie gets the message as its {@code message} attribute,
+     * and the cookie is cleared. Because the message travels in a cookie rather than in the HTTP session,
+     * it survives the redirect whichever node serves the next request.
+     */
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+
+        if ("GET".equals(httpRequest.getMethod())) {
+            CookieUtil.read(httpRequest, FLASH_COOKIE).ifPresent(value -> {
+                CookieUtil.clear(httpRequest, (HttpServletResponse) response, FLASH_COOKIE);
+                try {
+                    request.setAttribute(MESSAGE_ATTRIBUTE,
+                            new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8));
+                } catch (IllegalArgumentException e) {
+                    log.debug("Flash message cookie is malformed: {}", e.getMessage());
+                }
+            });
+        }
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * Leaves a message for the next page the user is shown, e.g. right before a redirect.
+     */
+    public static void setMessage(HttpServletRequest request, HttpServletResponse response, String message) {
+        CookieUtil.write(request, response, FLASH_COOKIE,
+                Base64.getUrlEncoder().withoutPadding().encodeToString(message.getBytes(StandardCharsets.UTF_8)),
+                MAX_AGE_SECONDS);
+    }
+}
@@ -0,0 +1,64 @@
+package org.cinema.filter;
+
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.cinema.config.ReplicaRouter;
+import org.cinema.util.CookieUtil;
+import org.cinema.util.PropertiesUtil;
+
+import java.io.IOException;
+
+@Slf4j
+public class ReadYourWritesFilter implements Filter {
+
+    private static final String FRESH_READS_COOKIE = "CINEMA_FRESH_READS";
+
+    private static final int windowSeconds = PropertiesUtil.getInt("db.replica.read.your.writes.seconds", 10);
+
+    /**
+     * Sends every read of the request to the primary database while the user's read-your-writes window is open,
+     * so pages shown right after a write never come from a replica that hasn't caught up yet.
+     * The window travels in a cookie, so it holds whichever node serves the user's next requests.
+     */
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        if (!ReplicaRouter.isConfigured() || !needsFreshReads((HttpServletRequest) request)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        ReplicaRouter.pinToPrimary();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReplicaRouter.unpin();
+        }
+    }
+
+    /**
+     * Opens the read-your-writes window for the user, e.g. right after a purchase.
+     */
+    public static void requireFreshReads(HttpServletRequest request, HttpServletResponse response) {
+        if (!ReplicaRouter.isConfigured()) {
+            return;
+        }
+        CookieUtil.write(request, response, FRESH_READS_COOKIE,
+                String.valueOf(System.currentTimeMillis() + windowSeconds * 1000L), windowSeconds);
+        log.debug("Reads pinned to the primary for the next {} seconds.", windowSeconds);
+    }
+
+    private boolean needsFreshReads(HttpServletRequest request) {
+        return CookieUtil.read(request, FRESH_READS_COOKIE)
+                .map(until -> {
+                    try {
+                        return Long.parseLong(until) > System.currentTimeMillis();
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                })
+                .orElse(false);
+    }
+}
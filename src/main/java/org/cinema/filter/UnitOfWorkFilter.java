@@ -0,0 +1,119 @@
+package org.cinema.filter;
+
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.cinema.repository.UnitOfWork;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+@Slf4j
+public class UnitOfWorkFilter implements Filter {
+
+    /**
+     * Wraps the request in a single {@link UnitOfWork}: every repository operation of the request shares one
+     * Hibernate session and one transaction, which is committed when the request completes and rolled back
+     * if it fails. GET and HEAD requests get a read-only unit of work.
+     * The transaction is committed before anything of the response reaches the client (a redirect or the first
+     * write of a page), so the client is never told about writes that then fail to commit; a failed commit
+     * becomes an error response instead. An error response rolls the transaction back instead, so a request
+     * that fails halfway keeps none of its writes.
+     * The filter is mapped first in {@code web.xml}, so every other filter runs inside the unit of work.
+     */
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        String method = ((HttpServletRequest) request).getMethod();
+        boolean readOnly = "GET".equals(method) || "HEAD".equals(method);
+
+        if (!UnitOfWork.begin(readOnly)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        boolean success = false;
+        try {
+            chain.doFilter(request, new CommitBeforeResponse((HttpServletResponse) response));
+            success = true;
+        } finally {
+            try {
+                UnitOfWork.end(success);
+            } catch (RuntimeException e) {
+                if (!success || response.isCommitted()) {
+                    throw e;
+                }
+                log.error("Request transaction failed to commit: {}", e.getMessage());
+                response.resetBuffer();
+                ((HttpServletResponse) response).sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            }
+        }
+    }
+
+    /**
+     * Completes the unit of work right before the response starts going out: rolls it back for an error,
+     * commits it otherwise.
+     */
+    private static class CommitBeforeResponse extends HttpServletResponseWrapper {
+
+        CommitBeforeResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            UnitOfWork.release();
+            super.sendRedirect(location);
+        }
+
+        @Override
+        public void sendRedirect(String location, int sc) throws IOException {
+            UnitOfWork.release();
+            super.sendRedirect(location, sc);
+        }
+
+        @Override
+        public void sendRedirect(String location, boolean clearBuffer) throws IOException {
+            UnitOfWork.release();
+            super.sendRedirect(location, clearBuffer);
+        }
+
+        @Override
+        public void sendRedirect(String location, int sc, boolean clearBuffer) throws IOException {
+            UnitOfWork.release();
+            super.sendRedirect(location, sc, clearBuffer);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            UnitOfWork.rollback();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            UnitOfWork.rollback();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            UnitOfWork.release();
+            super.flushBuffer();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            UnitOfWork.release();
+            return super.getWriter();
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            UnitOfWork.release();
+            return super.getOutputStream();
+        }
+    }
+}
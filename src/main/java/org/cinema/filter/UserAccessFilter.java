@@ -1,34 +1,38 @@
 package org.cinema.filter;
 
 import jakarta.servlet.*;
-import jakarta.servlet.annotation.WebFilter;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import jakarta.servlet.http.HttpSession;
 import lombok.extern.slf4j.Slf4j;
+import org.cinema.dto.AuthenticatedUser;
+import org.cinema.model.Role;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Slf4j
-@WebFilter("/user/*")
 public class UserAccessFilter implements Filter {
 
+    @Override
+    public void init(FilterConfig filterConfig) {
+        Authentication.checkConfiguration();
+    }
+
     @Override
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
             throws IOException, ServletException {
         HttpServletRequest httpRequest = (HttpServletRequest) request;
         HttpServletResponse httpResponse = (HttpServletResponse) response;
-        HttpSession session = httpRequest.getSession(false);
 
-        if (isUser(session)) {
+        if (isUser(Authentication.authenticate(httpRequest, httpResponse))) {
             chain.doFilter(request, response);
         } else {
             handleUnauthorizedAdmin(httpRequest, httpResponse);
         }
     }
 
-    private boolean isUser(HttpSession session) {
-        return session != null && "USER".equals(session.getAttribute("role"));
+    private boolean isUser(Optional<AuthenticatedUser> user) {
+        return user.map(AuthenticatedUser::getRole).filter(Role.USER::equals).isPresent();
     }
 
     private void handleUnauthorizedAdmin(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
@@ -0,0 +1,81 @@
+package org.cinema.filter;
+
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.cinema.dto.WaitingRoomStatus;
+import org.cinema.service.WaitingRoomService;
+import org.cinema.service.impl.WaitingRoomServiceImpl;
+
+import java.io.IOException;
+
+@Slf4j
+public class WaitingRoomFilter implements Filter {
+
+    private static final String VIEW_PATH = "/WEB-INF/views/waitingRoom.jsp";
+
+    private WaitingRoomService waitingRoomService;
+
+    @Override
+    public void init(FilterConfig filterConfig) {
+        waitingRoomService = WaitingRoomServiceImpl.getInstance();
+    }
+
+    /**
+     * Lets the request into the purchase flow of a film session with a waiting room only if the user has been
+     * admitted. Admission is checked against the shared {@code waiting_room} table on every request, so it holds
+     * whichever node serves the request. Requests without a film session or without a logged-in user are left
+     * to the servlet and to {@link UserAccessFilter}.
+     */
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+        Integer userId = Authentication.getUserId(httpRequest);
+        String sessionId = httpRequest.getParameter("sessionId");
+
+        if (!waitingRoomService.isEnabled() || userId == null || sessionId == null || sessionId.isBlank()) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        WaitingRoomStatus status;
+        try {
+            if (!waitingRoomService.isEnabled(sessionId.trim())) {
+                chain.doFilter(request, response);
+                return;
+            }
+            status = waitingRoomService.enter(String.valueOf(userId), sessionId.trim());
+        } catch (IllegalArgumentException e) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        if (status.isAdmitted()) {
+            chain.doFilter(request, response);
+        } else {
+            handleWaiting(httpRequest, httpResponse, sessionId.trim(), status);
+        }
+    }
+
+    private void handleWaiting(HttpServletRequest request, HttpServletResponse response, String sessionId,
+            WaitingRoomStatus status) throws ServletException, IOException {
+        log.debug("User is waiting for session {} at position {}.", sessionId, status.getPosition());
+        response.setHeader("Retry-After", String.valueOf(waitingRoomService.getPollIntervalSeconds()));
+
+        if (request.getServletPath().endsWith("/hold")) {
+            response.setStatus(429);
+            response.setContentType("application/json");
+            response.setCharacterEncoding("UTF-8");
+            response.getWriter().write("{\"success\":false,\"message\":\"Error! You are in the waiting room.\"}");
+            return;
+        }
+
+        request.setAttribute("sessionId", sessionId);
+        request.setAttribute("position", status.getPosition());
+        request.setAttribute("pollIntervalSeconds", waitingRoomService.getPollIntervalSeconds());
+        request.getRequestDispatcher(VIEW_PATH).forward(request, response);
+    }
+}
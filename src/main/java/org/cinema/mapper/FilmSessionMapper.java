@@ -3,6 +3,7 @@ package org.cinema.mapper;
 import org.cinema.dto.FilmSessionDTO;
 import org.cinema.model.FilmSession;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 
 @Mapper
@@ -10,6 +11,10 @@ public interface FilmSessionMapper {
 
     FilmSessionMapper INSTANCE = Mappers.getMapper(FilmSessionMapper.class);
 
+    @Mapping(target = "version", source = "version")
     FilmSessionDTO toDTO(FilmSession filmSession);
+
+    @Mapping(target = "version", source = "version")
+    @Mapping(target = "seatInventory", ignore = true)
     FilmSession toEntity(FilmSessionDTO dto);
 }
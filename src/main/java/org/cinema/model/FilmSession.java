@@ -3,22 +3,42 @@ package org.cinema.model;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import javax.persistence.*;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalTime;
-import java.util.ArrayList;
-import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = FilmSession.CACHE_REGION)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "film_session")
+@Table(name = "film_session",
+        indexes = {
+                @Index(name = "idx_film_session_date_start", columnList = "date, start_time"),
+                @Index(name = "idx_film_session_title_date", columnList = "movie_title, date")
+        })
 public class FilmSession {
 
+    /**
+     * Second-level cache regions of the entity and of its cached queries, defined by {@code CacheConfig}.
+     */
+    public static final String CACHE_REGION = "cinema.filmSession";
+    public static final String QUERY_CACHE_REGION = "cinema.filmSession.queries";
+
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "film_session_id")
+    @GenericGenerator(name = "film_session_id", strategy = "enhanced-table", parameters = {
+            @Parameter(name = "table_name", value = "id_sequence"),
+            @Parameter(name = "segment_value", value = "film_session"),
+            @Parameter(name = "increment_size", value = "50")
+    })
     private int id;
 
     @Column(name = "movie_title", nullable = false)
@@ -39,7 +59,14 @@ public class FilmSession {
     @Column(nullable = false)
     private int capacity;
 
-    @Transient 
-    private List<Integer> takenSeats = new ArrayList<>();
+    @Column(name = "waiting_room", nullable = false)
+    private boolean waitingRoom;
+
+    @Version
+    @Column(nullable = false)
+    private int version;
+
+    @Transient
+    private SeatInventory seatInventory;
 }
 
@@ -1,14 +1,32 @@
 package org.cinema.model;
 
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import javax.persistence.*;
 
 @Data
 @Entity
-@Table(name = "movies")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Movie.CACHE_REGION)
+@Table(name = "movies", indexes = @Index(name = "idx_movies_title", columnList = "title"))
 public class Movie {
+
+    /**
+     * Second-level cache regions of the entity and of its cached queries, defined by {@code CacheConfig}.
+     */
+    public static final String CACHE_REGION = "cinema.movie";
+    public static final String QUERY_CACHE_REGION = "cinema.movie.queries";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "movies_id")
+    @GenericGenerator(name = "movies_id", strategy = "enhanced-table", parameters = {
+            @Parameter(name = "table_name", value = "id_sequence"),
+            @Parameter(name = "segment_value", value = "movies"),
+            @Parameter(name = "increment_size", value = "50")
+    })
     private Long id;
 
     @Column(nullable = false)
@@ -16,9 +34,11 @@ public class Movie {
 
     private String year;
     private String poster;
+    @Column(columnDefinition = "TEXT")
     private String plot;
     private String genre;
     private String director;
+    @Column(columnDefinition = "TEXT")
     private String actors;
     private String imdbRating;
     private String runtime;
@@ -0,0 +1,34 @@
+package org.cinema.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "seat_hold",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uq_seat_hold_session_seat", columnNames = {"session_id", "seat_number"}),
+        indexes = @Index(name = "idx_seat_hold_expires", columnList = "expires_at"))
+public class SeatHold {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private int id;
+
+    @Column(name = "session_id", nullable = false)
+    private int sessionId;
+
+    @Column(name = "seat_number", nullable = false)
+    private int seatNumber;
+
+    @Column(name = "user_id", nullable = false)
+    private int userId;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
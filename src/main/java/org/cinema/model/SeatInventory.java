@@ -0,0 +1,186 @@
+package org.cinema.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compact seat map of a single film session.
+ * Every state is kept in its own bitset where seat {@code n} is stored at bit {@code n - 1},
+ * so each lookup is a single word access regardless of how many seats are already taken.
+ */
+public class SeatInventory {
+
+    public static final int ROW_WIDTH = 10;
+
+    private final int capacity;
+    private final long[] sold;
+    private final long[] pending;
+    private final long[] held;
+
+    public SeatInventory(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity cannot be negative.");
+        }
+        int words = (capacity + 63) >>> 6;
+        this.capacity = capacity;
+        this.sold = new long[words];
+        this.pending = new long[words];
+        this.held = new long[words];
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public boolean contains(int seat) {
+        return seat > 0 && seat <= capacity;
+    }
+
+    /**
+     * Puts the seat into the given state, replacing the previous one.
+     *
+     * @param seat  seat number, starting from 1
+     * @param state new state of the seat
+     */
+    public void mark(int seat, SeatState state) {
+        checkSeat(seat);
+        int word = (seat - 1) >>> 6;
+        long bit = 1L << (seat - 1);
+
+        sold[word] &= ~bit;
+        pending[word] &= ~bit;
+        held[word] &= ~bit;
+        switch (state) {
+            case SOLD -> sold[word] |= bit;
+            case PENDING -> pending[word] |= bit;
+            case HELD -> held[word] |= bit;
+            case FREE -> { }
+        }
+    }
+
+    public SeatState getState(int seat) {
+        checkSeat(seat);
+        int word = (seat - 1) >>> 6;
+        long bit = 1L << (seat - 1);
+
+        if ((sold[word] & bit) != 0) {
+            return SeatState.SOLD;
+        }
+        if ((pending[word] & bit) != 0) {
+            return SeatState.PENDING;
+        }
+        if ((held[word] & bit) != 0) {
+            return SeatState.HELD;
+        }
+        return SeatState.FREE;
+    }
+
+    public boolean isFree(int seat) {
+        return getState(seat) == SeatState.FREE;
+    }
+
+    public int getTakenCount() {
+        int taken = 0;
+        for (int i = 0; i < sold.length; i++) {
+            taken += Long.bitCount(sold[i] | pending[i] | held[i]);
+        }
+        return taken;
+    }
+
+    public int getFreeCount() {
+        return capacity - getTakenCount();
+    }
+
+    /**
+     * Finds the best block of adjacent free seats in one row.
+     * Rows are tried from the middle of the hall outwards (a row behind the middle wins a tie),
+     * and within a row the block closest to the centre is chosen. Every row is evaluated with a few
+     * word-level shift-and-mask operations instead of walking its seats one by one.
+     *
+     * @param count number of adjacent seats, at most {@link #ROW_WIDTH}
+     * @return seat numbers of the block in ascending order, or an empty list if no row has such a block
+     */
+    public List<Integer> findBestBlock(int count) {
+        if (count <= 0 || count > ROW_WIDTH) {
+            throw new IllegalArgumentException("Number of seats together must be between 1 and " + ROW_WIDTH + ".");
+        }
+
+        int rows = (capacity + ROW_WIDTH - 1) / ROW_WIDTH;
+        int middleRow = (rows - 1) / 2;
+        for (int distance = 0; distance < rows; distance++) {
+            int behind = middleRow + distance;
+            int front = middleRow - distance;
+            if (behind < rows) {
+                int start = findBlockInRow(behind, count);
+                if (start >= 0) {
+                    return toSeats(behind, start, count);
+                }
+            }
+            if (distance > 0 && front >= 0) {
+                int start = findBlockInRow(front, count);
+                if (start >= 0) {
+                    return toSeats(front, start, count);
+                }
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    private static List<Integer> toSeats(int row, int start, int count) {
+        List<Integer> seats = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            seats.add(row * ROW_WIDTH + start + i + 1);
+        }
+        return seats;
+    }
+
+    private int findBlockInRow(int row, int count) {
+        int offset = row * ROW_WIDTH;
+        int length = Math.min(ROW_WIDTH, capacity - offset);
+        if (length < count) {
+            return -1;
+        }
+
+        long taken = bits(sold, offset, length) | bits(pending, offset, length) | bits(held, offset, length);
+        long starts = ~taken & lowMask(length);
+        for (int covered = 1; covered < count; ) {
+            int step = Math.min(covered, count - covered);
+            starts &= starts >>> step;
+            covered += step;
+        }
+        if (starts == 0) {
+            return -1;
+        }
+
+        int idealStart = (length - count) / 2;
+        int bestStart = -1;
+        for (long candidates = starts; candidates != 0; candidates &= candidates - 1) {
+            int start = Long.numberOfTrailingZeros(candidates);
+            if (bestStart < 0 || Math.abs(start - idealStart) < Math.abs(bestStart - idealStart)) {
+                bestStart = start;
+            }
+        }
+        return bestStart;
+    }
+
+    private static long bits(long[] words, int offset, int length) {
+        int word = offset >>> 6;
+        int shift = offset & 63;
+        long value = words[word] >>> shift;
+        if (shift + length > 64 && word + 1 < words.length) {
+            value |= words[word + 1] << (64 - shift);
+        }
+        return value & lowMask(length);
+    }
+
+    private static long lowMask(int length) {
+        return length == 64 ? -1L : (1L << length) - 1;
+    }
+
+    private void checkSeat(int seat) {
+        if (!contains(seat)) {
+            throw new IllegalArgumentException("Seat number " + seat + " is out of range 1.." + capacity + ".");
+        }
+    }
+}
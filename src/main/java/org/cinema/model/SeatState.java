@@ -0,0 +1,31 @@
+package org.cinema.model;
+
+public enum SeatState {
+    FREE(""), PENDING("taken"), SOLD("taken"), HELD("held");
+
+    private final String cssClass;
+
+    SeatState(String cssClass) {
+        this.cssClass = cssClass;
+    }
+
+    public String getCssClass() {
+        return cssClass;
+    }
+
+    public boolean isFree() {
+        return this == FREE;
+    }
+
+    /**
+     * Maps the status of the ticket on a seat to the seat's state. A cancelled or returned ticket keeps its row,
+     * and with it the seat's unique key, so its seat can't be sold again either: like a pending ticket's, it is
+     * taken without being sold, which is what {@link #PENDING} stands for here.
+     */
+    public static SeatState of(Status ticketStatus) {
+        return switch (ticketStatus) {
+            case CONFIRMED -> SOLD;
+            case PENDING, CANCELLED, RETURNED -> PENDING;
+        };
+    }
+}
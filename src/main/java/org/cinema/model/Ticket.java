@@ -3,6 +3,8 @@ package org.cinema.model;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import javax.persistence.*;
 import java.time.LocalDateTime;
 
@@ -10,11 +12,21 @@ import java.time.LocalDateTime;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "ticket")
+@Table(name = "ticket",
+        uniqueConstraints = @UniqueConstraint(
+                name = Ticket.SEAT_CONSTRAINT, columnNames = {"session_id", "seat_number"}),
+        indexes = @Index(name = "idx_ticket_status_purchase", columnList = "status, purchase_time"))
 public class Ticket {
 
+    public static final String SEAT_CONSTRAINT = "uq_ticket_session_seat";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "ticket_id")
+    @GenericGenerator(name = "ticket_id", strategy = "enhanced-table", parameters = {
+            @Parameter(name = "table_name", value = "id_sequence"),
+            @Parameter(name = "segment_value", value = "ticket"),
+            @Parameter(name = "increment_size", value = "50")
+    })
     private int id;
 
     @ManyToOne
@@ -31,14 +43,18 @@ public class Ticket {
     @Column(name = "purchase_time")
     private LocalDateTime purchaseTime;
 
-    @Column(nullable = false)
+    @Column(nullable = false, columnDefinition = "ENUM('PENDING','CONFIRMED','CANCELLED','RETURNED')")
     @Enumerated(EnumType.STRING)
     private Status status;
 
-    @Column(name = "request_type", nullable = false)
+    @Column(name = "request_type", nullable = false, columnDefinition = "ENUM('PURCHASE','RETURN')")
     @Enumerated(EnumType.STRING)
     private RequestType requestType;
 
+    @Version
+    @Column(nullable = false)
+    private int version;
+
     @PrePersist
     private void prePersist() {
         if (purchaseTime == null) {
@@ -0,0 +1,36 @@
+package org.cinema.model;
+
+import lombok.Getter;
+
+import java.util.Set;
+
+/**
+ * State changes an admin or the ticket's owner can make to a ticket.
+ * A transition only applies to a ticket that is still in its expected state.
+ */
+@Getter
+public enum TicketTransition {
+    CONFIRM(Set.of(Status.PENDING), RequestType.PURCHASE, Status.CONFIRMED, null),
+    CANCEL(Set.of(Status.PENDING), null, Status.CANCELLED, null),
+    REQUEST_RETURN(Set.of(Status.PENDING), null, Status.PENDING, RequestType.RETURN),
+    RETURN(Set.of(Status.PENDING, Status.CONFIRMED), RequestType.RETURN, Status.RETURNED, null);
+
+    private final Set<Status> expectedStatuses;
+    /**
+     * The request type the ticket must have, or {@code null} if any will do.
+     */
+    private final RequestType expectedRequestType;
+    private final Status newStatus;
+    /**
+     * The request type the ticket gets, or {@code null} if it keeps its own.
+     */
+    private final RequestType newRequestType;
+
+    TicketTransition(Set<Status> expectedStatuses, RequestType expectedRequestType,
+                     Status newStatus, RequestType newRequestType) {
+        this.expectedStatuses = expectedStatuses;
+        this.expectedRequestType = expectedRequestType;
+        this.newStatus = newStatus;
+        this.newRequestType = newRequestType;
+    }
+}
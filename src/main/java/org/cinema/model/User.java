@@ -3,19 +3,26 @@ package org.cinema.model;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import javax.persistence.*;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 
 @Entity
 @Data
-@Table(name = "users")
+@Table(name = "users", indexes = @Index(name = "idx_users_created_at", columnList = "created_at"))
 @AllArgsConstructor
 @NoArgsConstructor
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "users_id")
+    @GenericGenerator(name = "users_id", strategy = "enhanced-table", parameters = {
+            @Parameter(name = "table_name", value = "id_sequence"),
+            @Parameter(name = "segment_value", value = "users"),
+            @Parameter(name = "increment_size", value = "50")
+    })
     private int id;
 
     @Column(nullable = false, unique = true)
@@ -24,7 +31,7 @@ public class User {
     @Column(nullable = false)
     private String password;
 
-    @Column(nullable = false)
+    @Column(nullable = false, columnDefinition = "ENUM('USER','ADMIN')")
     @Enumerated(EnumType.STRING)
     private Role role;
 
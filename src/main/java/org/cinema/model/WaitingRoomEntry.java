@@ -0,0 +1,40 @@
+package org.cinema.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "waiting_room",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uq_waiting_room_session_user", columnNames = {"session_id", "user_id"}),
+        indexes = {
+                @Index(name = "idx_waiting_room_admitted", columnList = "session_id, admitted_until"),
+                @Index(name = "idx_waiting_room_last_seen", columnList = "last_seen_at")
+        })
+public class WaitingRoomEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private int id;
+
+    @Column(name = "session_id", nullable = false)
+    private int sessionId;
+
+    @Column(name = "user_id", nullable = false)
+    private int userId;
+
+    @Column(name = "last_seen_at", nullable = false)
+    private LocalDateTime lastSeenAt;
+
+    @Column(name = "admitted_until")
+    private LocalDateTime admittedUntil;
+
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+}
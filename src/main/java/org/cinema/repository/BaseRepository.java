@@ -1,10 +1,22 @@
 package org.cinema.repository;
 
 import lombok.extern.slf4j.Slf4j;
+import org.cinema.config.InvalidationBus;
+import org.cinema.config.ReplicaRouter;
+import org.cinema.exception.EditConflictException;
+import org.hibernate.CacheMode;
 import org.hibernate.HibernateException;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.StaleObjectStateException;
+import org.hibernate.StaleStateException;
+import org.hibernate.StatelessSession;
 import org.hibernate.Transaction;
+import org.hibernate.exception.ConstraintViolationException;
+
+import javax.persistence.OptimisticLockException;
+import java.util.List;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -12,6 +24,9 @@ import java.util.function.Function;
  * Base DAO class that provides common methods for handling database transactions.
  * This class contains methods to execute Hibernate transactions that either do or don't return results.
  * It abstracts the session management and transaction handling to simplify database operations for subclasses.
+ * Transactions always run on the primary database, while read-only operations are routed by {@link ReplicaRouter}
+ * to the read replica when one is configured and healthy.
+ * Inside a request, operations join the request's {@link UnitOfWork} instead of opening sessions of their own.
  * This class is intended to be extended by other Repositories that interact with specific entities.
  */
 @Slf4j
@@ -29,33 +44,232 @@ public class BaseRepository {
      * @param action the operation to be performed within the transaction
      */
     protected void executeTransaction(Consumer<Session> action) {
+        executeTransactionWithResult(session -> {
+            action.accept(session);
+            return null;
+        });
+    }
+
+    /**
+     * Executes a transaction that returns a result (e.g., number of rows affected by a bulk statement).
+     * Inside a read-write unit of work the action joins the request transaction and is flushed right away,
+     * so constraint violations still surface here; a failure marks the whole request transaction for rollback.
+     * Inside the action of {@link #executeInNewTransaction(Function)} it joins that transaction instead.
+     *
+     * @param action the operation to be performed within the transaction
+     * @param <R>    the type of the result
+     * @return the result of the operation
+     */
+    protected <R> R executeTransactionWithResult(Function<Session, R> action) {
+        Session own = UnitOfWork.joinOwnTransaction(sessionFactory);
+        if (own != null) {
+            R result = action.apply(own);
+            own.flush();
+            return result;
+        }
+        Session current = UnitOfWork.join(sessionFactory, true);
+        if (current != null) {
+            return executeJoined(current, action, true);
+        }
+        return executeInNewTransaction(action);
+    }
+
+    /**
+     * Executes a transaction of its own that is committed before the method returns, even inside a request's
+     * unit of work (e.g., a purchase group written on behalf of several requests, or a short row lock).
+     * Writes that the action issues through the other execute methods, such as cache invalidation events,
+     * join this transaction. The session bypasses the caches while {@link InvalidationBus#isFresh()} is false.
+     *
+     * @param action the operation to be performed within the transaction
+     * @param <R>    the type of the result
+     * @return the result of the operation
+     */
+    protected <R> R executeInNewTransaction(Function<Session, R> action) {
         Transaction transaction = null;
-        try (Session session = sessionFactory.openSession()) {
+        try (Session session = ReplicaRouter.openSession(sessionFactory)) {
             log.debug("Transaction started...");
             transaction = session.beginTransaction();
-            action.accept(session);
+            R result = UnitOfWork.withOwnTransaction(session, () -> action.apply(session));
             transaction.commit();
             log.debug("Transaction successfully completed.");
+            return result;
         } catch (HibernateException e) {
             log.error("Hibernate error during transaction execution: {}", e.getMessage());
             handleTransactionRollback(transaction);
             throw new RuntimeException("Hibernate error during transaction.", e);
         } catch (Exception e) {
-            log.error("Unexpected error during transaction without result: {}", e.getMessage());
+            log.error("Unexpected error during transaction: {}", e.getMessage());
             handleTransactionRollback(transaction);
             throw new RuntimeException("Unexpected error during transaction.", e);
         }
     }
 
+    /**
+     * Executes a read-modify-write transaction of its own for an edit made in a form, which carries the version
+     * of the entity the form was rendered from. The action loads the stored entity, bypassing the second-level
+     * cache, and calls {@link #checkVersion} before copying the form values onto it. If the version moved on,
+     * before the load or before the commit, nothing is written: reapplying the form would overwrite a change
+     * its user has never seen. It never joins the request's unit of work: a failed flush leaves a session unusable.
+     *
+     * @param description what is edited, for the conflict message (e.g., "Ticket 12")
+     * @param action      the operation to be performed within the transaction
+     * @param <R>         the type of the result
+     * @return the result of the operation
+     * @throws EditConflictException if the entity was changed by someone else since the form was rendered
+     */
+    protected <R> R executeVersioned(String description, Function<Session, R> action) {
+        try {
+            return executeInNewTransaction(session -> {
+                session.setCacheMode(CacheMode.REFRESH);
+                return action.apply(session);
+            });
+        } catch (RuntimeException e) {
+            if (!isOptimisticLockFailure(e)) {
+                throw e;
+            }
+            log.warn("Edit of {} rejected, it was changed concurrently.", description);
+            throw new EditConflictException(description
+                    + " was changed by someone else in the meantime. Reload it and apply your changes again.");
+        }
+    }
+
+    /**
+     * Rejects an edit made from a form that was rendered from an older version of the stored entity.
+     *
+     * @throws StaleObjectStateException if the versions differ
+     */
+    protected static void checkVersion(Class<?> entityClass, int id, int storedVersion, int expectedVersion) {
+        if (storedVersion != expectedVersion) {
+            throw new StaleObjectStateException(entityClass.getName(), id);
+        }
+    }
+
+    /**
+     * Checks whether the error means a versioned row was changed by someone else in the meantime.
+     */
+    protected static boolean isOptimisticLockFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof StaleStateException || cause instanceof OptimisticLockException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Applies the action to every entity in a single transaction of its own.
+     * The session is flushed and cleared after each {@code hibernate.jdbc.batch_size} entities,
+     * so the statements go out as JDBC batches and the persistence context stays small;
+     * clearing is why the batch never joins the request's unit of work.
+     *
+     * @param entities the entities to process
+     * @param action   the operation performed for each entity (e.g., save or merge)
+     * @param <T>      the type of the entities
+     */
+    protected <T> void executeInBatches(List<T> entities, BiConsumer<Session, T> action) {
+        executeInBatches(entities, action, () -> {
+        });
+    }
+
+    /**
+     * Like {@link #executeInBatches(List, BiConsumer)}, running {@code beforeCommit} in the same transaction
+     * once every entity has been processed, e.g. to publish the cache invalidation events of the batch.
+     */
+    protected <T> void executeInBatches(List<T> entities, BiConsumer<Session, T> action, Runnable beforeCommit) {
+        int batchSize = Math.max(1, sessionFactory.getSessionFactoryOptions().getJdbcBatchSize());
+        executeInNewTransaction(session -> {
+            for (int i = 0; i < entities.size(); i++) {
+                action.accept(session, entities.get(i));
+                if ((i + 1) % batchSize == 0) {
+                    session.flush();
+                    session.clear();
+                }
+            }
+            beforeCommit.run();
+            return null;
+        });
+        log.debug("{} entities processed in batches of {}.", entities.size(), batchSize);
+    }
+
     /**
      * Executes an operation that returns a result (e.g., fetching data).
+     * The operation runs on the read replica when one is available; if the replica can't be reached,
+     * it is taken out of rotation and the operation is repeated on the primary.
      *
      * @param action the operation to be performed
      * @param <R>    the type of the result
      * @return the result of the operation
      */
     protected <R> R executeWithResult(Function<Session, R> action) {
-        try (Session session = sessionFactory.openSession()) {
+        SessionFactory readFactory = UnitOfWork.isReadWrite() ? sessionFactory : ReplicaRouter.forReads(sessionFactory);
+        if (readFactory != sessionFactory) {
+            try {
+                return executeRead(readFactory, action);
+            } catch (RuntimeException e) {
+                if (!ReplicaRouter.isConnectionFailure(e)) {
+                    throw e;
+                }
+                ReplicaRouter.markUnavailable(e);
+                UnitOfWork.discard(readFactory);
+            }
+        }
+        return executeRead(sessionFactory, action);
+    }
+
+    /**
+     * Executes an operation that returns a result on the primary database,
+     * for reads that must see the latest committed writes (e.g., uniqueness checks).
+     * Inside a unit of work it joins the request's session, whose statements see every write committed
+     * before they run (see {@link UnitOfWork}).
+     *
+     * @param action the operation to be performed
+     * @param <R>    the type of the result
+     * @return the result of the operation
+     */
+    protected <R> R executeOnPrimary(Function<Session, R> action) {
+        return executeRead(sessionFactory, action);
+    }
+
+    /**
+     * Executes a bulk read (e.g., a chunk of an export) in a stateless session of its own, on the read replica
+     * when one is available. Nothing is kept in a persistence context, so memory doesn't grow with the rows read.
+     * Unlike {@link #executeWithResult(Function)} the operation isn't repeated on the primary when the replica
+     * fails, because part of its output may already have been consumed; the replica is still taken out of rotation.
+     *
+     * @param action the operation to be performed
+     * @param <R>    the type of the result
+     * @return the result of the operation
+     */
+    protected <R> R executeStateless(Function<StatelessSession, R> action) {
+        SessionFactory readFactory = UnitOfWork.isReadWrite() ? sessionFactory : ReplicaRouter.forReads(sessionFactory);
+        try (StatelessSession session = readFactory.openStatelessSession()) {
+            log.debug("Stateless session opened for operation...");
+            R result = action.apply(session);
+            log.debug("Stateless operation successfully completed!");
+            return result;
+        } catch (HibernateException e) {
+            log.error("Hibernate error during stateless operation: {}", e.getMessage());
+            markReplicaDownOnFailure(readFactory, e);
+            throw new RuntimeException("Hibernate error during operation.", e);
+        } catch (Exception e) {
+            log.error("Unexpected error during stateless operation: {}", e.getMessage());
+            markReplicaDownOnFailure(readFactory, e);
+            throw new RuntimeException("Unexpected error during operation.", e);
+        }
+    }
+
+    private void markReplicaDownOnFailure(SessionFactory factory, Exception e) {
+        if (factory != sessionFactory && ReplicaRouter.isConnectionFailure(e)) {
+            ReplicaRouter.markUnavailable(e);
+        }
+    }
+
+    private <R> R executeRead(SessionFactory factory, Function<Session, R> action) {
+        Session current = UnitOfWork.join(factory, false);
+        if (current != null) {
+            return executeJoined(current, action, false);
+        }
+        try (Session session = ReplicaRouter.openSession(factory)) {
             log.debug("Session opened for operation...");
             R result = action.apply(session);
             log.debug("Transaction successfully completed!");
@@ -69,6 +283,68 @@ public class BaseRepository {
         }
     }
 
+    private <R> R executeJoined(Session session, Function<Session, R> action, boolean write) {
+        try {
+            R result = action.apply(session);
+            if (write) {
+                session.flush();
+            }
+            return result;
+        } catch (HibernateException e) {
+            log.error("Hibernate error during operation in the unit of work: {}", e.getMessage());
+            // A failed read is the caller's to handle; if Hibernate still dooms the transaction,
+            // UnitOfWork.end reports it instead of silently rolling back.
+            if (write) {
+                UnitOfWork.markRollbackOnly();
+            }
+            throw new RuntimeException(write ? "Hibernate error during transaction."
+                    : "Hibernate error during operation.", e);
+        } catch (Exception e) {
+            log.error("Unexpected error during operation in the unit of work: {}", e.getMessage());
+            if (write) {
+                UnitOfWork.markRollbackOnly();
+            }
+            throw new RuntimeException(write ? "Unexpected error during transaction."
+                    : "Unexpected error during operation.", e);
+        }
+    }
+
+    /**
+     * Drops the cached query results of the region after a write to the entities its queries return.
+     * Entity regions are kept up to date by Hibernate itself. The region is evicted again once the transaction
+     * completes, so no query can cache the rows it read before the commit.
+     * The other nodes are told through {@link InvalidationBus} to evict the region as well. Call it inside the
+     * write's action, so the event is committed or rolled back together with the write.
+     *
+     * @param region the query cache region
+     */
+    protected void evictQueryRegion(String region) {
+        sessionFactory.getCache().evictQueryRegion(region);
+        UnitOfWork.afterCompletion(() -> sessionFactory.getCache().evictQueryRegion(region));
+        InvalidationBus.getInstance().publish(InvalidationBus.QUERY_CACHE, region);
+        log.debug("Query cache region '{}' evicted.", region);
+    }
+
+    /**
+     * Checks whether the error was caused by a violation of the given unique constraint.
+     *
+     * @param e              the error thrown by one of the execute methods
+     * @param constraintName the name of the constraint as declared in the schema;
+     *                       MySQL reports it only inside the driver message, so the message is checked too
+     * @return true if the constraint was violated
+     */
+    protected static boolean isConstraintViolation(Throwable e, String constraintName) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                String violated = violation.getConstraintName() != null
+                        ? violation.getConstraintName()
+                        : violation.getSQLException().getMessage();
+                return violated != null && violated.contains(constraintName);
+            }
+        }
+        return false;
+    }
+
     /**
      * Handles transaction rollback in case of an error.
      *
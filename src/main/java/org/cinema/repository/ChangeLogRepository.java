@@ -0,0 +1,11 @@
+package org.cinema.repository;
+
+import org.cinema.dto.InvalidationEvent;
+import java.util.List;
+
+public interface ChangeLogRepository {
+    void append(String region, String key, String nodeId);
+    List<InvalidationEvent> findAfter(long sequence, int limit);
+    long findLatestSequence();
+    int deleteOlderThan(int retentionSeconds, int batchSize);
+}
@@ -4,7 +4,6 @@ import org.cinema.model.Movie;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 
 public interface MovieRepository {
     void save(Movie movie);
@@ -12,5 +11,9 @@ public interface MovieRepository {
     List<Movie> findAll();
     void update(Movie movie);
     void delete(int movieId);
-    List<Movie> findByTitle(String movieTitle);
+    void saveAll(List<Movie> movies);
+    void updateAll(List<Movie> movies);
+    int deleteAllByIds(List<Long> movieIds);
+    List<Movie> search(String text);
+    Optional<Movie> findByTitle(String title);
 }
@@ -0,0 +1,12 @@
+package org.cinema.repository;
+
+import org.cinema.model.SeatHold;
+import java.util.List;
+
+public interface SeatHoldRepository {
+    boolean hold(int sessionId, int seatNumber, int userId, int ttlSeconds);
+    void release(int sessionId, List<Integer> seatNumbers, int userId);
+    List<SeatHold> findActiveBySession(int sessionId);
+    int countActiveByUser(int sessionId, int userId, int excludedSeatNumber);
+    int deleteExpired(int batchSize);
+}
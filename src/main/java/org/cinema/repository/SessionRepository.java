@@ -1,17 +1,25 @@
 package org.cinema.repository;
 
+import org.cinema.dto.Page;
 import org.cinema.model.FilmSession;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 
 public interface SessionRepository{
     void save(FilmSession filmSession);
     Optional<FilmSession> getById(int filmSessionId);
-    Set<FilmSession> findAll();
+    List<FilmSession> findAll();
+    Page<FilmSession> findPage(String pageToken, int pageSize);
     void update(FilmSession filmSession);
     void delete(int filmSessionId);
+    FilmSession setWaitingRoom(int filmSessionId, boolean waitingRoom);
+    void saveAll(List<FilmSession> filmSessions);
+    void updateAll(List<FilmSession> filmSessions);
+    int deleteAllByIds(List<Integer> filmSessionIds);
     boolean checkIfSessionExists(FilmSession filmSession);
-    Set<FilmSession> findByDate(LocalDate date);
+    List<LocalDate> findConflictingDates(FilmSession filmSession, List<LocalDate> dates);
+    List<FilmSession> findScheduledFrom(LocalDate date);
+    List<FilmSession> findByDate(LocalDate date);
 }
 
@@ -1,19 +1,36 @@
 package org.cinema.repository;
 
+import org.cinema.dto.Page;
+import org.cinema.dto.SeatOrder;
+import org.cinema.dto.TicketBulkResult;
+import org.cinema.dto.TicketExportRow;
+import org.cinema.dto.TicketView;
+import org.cinema.dto.UserTicketView;
+import org.cinema.model.Status;
 import org.cinema.model.Ticket;
+import org.cinema.model.TicketTransition;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
+import java.util.function.Consumer;
 
 public interface TicketRepository {
     void save(Ticket ticket);
     Optional<Ticket> getById(int ticketId);
-    Set<Ticket> findAll();
-    void update(Ticket ticket, LocalDateTime purchaseTime);
+    Page<TicketView> findPage(String pageToken, int pageSize);
+    void update(Ticket ticket);
+    boolean transition(int ticketId, TicketTransition transition);
+    TicketBulkResult transitionAll(List<Integer> ticketIds, TicketTransition transition);
+    TicketBulkResult transitionAllOfSession(int sessionId, TicketTransition transition);
+    TicketBulkResult transitionAllPurchasedBefore(LocalDateTime cutoff, TicketTransition transition);
     void delete(int ticketId);
+    void saveAll(List<Ticket> tickets);
+    void updateAll(List<Ticket> tickets);
+    int deleteAllByIds(List<Integer> ticketIds);
     List<Ticket> getTicketsBySession(int sessionId);
-    boolean checkIfTicketExists(Ticket ticket);
-    List<Ticket> getTicketsByUserId(int userId);
+    List<UserTicketView> getTicketsByUserId(int userId);
+    long streamForExport(LocalDate from, LocalDate to, Status status, Consumer<TicketExportRow> sink);
+    List<RuntimeException> purchaseAll(int sessionId, List<SeatOrder> orders);
 }
 
@@ -0,0 +1,283 @@
+package org.cinema.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.cinema.config.ReplicaRouter;
+import org.hibernate.FlushMode;
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.context.internal.ThreadLocalSessionContext;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import java.sql.Connection;
+import java.util.function.Supplier;
+
+/**
+ * Request-scoped unit of work bound to the current thread.
+ * It is begun for every request by {@link org.cinema.filter.UnitOfWorkFilter}, but the Hibernate session and its
+ * transaction are opened lazily by the first repository operation that joins it, so requests that never touch
+ * the database never take a connection. The session is bound to Hibernate's thread session context, every
+ * repository operation of the request shares it (and its first-level cache), and the transaction is committed
+ * or rolled back once, when the request ends.
+ * A read-only unit of work (GET requests) runs in read-only mode with manual flushing and doesn't accept writes;
+ * writes issued during such a request run in transactions of their own. It opens no transaction and holds a
+ * connection only while a statement runs, so every read sees the latest committed data and a GET never keeps
+ * one pooled connection while its own writes wait for a second.
+ * A read-write unit of work runs at READ COMMITTED, so its reads see its own writes as well as everything other
+ * transactions (including those of {@code executeInNewTransaction}) committed before each statement.
+ * While a transaction of its own is open on the thread, it is the thread's innermost transaction: writes issued
+ * meanwhile (e.g. cache invalidation events) join it rather than the request's, and completion callbacks wait
+ * for it, so they always share the fate of the change they belong to.
+ */
+@Slf4j
+public final class UnitOfWork {
+
+    private static final ThreadLocal<UnitOfWork> current = new ThreadLocal<>();
+    private static final ThreadLocal<Session> ownTransaction = new ThreadLocal<>();
+
+    private final boolean readOnly;
+    private Session session;
+    private boolean rollbackOnly;
+
+    private UnitOfWork(boolean readOnly) {
+        this.readOnly = readOnly;
+    }
+
+    /**
+     * Begins a unit of work for the current thread.
+     *
+     * @param readOnly whether the unit of work only reads
+     * @return false if the thread already has a unit of work, which then stays the only one
+     */
+    public static boolean begin(boolean readOnly) {
+        if (current.get() != null) {
+            return false;
+        }
+        current.set(new UnitOfWork(readOnly));
+        return true;
+    }
+
+    /**
+     * Ends the current thread's unit of work, committing its transaction unless the request failed
+     * or one of its write operations failed and marked it for rollback.
+     *
+     * @param success whether the request completed without an error
+     * @throws RuntimeException if the commit failed, or if Hibernate marked the transaction for rollback
+     *                          after a failed read the caller recovered from: the request's writes are lost
+     *                          then, and the request must not report success
+     */
+    public static void end(boolean success) {
+        UnitOfWork work = current.get();
+        current.remove();
+        if (work != null) {
+            work.close(success);
+        }
+    }
+
+    /**
+     * Commits the work done so far and gives the connection back to the pool, before a long wait (e.g. for
+     * a purchase lane) or before the response is sent. The next repository operation of the request starts
+     * a new transaction.
+     *
+     * @throws RuntimeException if the work couldn't be committed (see {@link #end(boolean)})
+     */
+    public static void release() {
+        UnitOfWork work = current.get();
+        if (work != null) {
+            work.close(true);
+        }
+    }
+
+    /**
+     * Rolls back the work done so far and gives the connection back to the pool, e.g. before an error response,
+     * so a request that fails halfway doesn't keep the writes it made before failing. The next repository
+     * operation of the request starts a new transaction.
+     */
+    public static void rollback() {
+        UnitOfWork work = current.get();
+        if (work != null) {
+            work.close(false);
+        }
+    }
+
+    public static boolean isReadWrite() {
+        UnitOfWork work = current.get();
+        return work != null && !work.readOnly;
+    }
+
+    /**
+     * Runs the action again once the thread's innermost transaction has completed, if one is open, so that caches
+     * cleared during the transaction don't keep what concurrent readers loaded before the commit.
+     */
+    public static void afterCompletion(Runnable action) {
+        Session session = innermostSession();
+        if (session == null || !session.getTransaction().isActive()) {
+            return;
+        }
+        session.getTransaction().registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Runs the action once the thread's innermost transaction has committed, or right away if none is open (the
+     * change was committed by a transaction of its own). Nothing runs if the transaction rolls back, so
+     * node-local state derived from the change (e.g. an index) never reflects a write that didn't happen.
+     */
+    public static void afterCommit(Runnable action) {
+        Session session = innermostSession();
+        if (session == null || !session.getTransaction().isActive()) {
+            action.run();
+            return;
+        }
+        session.getTransaction().registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the unit of work's session if it belongs to the given session factory, opening it on that factory
+     * if the unit of work hasn't touched the database yet.
+     *
+     * @param factory the session factory the operation has to run on
+     * @param write   whether the operation writes
+     * @return the session to join, or {@code null} if the operation has to run in a session of its own
+     */
+    static Session join(SessionFactory factory, boolean write) {
+        UnitOfWork work = current.get();
+        if (work == null || (write && work.readOnly)) {
+            return null;
+        }
+        if (work.session == null) {
+            work.open(factory);
+        }
+        return work.session.getSessionFactory() == factory ? work.session : null;
+    }
+
+    /**
+     * Runs the action with the session of a transaction of its own as the thread's innermost transaction.
+     */
+    static <R> R withOwnTransaction(Session session, Supplier<R> action) {
+        Session outer = ownTransaction.get();
+        ownTransaction.set(session);
+        try {
+            return action.get();
+        } finally {
+            if (outer == null) {
+                ownTransaction.remove();
+            } else {
+                ownTransaction.set(outer);
+            }
+        }
+    }
+
+    /**
+     * @return the session of the transaction of its own open on the thread if it belongs to the given factory,
+     *         which a write then joins instead of the unit of work; otherwise {@code null}
+     */
+    static Session joinOwnTransaction(SessionFactory factory) {
+        Session session = ownTransaction.get();
+        return session != null && session.getSessionFactory() == factory ? session : null;
+    }
+
+    private static Session innermostSession() {
+        Session session = ownTransaction.get();
+        if (session != null) {
+            return session;
+        }
+        UnitOfWork work = current.get();
+        return work != null ? work.session : null;
+    }
+
+    static void markRollbackOnly() {
+        UnitOfWork work = current.get();
+        if (work != null && work.session != null) {
+            work.rollbackOnly = true;
+        }
+    }
+
+    /**
+     * Drops the unit of work's session if it was opened on the given factory, e.g. after the read replica
+     * it was connected to went down. The next repository operation opens a new one.
+     */
+    static void discard(SessionFactory factory) {
+        UnitOfWork work = current.get();
+        if (work != null && work.session != null && work.session.getSessionFactory() == factory) {
+            work.close(false);
+        }
+    }
+
+    private void open(SessionFactory factory) {
+        Session opened = readOnly
+                ? ReplicaRouter.openSession(factory, factory.withOptions().connectionHandlingMode(
+                        PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_STATEMENT))
+                : ReplicaRouter.openSession(factory, factory.withOptions());
+        try {
+            if (readOnly) {
+                opened.setDefaultReadOnly(true);
+                opened.setHibernateFlushMode(FlushMode.MANUAL);
+            } else {
+                opened.doWork(connection -> connection.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED));
+                opened.beginTransaction();
+            }
+        } catch (RuntimeException e) {
+            opened.close();
+            throw e;
+        }
+        ThreadLocalSessionContext.bind(opened);
+        session = opened;
+        log.debug("Unit of work session opened ({}).", readOnly ? "read-only" : "read-write");
+    }
+
+    private void close(boolean success) {
+        if (session == null) {
+            return;
+        }
+        Session closing = session;
+        session = null;
+        boolean commit = success && !rollbackOnly;
+        rollbackOnly = false;
+        ThreadLocalSessionContext.unbind(closing.getSessionFactory());
+        try {
+            Transaction transaction = closing.getTransaction();
+            if (transaction.isActive()) {
+                if (commit && transaction.getRollbackOnly()) {
+                    transaction.rollback();
+                    log.error("Unit of work rolled back: a failed read marked its transaction for rollback.");
+                    throw new IllegalStateException("The request transaction was rolled back after a failed read.");
+                }
+                if (commit) {
+                    transaction.commit();
+                    log.debug("Unit of work committed.");
+                } else {
+                    transaction.rollback();
+                    log.warn("Unit of work rolled back.");
+                }
+            }
+        } catch (HibernateException e) {
+            log.error("Failed to complete unit of work: {}", e.getMessage(), e);
+            throw new RuntimeException("Hibernate error while completing the request transaction.", e);
+        } finally {
+            closing.close();
+        }
+    }
+}
@@ -1,15 +1,16 @@
 package org.cinema.repository;
 
+import org.cinema.dto.Page;
 import org.cinema.model.User;
 import java.util.Optional;
-import java.util.Set;
 
 public interface UserRepository {
     void save(User user);
     Optional<User> getById(int userId);
-    Set<User> findAll();
+    Page<User> findPage(String pageToken, int pageSize);
     void update(User user);
     void delete(int userId);
     Optional<User> getByUsername(String username);
+    boolean replacePassword(int userId, String expectedHash, String newHash);
 }
 
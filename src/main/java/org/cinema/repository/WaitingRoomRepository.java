@@ -0,0 +1,15 @@
+package org.cinema.repository;
+
+import org.cinema.dto.WaitingRoomStatus;
+
+import java.util.List;
+
+public interface WaitingRoomRepository {
+    WaitingRoomStatus findStatus(int sessionId, int userId);
+    void join(int sessionId, int userId);
+    boolean claim(int sessionId, int userId, int admissionSeconds);
+    int admitNext(int sessionId, int activeLimit, int claimSeconds);
+    List<Integer> findSessionsWithWaitingUsers();
+    void leave(int sessionId, int userId);
+    int deleteInactive(int batchSize);
+}
@@ -0,0 +1,83 @@
+package org.cinema.repository.impl;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.cinema.config.HibernateConfig;
+import org.cinema.dto.InvalidationEvent;
+import org.cinema.repository.BaseRepository;
+import org.cinema.repository.ChangeLogRepository;
+
+import java.util.List;
+
+/**
+ * The {@code cache_change_log} table, which carries cache invalidation events between the web nodes.
+ * It isn't mapped to an entity: events are only appended, read in ID order and purged.
+ */
+@Slf4j
+public class ChangeLogRepositoryImpl extends BaseRepository implements ChangeLogRepository {
+
+    @Getter
+    private static final ChangeLogRepositoryImpl instance = new ChangeLogRepositoryImpl();
+
+    public ChangeLogRepositoryImpl() {
+        super(HibernateConfig.getSessionFactory());
+    }
+
+    /**
+     * Appends the event. It joins the transaction the change is written in (the request's, or one of its own),
+     * so the event becomes visible to the other nodes together with the change it describes, and never for
+     * a change that was rolled back.
+     */
+    @Override
+    public void append(String region, String key, String nodeId) {
+        executeTransaction(session -> session.createNativeQuery(
+                        "INSERT INTO cache_change_log (region, entity_key, node_id) VALUES (:region, :key, :nodeId)")
+                .addSynchronizedQuerySpace("cache_change_log")
+                .setParameter("region", region)
+                .setParameter("key", key)
+                .setParameter("nodeId", nodeId)
+                .executeUpdate());
+    }
+
+    /**
+     * Reads the events after the given ID with a range scan of the primary key, on the primary database,
+     * since the replica may lag behind by more than the staleness the caches allow.
+     */
+    @Override
+    public List<InvalidationEvent> findAfter(long sequence, int limit) {
+        return executeOnPrimary(session -> {
+            List<?> rows = session.createNativeQuery(
+                            "SELECT id, region, entity_key, node_id FROM cache_change_log WHERE id > :id ORDER BY id")
+                    .setParameter("id", sequence)
+                    .setMaxResults(limit)
+                    .list();
+            return rows.stream()
+                    .map(row -> (Object[]) row)
+                    .map(row -> new InvalidationEvent(((Number) row[0]).longValue(), (String) row[1],
+                            (String) row[2], (String) row[3]))
+                    .toList();
+        });
+    }
+
+    @Override
+    public long findLatestSequence() {
+        Number latest = executeOnPrimary(session -> (Number) session.createNativeQuery(
+                "SELECT COALESCE(MAX(id), 0) FROM cache_change_log").uniqueResult());
+        return latest.longValue();
+    }
+
+    @Override
+    public int deleteOlderThan(int retentionSeconds, int batchSize) {
+        int deleted = executeTransactionWithResult(session -> session.createNativeQuery(
+                        "DELETE FROM cache_change_log WHERE created_at < NOW(3) - INTERVAL :retention SECOND " +
+                                "ORDER BY created_at LIMIT :limit")
+                .addSynchronizedQuerySpace("cache_change_log")
+                .setParameter("retention", retentionSeconds)
+                .setParameter("limit", batchSize)
+                .executeUpdate());
+        if (deleted > 0) {
+            log.info("{} cache change log events purged.", deleted);
+        }
+        return deleted;
+    }
+}
@@ -2,14 +2,20 @@ package org.cinema.repository.impl;
 
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.cinema.config.CacheConfig;
 import org.cinema.config.HibernateConfig;
 import org.cinema.exception.NoDataFoundException;
 import org.cinema.model.Movie;
 import org.cinema.repository.BaseRepository;
 import org.cinema.repository.MovieRepository;
+import org.cinema.util.PropertiesUtil;
+import org.hibernate.Session;
 import org.hibernate.query.Query;
+import java.sql.SQLException;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.Set;
 
 @Slf4j
 public class MovieRepositoryImpl extends BaseRepository implements MovieRepository {
@@ -17,14 +23,40 @@ public class MovieRepositoryImpl extends BaseRepository implements MovieReposito
     @Getter
     private static final MovieRepositoryImpl instance = new MovieRepositoryImpl();
 
+    private static final String FULL_TEXT_SEARCH_SQL =
+            "SELECT m.* FROM movies m " +
+            "WHERE MATCH(m.title, m.director, m.actors) AGAINST (:terms IN BOOLEAN MODE) " +
+            "ORDER BY MATCH(m.title) AGAINST (:terms IN BOOLEAN MODE) * :titleWeight " +
+            "+ MATCH(m.title, m.director, m.actors) AGAINST (:terms IN BOOLEAN MODE) DESC, m.id";
+
+    private static final int TITLE_WEIGHT = 2;
+
+    private static final int ER_FT_MATCHING_KEY_NOT_FOUND = 1191;
+    private static final int ER_TABLE_CANT_HANDLE_FT = 1214;
+
+    /*
+     * InnoDB's default full-text stopwords. They aren't indexed, so requiring one would match nothing.
+     */
+    private static final Set<String> STOPWORDS = Set.of("a", "about", "an", "are", "as", "at", "be", "by", "com",
+            "de", "en", "for", "from", "how", "i", "in", "is", "it", "la", "of", "on", "or", "that", "the",
+            "this", "to", "was", "what", "when", "where", "who", "will", "with", "und", "www");
+
+    private final int searchLimit = PropertiesUtil.getInt("movie.search.limit", 50);
+    private final int minTokenLength = PropertiesUtil.getInt("movie.search.min.token.length", 3);
+
+    private volatile boolean fullTextAvailable =
+            Boolean.parseBoolean(PropertiesUtil.get("movie.search.fulltext.enabled", "true"));
+
     public MovieRepositoryImpl() {
         super(HibernateConfig.getSessionFactory());
     }
 
     @Override
     public void save(Movie movie) {
-        executeTransaction(session ->
-                session.save(movie));
+        executeTransaction(session -> {
+            session.save(movie);
+            evictQueryRegion(CacheConfig.MOVIE_QUERY_REGION);
+        });
         log.info("Movie '{}' successfully added.", movie.getTitle());
     }
 
@@ -38,7 +70,10 @@ public class MovieRepositoryImpl extends BaseRepository implements MovieReposito
     public List<Movie> findAll() {
         return executeWithResult(session -> {
             log.debug("Retrieving all movies...");
-            List<Movie> movies = session.createQuery("FROM Movie", Movie.class).list();
+            List<Movie> movies = session.createQuery("FROM Movie", Movie.class)
+                    .setCacheable(true)
+                    .setCacheRegion(CacheConfig.MOVIE_QUERY_REGION)
+                    .list();
 
             log.info("{} movies successfully retrieved.", movies.size());
             return movies;
@@ -49,6 +84,7 @@ public class MovieRepositoryImpl extends BaseRepository implements MovieReposito
     public void update(Movie movie) {
         executeTransaction(session -> {
             session.merge(movie);
+            evictQueryRegion(CacheConfig.MOVIE_QUERY_REGION);
             log.info("Movie with title '{}' successfully updated.", movie.getTitle());
         });
     }
@@ -61,17 +97,130 @@ public class MovieRepositoryImpl extends BaseRepository implements MovieReposito
                 throw new NoDataFoundException("Error! Movie with title " + movieId + " doesn't exist.");
             }
             session.delete(movie);
+            evictQueryRegion(CacheConfig.MOVIE_QUERY_REGION);
             log.info("Movie with title '{}' successfully deleted.", movie.getTitle());
         });
     }
 
     @Override
-    public List<Movie> findByTitle(String title) {
+    public void saveAll(List<Movie> movies) {
+        executeInBatches(movies, Session::save, () -> evictQueryRegion(CacheConfig.MOVIE_QUERY_REGION));
+        log.info("{} movies successfully added.", movies.size());
+    }
+
+    @Override
+    public void updateAll(List<Movie> movies) {
+        executeInBatches(movies, Session::merge, () -> evictQueryRegion(CacheConfig.MOVIE_QUERY_REGION));
+        log.info("{} movies successfully updated.", movies.size());
+    }
+
+    @Override
+    public int deleteAllByIds(List<Long> movieIds) {
+        if (movieIds.isEmpty()) {
+            return 0;
+        }
+        int deleted = executeTransactionWithResult(session -> {
+            int count = session.createQuery("DELETE FROM Movie m WHERE m.id IN (:ids)")
+                    .setParameterList("ids", movieIds)
+                    .executeUpdate();
+            evictQueryRegion(CacheConfig.MOVIE_QUERY_REGION);
+            return count;
+        });
+        log.info("{} of {} movies successfully deleted.", deleted, movieIds.size());
+        return deleted;
+    }
+
+    /**
+     * Finds the movies whose title, director or actors contain every word of the text (as a word prefix),
+     * best matches first; a match in the title weighs more than one in the credits.
+     * Uses the full-text indexes added by migration V3. Words the index doesn't store (shorter than the
+     * minimum token length, or stopwords) are left out of the match; when none are left, and on databases
+     * without the full-text indexes (e.g. a test database), the search falls back to a title substring match.
+     */
+    @Override
+    public List<Movie> search(String text) {
+        String terms = toBooleanQuery(text);
+        if (fullTextAvailable && !terms.isEmpty()) {
+            try {
+                return searchFullText(terms);
+            } catch (RuntimeException e) {
+                if (!isFullTextUnsupported(e)) {
+                    throw e;
+                }
+                fullTextAvailable = false;
+                log.warn("Full-text movie search is unavailable (no full-text index), falling back to LIKE: {}",
+                        e.getMessage());
+            }
+        }
+        return searchByTitleSubstring(text);
+    }
+
+    /**
+     * Finds the movie with exactly this title (compared case- and accent-insensitively, as the column's collation
+     * does), using the title index; the first one stored if there are several.
+     */
+    @Override
+    public Optional<Movie> findByTitle(String title) {
+        return executeWithResult(session -> session.createQuery(
+                        "FROM Movie WHERE title = :title ORDER BY id", Movie.class)
+                .setParameter("title", title)
+                .setMaxResults(1)
+                .setCacheable(true)
+                .setCacheRegion(CacheConfig.MOVIE_QUERY_REGION)
+                .uniqueResultOptional());
+    }
+
+    private List<Movie> searchFullText(String terms) {
+        return executeWithResult(session -> {
+            List<Movie> movies = session.createNativeQuery(FULL_TEXT_SEARCH_SQL, Movie.class)
+                    .setParameter("terms", terms)
+                    .setParameter("titleWeight", TITLE_WEIGHT)
+                    .setMaxResults(searchLimit)
+                    .setCacheable(true)
+                    .setCacheRegion(CacheConfig.MOVIE_QUERY_REGION)
+                    .list();
+            log.debug("Full-text search '{}' found {} movie(s).", terms, movies.size());
+            return movies;
+        });
+    }
+
+    private List<Movie> searchByTitleSubstring(String text) {
         return executeWithResult(session -> {
             Query<Movie> query = session.createQuery(
-                    "FROM Movie WHERE LOWER(title) LIKE LOWER(:title)", Movie.class);
-            query.setParameter("title", "%" + title + "%");
+                    "FROM Movie WHERE LOWER(title) LIKE LOWER(:title) ORDER BY title, id", Movie.class);
+            query.setParameter("title", "%" + text + "%");
+            query.setMaxResults(searchLimit);
+            query.setCacheable(true);
+            query.setCacheRegion(CacheConfig.MOVIE_QUERY_REGION);
             return query.list();
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * Turns the text into a boolean-mode query that requires every indexed word, each as a prefix.
+     */
+    private String toBooleanQuery(String text) {
+        StringBuilder terms = new StringBuilder();
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (word.length() >= minTokenLength && !STOPWORDS.contains(word)) {
+                terms.append(terms.isEmpty() ? "" : " ").append('+').append(word).append('*');
+            }
+        }
+        return terms.toString();
+    }
+
+    /**
+     * Checks whether the error means the database has no usable full-text index. Other errors (a lock wait
+     * timeout, a dropped connection, a query MySQL rejects for this input) leave full-text search switched on.
+     */
+    private static boolean isFullTextUnsupported(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException
+                    && (sqlException.getErrorCode() == ER_FT_MATCHING_KEY_NOT_FOUND
+                    || sqlException.getErrorCode() == ER_TABLE_CANT_HANDLE_FT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,108 @@
+package org.cinema.repository.impl;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.cinema.config.HibernateConfig;
+import org.cinema.model.SeatHold;
+import org.cinema.repository.BaseRepository;
+import org.cinema.repository.SeatHoldRepository;
+import java.util.List;
+
+@Slf4j
+public class SeatHoldRepositoryImpl extends BaseRepository implements SeatHoldRepository {
+
+    @Getter
+    private static final SeatHoldRepositoryImpl instance = new SeatHoldRepositoryImpl();
+
+    /*
+     * MySQL applies the assignments left to right, so once user_id has been taken over
+     * the second IF sees the new owner and extends the expiry as well.
+     */
+    private static final String HOLD_SQL =
+            "INSERT INTO seat_hold (session_id, seat_number, user_id, expires_at) " +
+            "VALUES (:sessionId, :seatNumber, :userId, NOW() + INTERVAL :ttl SECOND) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "user_id = IF(expires_at < NOW() OR user_id = VALUES(user_id), VALUES(user_id), user_id), " +
+            "expires_at = IF(user_id = VALUES(user_id), VALUES(expires_at), expires_at)";
+
+    public SeatHoldRepositoryImpl() {
+        super(HibernateConfig.getSessionFactory());
+    }
+
+    /**
+     * Places or extends a hold. The upsert and the ownership check share one transaction; the check is needed
+     * because Connector/J reports found rather than changed rows, so the update count can't tell who won.
+     *
+     * @return true if the caller owns the hold afterwards, false if another user holds the seat
+     */
+    @Override
+    public boolean hold(int sessionId, int seatNumber, int userId, int ttlSeconds) {
+        Number owner = executeTransactionWithResult(session -> {
+            session.createNativeQuery(HOLD_SQL)
+                    .addSynchronizedQuerySpace("seat_hold")
+                    .setParameter("sessionId", sessionId)
+                    .setParameter("seatNumber", seatNumber)
+                    .setParameter("userId", userId)
+                    .setParameter("ttl", ttlSeconds)
+                    .executeUpdate();
+            return (Number) session.createNativeQuery(
+                            "SELECT user_id FROM seat_hold WHERE session_id = :sessionId AND seat_number = :seatNumber")
+                    .setParameter("sessionId", sessionId)
+                    .setParameter("seatNumber", seatNumber)
+                    .uniqueResult();
+        });
+        boolean owned = owner != null && owner.intValue() == userId;
+        log.debug("Hold of seat {} for session {} by user {}: {}.",
+                seatNumber, sessionId, userId, owned ? "granted" : "held by another user");
+        return owned;
+    }
+
+    @Override
+    public void release(int sessionId, List<Integer> seatNumbers, int userId) {
+        executeTransaction(session -> session.createNativeQuery(
+                        "DELETE FROM seat_hold WHERE session_id = :sessionId " +
+                        "AND seat_number IN (:seatNumbers) AND user_id = :userId")
+                .addSynchronizedQuerySpace("seat_hold")
+                .setParameter("sessionId", sessionId)
+                .setParameterList("seatNumbers", seatNumbers)
+                .setParameter("userId", userId)
+                .executeUpdate());
+        log.debug("Holds of seats {} for session {} released by user {}.", seatNumbers, sessionId, userId);
+    }
+
+    @Override
+    public List<SeatHold> findActiveBySession(int sessionId) {
+        return executeWithResult(session -> session.createQuery(
+                        "FROM SeatHold h WHERE h.sessionId = :sessionId AND h.expiresAt > CURRENT_TIMESTAMP",
+                        SeatHold.class)
+                .setParameter("sessionId", sessionId)
+                .list());
+    }
+
+    /**
+     * Counts the user's live holds in the session on the primary, leaving out the given seat so that renewing
+     * a hold doesn't count against the user.
+     */
+    @Override
+    public int countActiveByUser(int sessionId, int userId, int excludedSeatNumber) {
+        Number count = executeOnPrimary(session -> (Number) session.createNativeQuery(
+                        "SELECT COUNT(*) FROM seat_hold WHERE session_id = :sessionId AND user_id = :userId " +
+                        "AND seat_number <> :seatNumber AND expires_at > NOW()")
+                .setParameter("sessionId", sessionId)
+                .setParameter("userId", userId)
+                .setParameter("seatNumber", excludedSeatNumber)
+                .uniqueResult());
+        return count.intValue();
+    }
+
+    @Override
+    public int deleteExpired(int batchSize) {
+        int deleted = executeTransactionWithResult(session -> session.createNativeQuery(
+                        "DELETE FROM seat_hold WHERE expires_at < NOW() LIMIT :batchSize")
+                .addSynchronizedQuerySpace("seat_hold")
+                .setParameter("batchSize", batchSize)
+                .executeUpdate());
+        log.debug("{} expired seat hold(s) deleted.", deleted);
+        return deleted;
+    }
+}
@@ -2,14 +2,20 @@ package org.cinema.repository.impl;
 
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.cinema.config.CacheConfig;
 import org.cinema.config.HibernateConfig;
+import org.cinema.config.InvalidationBus;
+import org.cinema.dto.Page;
 import org.cinema.exception.NoDataFoundException;
 import org.cinema.model.FilmSession;
 import org.cinema.repository.BaseRepository;
 import org.cinema.repository.SessionRepository;
+import org.cinema.util.PageTokenUtil;
+import org.hibernate.Session;
 import org.hibernate.query.Query;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.*;
 import java.util.Optional;
 
@@ -19,14 +25,24 @@ public class SessionRepositoryImpl extends BaseRepository implements SessionRepo
     @Getter
     private static final SessionRepositoryImpl instance = new SessionRepositoryImpl();
 
+    /**
+     * Region of the events that tell the other nodes' schedule index and listings about a changed session.
+     * The key is the session ID, {@link #SCHEDULE_KEY_SEPARATOR} and the date the session is on now,
+     * which is empty if the session was deleted.
+     */
+    public static final String SCHEDULE_REGION = "film-session.schedule";
+    public static final String SCHEDULE_KEY_SEPARATOR = "@";
+
     public SessionRepositoryImpl() {
         super(HibernateConfig.getSessionFactory());
     }
 
     @Override
     public void save(FilmSession filmSession) {
-        executeTransaction(session ->
-                session.save(filmSession));
+        executeTransaction(session -> {
+            session.save(filmSession);
+            sessionsChanged(List.of(filmSession));
+        });
         log.info("Film session successfully added.");
     }
 
@@ -37,25 +53,102 @@ public class SessionRepositoryImpl extends BaseRepository implements SessionRepo
     }
 
     @Override
-    public Set<FilmSession> findAll() {
+    public List<FilmSession> findAll() {
         return executeWithResult(session -> {
             log.debug("Retrieving all film sessions...");
             List<FilmSession> filmSessions = session.createQuery(
-                "FROM FilmSession fs ORDER BY fs.date ASC, fs.startTime ASC", 
+                "FROM FilmSession fs ORDER BY fs.date ASC, fs.startTime ASC, fs.id ASC",
                 FilmSession.class
-            ).list();
+            )
+                .setCacheable(true)
+                .setCacheRegion(CacheConfig.FILM_SESSION_QUERY_REGION)
+                .list();
 
             log.info("{} film sessions successfully retrieved.", filmSessions.size());
-            return new HashSet<>(filmSessions);
+            return filmSessions;
+        });
+    }
+
+    /**
+     * Returns the page of film sessions that follows the page token, in the same order as {@link #findAll()}
+     * with the ID as a tie-breaker. The query seeks straight to the token's key on the (date, start_time) index.
+     */
+    @Override
+    public Page<FilmSession> findPage(String pageToken, int pageSize) {
+        String[] key = PageTokenUtil.decode(pageToken, 3);
+        LocalDate afterDate;
+        LocalTime afterStartTime;
+        int afterId;
+        try {
+            afterDate = key == null ? null : LocalDate.parse(key[0]);
+            afterStartTime = key == null ? null : LocalTime.parse(key[1]);
+            afterId = key == null ? 0 : Integer.parseInt(key[2]);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid page token.");
+        }
+
+        List<FilmSession> filmSessions = executeWithResult(session -> {
+            Query<FilmSession> query = session.createQuery("FROM FilmSession fs" + (key == null ? "" :
+                    " WHERE fs.date >= :date AND (fs.date > :date OR fs.startTime > :startTime " +
+                    "OR (fs.startTime = :startTime AND fs.id > :id))") +
+                    " ORDER BY fs.date ASC, fs.startTime ASC, fs.id ASC", FilmSession.class);
+            if (key != null) {
+                query.setParameter("date", afterDate);
+                query.setParameter("startTime", afterStartTime);
+                query.setParameter("id", afterId);
+            }
+            return query.setMaxResults(pageSize + 1)
+                    .setCacheable(true)
+                    .setCacheRegion(CacheConfig.FILM_SESSION_QUERY_REGION)
+                    .list();
         });
+
+        if (filmSessions.size() <= pageSize) {
+            return new Page<>(filmSessions, null);
+        }
+        List<FilmSession> items = filmSessions.subList(0, pageSize);
+        FilmSession last = items.get(pageSize - 1);
+        log.debug("Film session page of {} retrieved, more pages follow.", pageSize);
+        return new Page<>(items, PageTokenUtil.encode(last.getDate(), last.getStartTime(), last.getId()));
     }
 
+    /**
+     * Copies the film session's fields onto the stored one, provided it still has the version the edit started
+     * from, so a concurrent change is never overwritten with values its author hasn't seen.
+     */
     @Override
     public void update(FilmSession filmSession) {
-        executeTransaction(session -> {
-            session.merge(filmSession);
-            log.info("Film session with ID '{}' successfully updated.", filmSession.getId());
+        executeVersioned("Film session " + filmSession.getId(), session -> {
+            FilmSession stored = session.get(FilmSession.class, filmSession.getId());
+            if (stored == null) {
+                throw new NoDataFoundException("Film session with ID '" + filmSession.getId() + "' not found.");
+            }
+            checkVersion(FilmSession.class, stored.getId(), stored.getVersion(), filmSession.getVersion());
+            stored.setMovieTitle(filmSession.getMovieTitle());
+            stored.setPrice(filmSession.getPrice());
+            stored.setDate(filmSession.getDate());
+            stored.setStartTime(filmSession.getStartTime());
+            stored.setEndTime(filmSession.getEndTime());
+            stored.setCapacity(filmSession.getCapacity());
+            sessionsChanged(List.of(stored));
+            return null;
+        });
+        log.info("Film session with ID '{}' successfully updated.", filmSession.getId());
+    }
+
+    @Override
+    public FilmSession setWaitingRoom(int id, boolean waitingRoom) {
+        FilmSession filmSession = executeTransactionWithResult(session -> {
+            FilmSession stored = session.get(FilmSession.class, id);
+            if (stored == null) {
+                throw new NoDataFoundException("Film session with ID '" + id + "' not found.");
+            }
+            stored.setWaitingRoom(waitingRoom);
+            sessionsChanged(List.of(stored));
+            return stored;
         });
+        log.info("Waiting room of film session with ID '{}' switched {}.", id, waitingRoom ? "on" : "off");
+        return filmSession;
     }
 
     @Override
@@ -64,6 +157,7 @@ public class SessionRepositoryImpl extends BaseRepository implements SessionRepo
             FilmSession filmSession = session.get(FilmSession.class, id);
             if (filmSession != null) {
                 session.delete(filmSession);
+                sessionsRemoved(List.of(id));
                 log.info("Film session with ID '{}' successfully deleted.", id);
             } else {
                 throw new NoDataFoundException("Film session with ID '" + id + "' not found.");
@@ -71,32 +165,112 @@ public class SessionRepositoryImpl extends BaseRepository implements SessionRepo
         });
     }
 
+    @Override
+    public void saveAll(List<FilmSession> filmSessions) {
+        executeInBatches(filmSessions, Session::save, () -> sessionsChanged(filmSessions));
+        log.info("{} film sessions successfully added.", filmSessions.size());
+    }
+
+    @Override
+    public void updateAll(List<FilmSession> filmSessions) {
+        executeInBatches(filmSessions, Session::merge, () -> sessionsChanged(filmSessions));
+        log.info("{} film sessions successfully updated.", filmSessions.size());
+    }
+
+    @Override
+    public int deleteAllByIds(List<Integer> filmSessionIds) {
+        if (filmSessionIds.isEmpty()) {
+            return 0;
+        }
+        int deleted = executeTransactionWithResult(session -> {
+            int count = session.createQuery("DELETE FROM FilmSession fs WHERE fs.id IN (:ids)")
+                    .setParameterList("ids", filmSessionIds)
+                    .executeUpdate();
+            sessionsRemoved(filmSessionIds);
+            return count;
+        });
+        log.info("{} of {} film sessions successfully deleted.", deleted, filmSessionIds.size());
+        return deleted;
+    }
+
+    /**
+     * Checks for another session of the same movie on the same date whose time range overlaps the session's,
+     * including one that fully contains it or lies within it. The session itself is left out, so the check also
+     * works for updates.
+     */
     @Override
     public boolean checkIfSessionExists(FilmSession filmSession) {
-        return executeWithResult(session -> {
-            String hql = "FROM FilmSession fs WHERE fs.movieTitle = :title AND fs.date = :date " +
-                    "AND ((fs.startTime BETWEEN :start AND :end) OR (fs.endTime BETWEEN :start AND :end))";
+        return !findConflictingDates(filmSession, List.of(filmSession.getDate())).isEmpty();
+    }
 
-            Query<FilmSession> query = session.createQuery(hql, FilmSession.class);
+    /**
+     * Runs the overlap check of {@link #checkIfSessionExists} for the session's time range on each of the dates
+     * in one query.
+     *
+     * @return the dates that already have an overlapping session, in ascending order
+     */
+    @Override
+    public List<LocalDate> findConflictingDates(FilmSession filmSession, List<LocalDate> dates) {
+        if (dates.isEmpty()) {
+            return List.of();
+        }
+        return executeOnPrimary(session -> {
+            String hql = "SELECT DISTINCT fs.date FROM FilmSession fs WHERE fs.movieTitle = :title " +
+                    "AND fs.date IN (:dates) AND fs.startTime <= :end AND fs.endTime >= :start AND fs.id <> :id " +
+                    "ORDER BY fs.date";
+
+            Query<LocalDate> query = session.createQuery(hql, LocalDate.class);
             query.setParameter("title", filmSession.getMovieTitle());
-            query.setParameter("date", filmSession.getDate());
+            query.setParameterList("dates", dates);
             query.setParameter("start", filmSession.getStartTime());
             query.setParameter("end", filmSession.getEndTime());
+            query.setParameter("id", filmSession.getId());
 
-            return !query.list().isEmpty();
+            return query.list();
         });
     }
 
+    /**
+     * Reads the sessions from the given date on for the schedule index, straight from the primary,
+     * since the index gates writes.
+     */
+    @Override
+    public List<FilmSession> findScheduledFrom(LocalDate date) {
+        return executeOnPrimary(session -> session.createQuery(
+                        "FROM FilmSession fs WHERE fs.date >= :date ORDER BY fs.date ASC, fs.startTime ASC",
+                        FilmSession.class)
+                .setParameter("date", date)
+                .list());
+    }
+
     @Override
-    public Set<FilmSession> findByDate(LocalDate date) {
+    public List<FilmSession> findByDate(LocalDate date) {
         return executeWithResult(session -> {
-            String hql = "FROM FilmSession fs WHERE fs.date = :date";
+            String hql = "FROM FilmSession fs WHERE fs.date = :date ORDER BY fs.startTime ASC, fs.id ASC";
             Query<FilmSession> query = session.createQuery(hql, FilmSession.class);
             query.setParameter("date", date);
+            query.setCacheable(true);
+            query.setCacheRegion(CacheConfig.FILM_SESSION_QUERY_REGION);
 
             List<FilmSession> filmSessions = query.list();
             log.info("{} film sessions found for date: {}", filmSessions.size(), date);
-            return new HashSet<>(filmSessions);
+            return filmSessions;
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * Announces written sessions from inside the transaction that writes them, so the events are committed
+     * or rolled back together with the sessions.
+     */
+    private void sessionsChanged(List<FilmSession> filmSessions) {
+        evictQueryRegion(CacheConfig.FILM_SESSION_QUERY_REGION);
+        filmSessions.forEach(filmSession -> InvalidationBus.getInstance().publish(SCHEDULE_REGION,
+                filmSession.getId() + SCHEDULE_KEY_SEPARATOR + filmSession.getDate()));
+    }
+
+    private void sessionsRemoved(List<Integer> filmSessionIds) {
+        evictQueryRegion(CacheConfig.FILM_SESSION_QUERY_REGION);
+        filmSessionIds.forEach(id ->
+                InvalidationBus.getInstance().publish(SCHEDULE_REGION, id + SCHEDULE_KEY_SEPARATOR));
+    }
+}
@@ -3,16 +3,46 @@ package org.cinema.repository.impl;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.cinema.config.HibernateConfig;
+import org.cinema.dto.Page;
+import org.cinema.dto.SeatOrder;
+import org.cinema.dto.TicketBulkResult;
+import org.cinema.dto.TicketExportRow;
+import org.cinema.dto.TicketView;
+import org.cinema.dto.UserTicketView;
 import org.cinema.exception.NoDataFoundException;
+import org.cinema.exception.SeatTakenException;
+import org.cinema.model.Status;
 import org.cinema.model.Ticket;
+import org.cinema.model.TicketTransition;
 import org.cinema.repository.BaseRepository;
 import org.cinema.repository.TicketRepository;
+import org.cinema.util.PageTokenUtil;
+import org.cinema.util.PropertiesUtil;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
 import org.hibernate.query.Query;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.HashSet;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.Set;
+import java.util.TimeZone;
+import java.util.function.Consumer;
 
 @Slf4j
 public class TicketRepositoryImpl extends BaseRepository implements TicketRepository {
@@ -24,10 +54,32 @@ public class TicketRepositoryImpl extends BaseRepository implements TicketReposi
         super(HibernateConfig.getSessionFactory());
     }
 
+    private static final int PAGE_SESSION_CHUNK = 50;
+
+    private static final String SQL_STATE_INTEGRITY_VIOLATION = "23000";
+    private static final int ER_DUP_ENTRY = 1062;
+
+    private final int exportChunkSize = PropertiesUtil.getInt("ticket.export.chunk.size", 1000);
+
+    private static final String PURCHASE_SQL =
+            "INSERT INTO ticket (id, user_id, session_id, seat_number, purchase_time, status, request_type) " +
+            "SELECT ?, ?, fs.id, ?, ?, 'PENDING', 'PURCHASE' " +
+            "FROM film_session fs WHERE fs.id = ? AND fs.capacity >= ? " +
+            "AND NOT EXISTS (SELECT 1 FROM seat_hold h WHERE h.session_id = fs.id AND h.seat_number = ? " +
+            "AND h.user_id <> ? AND h.expires_at > NOW())";
+
+    private static final String HELD_BY_OTHER_SQL =
+            "SELECT COUNT(*) FROM seat_hold h WHERE h.session_id = ? AND h.seat_number = ? " +
+            "AND h.user_id <> ? AND h.expires_at > NOW()";
+
     @Override
     public void save(Ticket ticket) {
-        executeTransaction(session ->
-                session.save(ticket));
+        try {
+            executeTransaction(session ->
+                    session.save(ticket));
+        } catch (RuntimeException e) {
+            throw translateSeatConflict(e, ticket.getSeatNumber());
+        }
         log.info("Ticket successfully added.");
     }
 
@@ -37,26 +89,172 @@ public class TicketRepositoryImpl extends BaseRepository implements TicketReposi
                 session.get(Ticket.class, id)));
     }
 
+    /**
+     * Returns the page of tickets that follows the page token, ordered by film session (date, start time, ID)
+     * and seat number. A single query ordering by columns of both tables would sort every remaining ticket,
+     * so the film sessions are walked in chunks on their (date, start_time) index instead, and only the tickets
+     * of one chunk of sessions are sorted at a time. The cost of a page doesn't depend on how deep it is.
+     * Rows are read as flat {@link TicketView} projections instead of entities with their user and session.
+     */
     @Override
-    public Set<Ticket> findAll() {
-        return executeWithResult(session -> {
-            log.debug("Retrieving all tickets...");
-            List<Ticket> tickets = session.createQuery(
-                "FROM Ticket t JOIN FETCH t.filmSession fs " +
-                "ORDER BY fs.date ASC, fs.startTime ASC, t.seatNumber ASC", 
-                Ticket.class
-            ).list();
-            return new HashSet<>(tickets);
+    public Page<TicketView> findPage(String pageToken, int pageSize) {
+        String[] key = PageTokenUtil.decode(pageToken, 4);
+        SessionCursor start;
+        try {
+            start = key == null ? null : new SessionCursor(LocalDate.parse(key[0]), LocalTime.parse(key[1]),
+                    Integer.parseInt(key[2]), key[3]);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid page token.");
+        }
+
+        List<TicketView> tickets = executeWithResult(session -> {
+            List<TicketView> found = new ArrayList<>(pageSize + 1);
+            SessionCursor cursor = start;
+            while (found.size() <= pageSize) {
+                List<Object[]> chunk = nextSessions(session, cursor);
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                found.addAll(ticketsOfSessions(session, chunk, cursor, pageSize + 1 - found.size()));
+                Object[] lastSession = chunk.get(chunk.size() - 1);
+                cursor = new SessionCursor((LocalDate) lastSession[1], (LocalTime) lastSession[2],
+                        (Integer) lastSession[0], null);
+                if (chunk.size() < PAGE_SESSION_CHUNK) {
+                    break;
+                }
+            }
+            return found;
         });
+
+        if (tickets.size() <= pageSize) {
+            return new Page<>(tickets, null);
+        }
+        List<TicketView> items = tickets.subList(0, pageSize);
+        TicketView last = items.get(pageSize - 1);
+        log.debug("Ticket page of {} retrieved, more pages follow.", pageSize);
+        return new Page<>(items, PageTokenUtil.encode(last.getDate(), last.getStartTime(), last.getSessionId(),
+                last.getSeatNumber()));
     }
 
+    /**
+     * Copies the ticket's user, session, seat, status and request type onto the stored ticket; the purchase time
+     * is kept. The stored ticket has to still have the version the edit started from, so a concurrent change
+     * (e.g., a confirmation) is never overwritten with values its author hasn't seen.
+     */
     @Override
-    public void update(Ticket ticket, LocalDateTime purchaseTime) {
-        executeTransaction(session -> {
-            ticket.setPurchaseTime(purchaseTime);
-            session.merge(ticket);
-            log.info("Ticket with ID {} successfully updated.", ticket.getId());
+    public void update(Ticket ticket) {
+        try {
+            executeVersioned("Ticket " + ticket.getId(), session -> {
+                Ticket stored = session.get(Ticket.class, ticket.getId());
+                if (stored == null) {
+                    throw new NoDataFoundException("Ticket with ID " + ticket.getId() + " doesn't exist.");
+                }
+                checkVersion(Ticket.class, stored.getId(), stored.getVersion(), ticket.getVersion());
+                stored.setUser(ticket.getUser());
+                stored.setFilmSession(ticket.getFilmSession());
+                stored.setSeatNumber(ticket.getSeatNumber());
+                stored.setStatus(ticket.getStatus());
+                stored.setRequestType(ticket.getRequestType());
+                return null;
+            });
+        } catch (RuntimeException e) {
+            throw translateSeatConflict(e, ticket.getSeatNumber());
+        }
+        log.info("Ticket with ID {} successfully updated.", ticket.getId());
+    }
+
+    /**
+     * Applies the transition with a single conditional update, which only matches while the ticket is still in
+     * the transition's expected state, so concurrent changes of the same ticket can't overwrite each other.
+     *
+     * @return false if the ticket doesn't exist or isn't in the expected state (any longer)
+     */
+    @Override
+    public boolean transition(int ticketId, TicketTransition transition) {
+        int updated = executeTransactionWithResult(session -> applyTransition(session, transition,
+                "t.id = :id", query -> query.setParameter("id", ticketId)));
+        log.info("Ticket {} transition {} {}.", ticketId, transition, updated == 1 ? "applied" : "not applicable");
+        return updated == 1;
+    }
+
+    /**
+     * Applies the transition to every listed ticket that is in its expected state, in one update statement,
+     * and counts the listed tickets by status in the same transaction.
+     */
+    @Override
+    public TicketBulkResult transitionAll(List<Integer> ticketIds, TicketTransition transition) {
+        TicketBulkResult result = executeTransactionWithResult(session -> {
+            int updated = applyTransition(session, transition, "t.id IN (:ids)",
+                    query -> query.setParameterList("ids", ticketIds));
+            return new TicketBulkResult(updated, countByStatus(session, "t.id IN (:ids)",
+                    query -> query.setParameterList("ids", ticketIds)));
+        });
+        log.info("Transition {} applied to {} of {} selected tickets.", transition, result.getUpdated(),
+                ticketIds.size());
+        return result;
+    }
+
+    /**
+     * Applies the transition to every ticket of the film session that is in its expected state, in one update
+     * statement, and counts the session's tickets by status in the same transaction.
+     */
+    @Override
+    public TicketBulkResult transitionAllOfSession(int sessionId, TicketTransition transition) {
+        TicketBulkResult result = executeTransactionWithResult(session -> {
+            int updated = applyTransition(session, transition, "t.filmSession.id = :sessionId",
+                    query -> query.setParameter("sessionId", sessionId));
+            return new TicketBulkResult(updated, countByStatus(session, "t.filmSession.id = :sessionId",
+                    query -> query.setParameter("sessionId", sessionId)));
         });
+        log.info("Transition {} applied to {} tickets of session {}.", transition, result.getUpdated(), sessionId);
+        return result;
+    }
+
+    /**
+     * Applies the transition to every ticket purchased before the cutoff that is in its expected state,
+     * in one update statement. Only the tickets the transition changed are targeted, so they are all
+     * that is counted.
+     */
+    @Override
+    public TicketBulkResult transitionAllPurchasedBefore(LocalDateTime cutoff, TicketTransition transition) {
+        int updated = executeTransactionWithResult(session -> applyTransition(session, transition,
+                "t.purchaseTime < :cutoff", query -> query.setParameter("cutoff", cutoff)));
+        log.info("Transition {} applied to {} tickets purchased before {}.", transition, updated, cutoff);
+        Map<Status, Long> statusCounts = new EnumMap<>(Status.class);
+        if (updated > 0) {
+            statusCounts.put(transition.getNewStatus(), (long) updated);
+        }
+        return new TicketBulkResult(updated, statusCounts);
+    }
+
+    private static int applyTransition(Session session, TicketTransition transition, String scope,
+            Consumer<Query<?>> scopeParameters) {
+        Query<?> query = session.createQuery("UPDATE Ticket t SET t.status = :newStatus" +
+                (transition.getNewRequestType() != null ? ", t.requestType = :newRequestType" : "") +
+                ", t.version = t.version + 1 WHERE " + scope + " AND t.status IN (:expectedStatuses)" +
+                (transition.getExpectedRequestType() != null ? " AND t.requestType = :expectedRequestType" : ""));
+        query.setParameter("newStatus", transition.getNewStatus());
+        query.setParameterList("expectedStatuses", transition.getExpectedStatuses());
+        if (transition.getNewRequestType() != null) {
+            query.setParameter("newRequestType", transition.getNewRequestType());
+        }
+        if (transition.getExpectedRequestType() != null) {
+            query.setParameter("expectedRequestType", transition.getExpectedRequestType());
+        }
+        scopeParameters.accept(query);
+        return query.executeUpdate();
+    }
+
+    private static Map<Status, Long> countByStatus(Session session, String scope,
+            Consumer<Query<?>> scopeParameters) {
+        Query<Object[]> query = session.createQuery(
+                "SELECT t.status, COUNT(t) FROM Ticket t WHERE " + scope + " GROUP BY t.status", Object[].class);
+        scopeParameters.accept(query);
+        Map<Status, Long> statusCounts = new EnumMap<>(Status.class);
+        for (Object[] row : query.list()) {
+            statusCounts.put((Status) row[0], (Long) row[1]);
+        }
+        return statusCounts;
     }
 
     @Override
@@ -71,6 +269,39 @@ public class TicketRepositoryImpl extends BaseRepository implements TicketReposi
         });
     }
 
+    @Override
+    public void saveAll(List<Ticket> tickets) {
+        try {
+            executeInBatches(tickets, Session::save);
+        } catch (RuntimeException e) {
+            throw translateSeatConflict(e);
+        }
+        log.info("{} tickets successfully added.", tickets.size());
+    }
+
+    @Override
+    public void updateAll(List<Ticket> tickets) {
+        try {
+            executeInBatches(tickets, Session::merge);
+        } catch (RuntimeException e) {
+            throw translateSeatConflict(e);
+        }
+        log.info("{} tickets successfully updated.", tickets.size());
+    }
+
+    @Override
+    public int deleteAllByIds(List<Integer> ticketIds) {
+        if (ticketIds.isEmpty()) {
+            return 0;
+        }
+        int deleted = executeTransactionWithResult(session -> session.createQuery(
+                        "DELETE FROM Ticket t WHERE t.id IN (:ids)")
+                .setParameterList("ids", ticketIds)
+                .executeUpdate());
+        log.info("{} of {} tickets successfully deleted.", deleted, ticketIds.size());
+        return deleted;
+    }
+
     @Override
     public List<Ticket> getTicketsBySession(int sessionId) {
         return executeWithResult(session -> {
@@ -88,36 +319,256 @@ public class TicketRepositoryImpl extends BaseRepository implements TicketReposi
     }
 
     @Override
-    public boolean checkIfTicketExists(Ticket ticket) {
+    public List<UserTicketView> getTicketsByUserId(int userId) {
         return executeWithResult(session -> {
-            Query<Ticket> query = session.createQuery(
-                    "FROM Ticket t WHERE t.filmSession.id = :sessionId " +
-                            "AND t.seatNumber = :seatNumber", Ticket.class);
-            query.setParameter("sessionId", ticket.getFilmSession().getId());
-            query.setParameter("seatNumber", ticket.getSeatNumber());
-
-            boolean exists = !query.list().isEmpty();
-            log.debug("Check for existing ticket with session '{}', seat '{}': {}.",
-                    ticket.getFilmSession().getId(), ticket.getSeatNumber(),
-                    exists ? "found" : "not found");
-            return exists;
-        });
-    }
-
-    @Override
-    public List<Ticket> getTicketsByUserId(int userId) {
-        return executeWithResult(session -> {
-            Query<Ticket> query = session.createQuery(
-                "FROM Ticket t JOIN FETCH t.filmSession fs " +
+            Query<UserTicketView> query = session.createQuery(
+                "SELECT new org.cinema.dto.UserTicketView(t.id, fs.movieTitle, fs.date, fs.startTime, " +
+                "t.seatNumber, t.status, t.requestType) " +
+                "FROM Ticket t JOIN t.filmSession fs " +
                 "WHERE t.user.id = :userId " +
                 "ORDER BY fs.date ASC, fs.startTime ASC, t.seatNumber ASC", 
-                Ticket.class
+                UserTicketView.class
             );
             query.setParameter("userId", userId);
 
-            List<Ticket> tickets = query.list();
+            List<UserTicketView> tickets = query.list();
             log.info("Found {} tickets for user with ID {}", tickets.size(), userId);
             return tickets;
         });
     }
+
+    /**
+     * Streams the tickets matching the filters to the sink in ID order.
+     * The rows are read in keyset chunks of {@code ticket.export.chunk.size} ({@code t.id > last ID}), each in a
+     * stateless session of its own that gives its connection back before the chunk is handed to the sink, so
+     * neither memory use nor how long a pooled connection is held depends on how many tickets are exported
+     * or how fast the client downloads them.
+     *
+     * @param from   first purchase date to include, or {@code null} for no lower bound
+     * @param to     last purchase date to include, or {@code null} for no upper bound
+     * @param status ticket status to include, or {@code null} for all statuses
+     * @param sink   receives every row, one chunk at a time
+     * @return number of rows streamed
+     */
+    @Override
+    public long streamForExport(LocalDate from, LocalDate to, Status status, Consumer<TicketExportRow> sink) {
+        StringBuilder hql = new StringBuilder(
+                "SELECT new org.cinema.dto.TicketExportRow(t.id, u.username, fs.id, fs.movieTitle, fs.date, " +
+                "fs.startTime, t.seatNumber, fs.price, t.purchaseTime, t.status, t.requestType) " +
+                "FROM Ticket t JOIN t.filmSession fs JOIN t.user u WHERE t.id > :afterId");
+        if (from != null) {
+            hql.append(" AND t.purchaseTime >= :from");
+        }
+        if (to != null) {
+            hql.append(" AND t.purchaseTime < :to");
+        }
+        if (status != null) {
+            hql.append(" AND t.status = :status");
+        }
+        hql.append(" ORDER BY t.id ASC");
+
+        long rows = 0;
+        int afterId = 0;
+        List<TicketExportRow> chunk;
+        do {
+            int chunkAfterId = afterId;
+            chunk = executeStateless(session -> {
+                Query<TicketExportRow> query = session.createQuery(hql.toString(), TicketExportRow.class);
+                query.setParameter("afterId", chunkAfterId);
+                if (from != null) {
+                    query.setParameter("from", from.atStartOfDay());
+                }
+                if (to != null) {
+                    query.setParameter("to", to.plusDays(1).atStartOfDay());
+                }
+                if (status != null) {
+                    query.setParameter("status", status);
+                }
+                return query.setMaxResults(exportChunkSize)
+                        .setReadOnly(true)
+                        .list();
+            });
+            chunk.forEach(sink);
+            rows += chunk.size();
+            if (!chunk.isEmpty()) {
+                afterId = chunk.get(chunk.size() - 1).getId();
+            }
+        } while (chunk.size() == exportChunkSize);
+        log.info("{} tickets exported (purchased {}..{}, status {}).", rows, from, to, status);
+        return rows;
+    }
+
+    /**
+     * Purchases a group of orders for one session in a single transaction.
+     * Every order is inserted as one JDBC batch behind its own savepoint, so a lost seat rolls back only that
+     * order while the others are committed together. Each insert checks the session's capacity and other users'
+     * seat holds, and the unique (session_id, seat_number) constraint decides between concurrent buyers.
+     * The group is written on behalf of several requests, so it never joins the caller's unit of work.
+     *
+     * @return failures aligned with the orders: {@code null} if the order was purchased, otherwise
+     *         a {@link SeatTakenException} or {@link NoDataFoundException} explaining why it wasn't
+     */
+    @Override
+    public List<RuntimeException> purchaseAll(int sessionId, List<SeatOrder> orders) {
+        List<RuntimeException> failures = new ArrayList<>(Collections.nCopies(orders.size(), null));
+        executeInNewTransaction(session -> {
+            Iterator<Integer> ticketIds = nextTicketIds(session, orders).iterator();
+            session.doWork(connection -> {
+                for (int i = 0; i < orders.size(); i++) {
+                    SeatOrder order = orders.get(i);
+                    Savepoint savepoint = connection.setSavepoint();
+                    try {
+                        int[] inserted = insertTickets(connection, ticketIds, order.getUserId(), sessionId,
+                                order.getSeatNumbers());
+                        for (int j = 0; j < inserted.length; j++) {
+                            if (inserted[j] == 0) {
+                                throw unavailableSeat(connection, order.getUserId(), sessionId,
+                                        order.getSeatNumbers().get(j));
+                            }
+                        }
+                        connection.releaseSavepoint(savepoint);
+                    } catch (SeatTakenException | NoDataFoundException e) {
+                        connection.rollback(savepoint);
+                        failures.set(i, e);
+                    } catch (SQLException e) {
+                        connection.rollback(savepoint);
+                        if (!isSeatConflict(e)) {
+                            throw e;
+                        }
+                        log.warn("One of seats {} is already taken: {}", order.getSeatNumbers(), e.getMessage());
+                        failures.set(i, new SeatTakenException("One of the seats " + order.getSeatNumbers()
+                                + " is already taken. Choose another one."));
+                    }
+                }
+            });
+            return null;
+        });
+
+        long purchased = failures.stream().filter(Objects::isNull).count();
+        log.info("{} of {} order(s) purchased for session {} in one transaction.", purchased, orders.size(), sessionId);
+        return failures;
+    }
+
+    /**
+     * Film sessions from the cursor on: the cursor's own session is included while its tickets
+     * are only partly read (the cursor has a seat), otherwise the chunk starts right after it.
+     */
+    private static List<Object[]> nextSessions(Session session, SessionCursor cursor) {
+        Query<Object[]> query = session.createQuery("SELECT fs.id, fs.date, fs.startTime FROM FilmSession fs" +
+                (cursor == null ? "" : " WHERE fs.date >= :date AND (fs.date > :date OR fs.startTime > :startTime " +
+                        "OR (fs.startTime = :startTime AND fs.id " + (cursor.seatNumber() == null ? ">" : ">=") +
+                        " :id))") +
+                " ORDER BY fs.date ASC, fs.startTime ASC, fs.id ASC", Object[].class);
+        if (cursor != null) {
+            query.setParameter("date", cursor.date());
+            query.setParameter("startTime", cursor.startTime());
+            query.setParameter("id", cursor.sessionId());
+        }
+        return query.setMaxResults(PAGE_SESSION_CHUNK).list();
+    }
+
+    private static List<TicketView> ticketsOfSessions(Session session, List<Object[]> filmSessions,
+            SessionCursor cursor, int limit) {
+        boolean partlyRead = cursor != null && cursor.seatNumber() != null;
+        Query<TicketView> query = session.createQuery(
+                "SELECT new org.cinema.dto.TicketView(t.id, u.username, fs.id, fs.movieTitle, fs.date, " +
+                "fs.startTime, t.seatNumber, t.purchaseTime, t.status, t.requestType) " +
+                "FROM Ticket t JOIN t.filmSession fs JOIN t.user u " +
+                "WHERE fs.id IN (:sessionIds)" +
+                (partlyRead ? " AND (fs.id <> :cursorSessionId OR t.seatNumber > :cursorSeat)" : "") +
+                " ORDER BY fs.date ASC, fs.startTime ASC, fs.id ASC, t.seatNumber ASC", TicketView.class);
+        query.setParameterList("sessionIds", filmSessions.stream().map(row -> row[0]).toList());
+        if (partlyRead) {
+            query.setParameter("cursorSessionId", cursor.sessionId());
+            query.setParameter("cursorSeat", cursor.seatNumber());
+        }
+        return query.setMaxResults(limit).list();
+    }
+
+    /**
+     * Draws ticket IDs from the same pooled table generator Hibernate uses for {@link Ticket},
+     * so tickets inserted here never collide with tickets saved through the session.
+     */
+    private List<Integer> nextTicketIds(Session session, List<SeatOrder> orders) {
+        IdentifierGenerator generator = ((SessionFactoryImplementor) sessionFactory).getMetamodel()
+                .entityPersister(Ticket.class).getIdentifierGenerator();
+        int count = orders.stream().mapToInt(order -> order.getSeatNumbers().size()).sum();
+        List<Integer> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(((Number) generator.generate((SharedSessionContractImplementor) session, null)).intValue());
+        }
+        return ids;
+    }
+
+    private int[] insertTickets(Connection connection, Iterator<Integer> ticketIds, int userId, int sessionId,
+            List<Integer> seatNumbers) throws SQLException {
+        TimeZone jdbcTimeZone = sessionFactory.getSessionFactoryOptions().getJdbcTimeZone();
+        Calendar calendar = Calendar.getInstance(jdbcTimeZone != null ? jdbcTimeZone : TimeZone.getDefault());
+        Timestamp purchaseTime = Timestamp.valueOf(LocalDateTime.now());
+
+        try (PreparedStatement statement = connection.prepareStatement(PURCHASE_SQL)) {
+            for (int seat : seatNumbers) {
+                statement.setInt(1, ticketIds.next());
+                statement.setInt(2, userId);
+                statement.setString(3, String.valueOf(seat));
+                statement.setTimestamp(4, purchaseTime, calendar);
+                statement.setInt(5, sessionId);
+                statement.setInt(6, seat);
+                statement.setInt(7, seat);
+                statement.setInt(8, userId);
+                statement.addBatch();
+            }
+            return statement.executeBatch();
+        }
+    }
+
+    private RuntimeException unavailableSeat(Connection connection, int userId, int sessionId, int seat)
+            throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(HELD_BY_OTHER_SQL)) {
+            statement.setInt(1, sessionId);
+            statement.setInt(2, seat);
+            statement.setInt(3, userId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next() && resultSet.getInt(1) > 0) {
+                    return new SeatTakenException("Seat " + seat + " is held by another customer. Choose another one.");
+                }
+            }
+        }
+        return new NoDataFoundException("Session " + sessionId + " not found or seat " + seat
+                + " exceeds its capacity.");
+    }
+
+    /**
+     * Ticket IDs are generated, so the only unique key a purchase insert can violate is the seat constraint:
+     * a duplicate key reported by the driver is a taken seat, whatever the wording of its message.
+     */
+    private static boolean isSeatConflict(SQLException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException
+                    && SQL_STATE_INTEGRITY_VIOLATION.equals(sqlException.getSQLState())
+                    && sqlException.getErrorCode() == ER_DUP_ENTRY) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private RuntimeException translateSeatConflict(RuntimeException e) {
+        if (isConstraintViolation(e, Ticket.SEAT_CONSTRAINT)) {
+            log.warn("One of the seats is already taken: {}", e.getMessage());
+            return new SeatTakenException("One of the seats is already taken. Choose another one.");
+        }
+        return e;
+    }
+
+    private RuntimeException translateSeatConflict(RuntimeException e, String seatNumber) {
+        if (isConstraintViolation(e, Ticket.SEAT_CONSTRAINT)) {
+            log.warn("Seat {} is already taken: {}", seatNumber, e.getMessage());
+            return new SeatTakenException("Seat " + seatNumber + " is already taken. Choose another one.");
+        }
+        return e;
+    }
+
+    private record SessionCursor(LocalDate date, LocalTime startTime, int sessionId, String seatNumber) {
+    }
 }
@@ -3,15 +3,16 @@ package org.cinema.repository.impl;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.cinema.config.HibernateConfig;
+import org.cinema.dto.Page;
 import org.cinema.exception.NoDataFoundException;
 import org.cinema.model.User;
 import org.cinema.repository.BaseRepository;
 import org.cinema.repository.UserRepository;
+import org.cinema.util.PageTokenUtil;
 import org.hibernate.query.Query;
-import java.util.HashSet;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 
 @Slf4j
 public class UserRepositoryImpl extends BaseRepository implements UserRepository {
@@ -56,25 +57,72 @@ public class UserRepositoryImpl extends BaseRepository implements UserRepository
                 session.get(User.class, id)));
     }
 
+    /**
+     * Returns the page of users that follows the page token, in registration order with the ID as a tie-breaker.
+     * Users without a registration time come first, as they do in MySQL's ascending order.
+     */
     @Override
-    public Set<User> findAll() {
-        return executeWithResult(session -> {
-            log.debug("Retrieving all users...");
-            List<User> users = session.createQuery(
-                "FROM User u ORDER BY u.createdAt ASC", 
-                User.class
-            ).list();
-            log.info("{} users successfully retrieved.", users.size());
-            return new HashSet<>(users);
+    public Page<User> findPage(String pageToken, int pageSize) {
+        String[] key = PageTokenUtil.decode(pageToken, 2);
+        LocalDateTime afterCreatedAt;
+        int afterId;
+        try {
+            afterCreatedAt = key == null || key[0].isEmpty() ? null : LocalDateTime.parse(key[0]);
+            afterId = key == null ? 0 : Integer.parseInt(key[1]);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid page token.");
+        }
+
+        List<User> users = executeWithResult(session -> {
+            String condition = "";
+            if (key != null) {
+                condition = afterCreatedAt == null
+                        ? " WHERE u.createdAt IS NOT NULL OR u.id > :id"
+                        : " WHERE u.createdAt >= :createdAt AND (u.createdAt > :createdAt OR u.id > :id)";
+            }
+            Query<User> query = session.createQuery("FROM User u" + condition +
+                    " ORDER BY u.createdAt ASC, u.id ASC", User.class);
+            if (key != null) {
+                query.setParameter("id", afterId);
+                if (afterCreatedAt != null) {
+                    query.setParameter("createdAt", afterCreatedAt);
+                }
+            }
+            return query.setMaxResults(pageSize + 1).list();
         });
+
+        if (users.size() <= pageSize) {
+            return new Page<>(users, null);
+        }
+        List<User> items = users.subList(0, pageSize);
+        User last = items.get(pageSize - 1);
+        log.debug("User page of {} retrieved, more pages follow.", pageSize);
+        return new Page<>(items, PageTokenUtil.encode(last.getCreatedAt(), last.getId()));
     }
 
     @Override
     public Optional<User> getByUsername(String username) {
-        return executeWithResult(session -> {
+        return executeOnPrimary(session -> {
             Query<User> query = session.createQuery("FROM User WHERE username = :username", User.class);
             query.setParameter("username", username);
             return query.uniqueResultOptional();
         });
     }
+
+    /**
+     * Replaces the user's password hash, unless it has been changed since the expected hash was read.
+     *
+     * @return true if the hash was replaced
+     */
+    @Override
+    public boolean replacePassword(int userId, String expectedHash, String newHash) {
+        int updated = executeTransactionWithResult(session -> session.createQuery(
+                        "UPDATE User u SET u.password = :newHash WHERE u.id = :id AND u.password = :expectedHash")
+                .setParameter("newHash", newHash)
+                .setParameter("id", userId)
+                .setParameter("expectedHash", expectedHash)
+                .executeUpdate());
+        log.debug("Password hash of user with ID '{}' {}.", userId, updated > 0 ? "replaced" : "changed meanwhile");
+        return updated > 0;
+    }
 }
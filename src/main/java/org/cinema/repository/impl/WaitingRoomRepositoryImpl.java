@@ -0,0 +1,179 @@
+package org.cinema.repository.impl;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.cinema.config.HibernateConfig;
+import org.cinema.dto.WaitingRoomStatus;
+import org.cinema.repository.BaseRepository;
+import org.cinema.repository.WaitingRoomRepository;
+import org.hibernate.Session;
+
+import java.util.List;
+
+@Slf4j
+public class WaitingRoomRepositoryImpl extends BaseRepository implements WaitingRoomRepository {
+
+    @Getter
+    private static final WaitingRoomRepositoryImpl instance = new WaitingRoomRepositoryImpl();
+
+    /*
+     * A returning user keeps their place in line; an admission that has run out turns back into a waiting entry.
+     * claimed_at is assigned first, so it still sees the old admitted_until.
+     */
+    private static final String JOIN_SQL =
+            "INSERT INTO waiting_room (session_id, user_id, last_seen_at) VALUES (:sessionId, :userId, NOW()) " +
+            "ON DUPLICATE KEY UPDATE last_seen_at = NOW(), " +
+            "claimed_at = IF(admitted_until < NOW(), NULL, claimed_at), " +
+            "admitted_until = IF(admitted_until < NOW(), NULL, admitted_until)";
+
+    private static final String CLAIM_SQL =
+            "UPDATE waiting_room SET claimed_at = NOW(), last_seen_at = NOW(), " +
+            "admitted_until = NOW() + INTERVAL :admissionSeconds SECOND " +
+            "WHERE session_id = :sessionId AND user_id = :userId AND admitted_until > NOW() AND claimed_at IS NULL";
+
+    private static final String ACTIVE_SQL =
+            "SELECT COUNT(*) FROM waiting_room WHERE session_id = :sessionId AND admitted_until > NOW()";
+
+    private static final String ADMIT_NEXT_SQL =
+            "UPDATE waiting_room SET admitted_until = NOW() + INTERVAL :claimSeconds SECOND " +
+            "WHERE session_id = :sessionId AND admitted_until IS NULL ORDER BY id LIMIT :free";
+
+    private static final String ENTRY_SQL =
+            "SELECT id, COALESCE(admitted_until > NOW(), 0), COALESCE(admitted_until <= NOW(), 0), " +
+            "claimed_at IS NOT NULL FROM waiting_room WHERE session_id = :sessionId AND user_id = :userId";
+
+    private static final String AHEAD_SQL =
+            "SELECT COUNT(*) FROM waiting_room WHERE session_id = :sessionId AND admitted_until IS NULL AND id < :id";
+
+    public WaitingRoomRepositoryImpl() {
+        super(HibernateConfig.getSessionFactory());
+    }
+
+    /**
+     * Reads the user's state from the primary without writing anything, so polling the line stays cheap.
+     *
+     * @return the user's state; {@link WaitingRoomStatus#notQueued()} if the user has no entry
+     *         or their admission has run out
+     */
+    @Override
+    public WaitingRoomStatus findStatus(int sessionId, int userId) {
+        return executeOnPrimary(session -> {
+            Object[] entry = (Object[]) session.createNativeQuery(ENTRY_SQL)
+                    .setParameter("sessionId", sessionId)
+                    .setParameter("userId", userId)
+                    .uniqueResult();
+            if (entry == null || ((Number) entry[2]).intValue() == 1) {
+                return WaitingRoomStatus.notQueued();
+            }
+            if (((Number) entry[1]).intValue() == 1) {
+                return WaitingRoomStatus.admitted(((Number) entry[3]).intValue() == 1);
+            }
+            Number ahead = (Number) session.createNativeQuery(AHEAD_SQL)
+                    .setParameter("sessionId", sessionId)
+                    .setParameter("id", ((Number) entry[0]).intValue())
+                    .uniqueResult();
+            return WaitingRoomStatus.waiting(ahead.intValue() + 1);
+        });
+    }
+
+    @Override
+    public void join(int sessionId, int userId) {
+        executeTransaction(session -> session.createNativeQuery(JOIN_SQL)
+                .addSynchronizedQuerySpace("waiting_room")
+                .setParameter("sessionId", sessionId)
+                .setParameter("userId", userId)
+                .executeUpdate());
+        log.debug("User {} joined the waiting room of session {}.", userId, sessionId);
+    }
+
+    /**
+     * Turns an admission the user hasn't taken up yet into a full one of {@code admissionSeconds}.
+     *
+     * @return false if the user has no unclaimed admission
+     */
+    @Override
+    public boolean claim(int sessionId, int userId, int admissionSeconds) {
+        int claimed = executeTransactionWithResult(session -> session.createNativeQuery(CLAIM_SQL)
+                .addSynchronizedQuerySpace("waiting_room")
+                .setParameter("admissionSeconds", admissionSeconds)
+                .setParameter("sessionId", sessionId)
+                .setParameter("userId", userId)
+                .executeUpdate());
+        log.debug("Admission of user {} to session {} {}.", userId, sessionId, claimed == 1 ? "claimed" : "not claimable");
+        return claimed == 1;
+    }
+
+    /**
+     * Admits the head of the line while the session has free slots, for {@code claimSeconds}: users who left
+     * the waiting page don't take their admission up, so their slots free up again after that short time.
+     * The optimistic count keeps the common case (a full session) lock-free; only when a slot may be free is
+     * the film session row locked, which serializes admissions for that session across all nodes.
+     *
+     * @return the number of users admitted
+     */
+    @Override
+    public int admitNext(int sessionId, int activeLimit, int claimSeconds) {
+        long active = executeOnPrimary(session -> countActive(session, sessionId));
+        if (active >= activeLimit) {
+            return 0;
+        }
+        int admitted = executeInNewTransaction(session -> {
+            session.createNativeQuery("SELECT id FROM film_session WHERE id = :sessionId FOR UPDATE")
+                    .setParameter("sessionId", sessionId)
+                    .list();
+            long free = activeLimit - countActive(session, sessionId);
+            if (free <= 0) {
+                return 0;
+            }
+            return session.createNativeQuery(ADMIT_NEXT_SQL)
+                    .addSynchronizedQuerySpace("waiting_room")
+                    .setParameter("claimSeconds", claimSeconds)
+                    .setParameter("sessionId", sessionId)
+                    .setParameter("free", free)
+                    .executeUpdate();
+        });
+        log.debug("{} user(s) admitted to the purchase flow of session {}.", admitted, sessionId);
+        return admitted;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Integer> findSessionsWithWaitingUsers() {
+        return executeOnPrimary(session -> ((List<Number>) session.createNativeQuery(
+                        "SELECT DISTINCT session_id FROM waiting_room WHERE admitted_until IS NULL")
+                .list()).stream()
+                .map(Number::intValue)
+                .toList());
+    }
+
+    @Override
+    public void leave(int sessionId, int userId) {
+        executeTransaction(session -> session.createNativeQuery(
+                        "DELETE FROM waiting_room WHERE session_id = :sessionId AND user_id = :userId")
+                .addSynchronizedQuerySpace("waiting_room")
+                .setParameter("sessionId", sessionId)
+                .setParameter("userId", userId)
+                .executeUpdate());
+        log.debug("User {} left the waiting room of session {}.", userId, sessionId);
+    }
+
+    /**
+     * Deletes admissions that have run out, including those never claimed by users who left the line.
+     */
+    @Override
+    public int deleteInactive(int batchSize) {
+        int deleted = executeTransactionWithResult(session -> session.createNativeQuery(
+                        "DELETE FROM waiting_room WHERE admitted_until < NOW() LIMIT :batchSize")
+                .addSynchronizedQuerySpace("waiting_room")
+                .setParameter("batchSize", batchSize)
+                .executeUpdate());
+        log.debug("{} inactive waiting room entry(ies) deleted.", deleted);
+        return deleted;
+    }
+
+    private static long countActive(Session session, int sessionId) {
+        return ((Number) session.createNativeQuery(ACTIVE_SQL)
+                .setParameter("sessionId", sessionId)
+                .uniqueResult()).longValue();
+    }
+}
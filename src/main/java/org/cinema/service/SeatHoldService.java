@@ -0,0 +1,12 @@
+package org.cinema.service;
+
+import java.util.List;
+import java.util.Set;
+
+public interface SeatHoldService {
+    String holdSeat(String userId, String sessionId, String seatNumber);
+    String releaseSeat(String userId, String sessionId, String seatNumber);
+    Set<Integer> getSeatsHeldByOthers(int userId, int sessionId);
+    void releaseAfterPurchase(int userId, int sessionId, List<Integer> seatNumbers);
+    int sweepExpiredHolds();
+}
@@ -1,17 +1,23 @@
 package org.cinema.service;
 
 import org.cinema.dto.FilmSessionDTO;
+import org.cinema.dto.Page;
 import org.cinema.model.FilmSession;
+import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 
 public interface SessionService {
-    Set<FilmSessionDTO> findAll();
+    List<FilmSessionDTO> findAll();
+    Page<FilmSessionDTO> findPage(String pageToken);
     FilmSessionDTO getById(String id);
     String save(String movieTitle, String dateStr, String startTimeStr, String endTimeStr,
                 String capacityStr, String priceStr);
     String update(String id, String movieTitle, String dateStr, String startTimeStr, String endTimeStr,
-                  String capacityStr, String priceStr);
+                  String capacityStr, String priceStr, String versionStr);
+    String saveForDays(String movieTitle, String dateStr, String startTimeStr, String endTimeStr,
+                       String capacityStr, String priceStr, String repeatDaysStr);
     String delete(String id);
-    Set<FilmSessionDTO> findByDate(String date);
+    String setWaitingRoom(String id, String enabledStr);
+    String deleteAll(List<String> ids);
+    List<FilmSessionDTO> findByDate(String date);
 }
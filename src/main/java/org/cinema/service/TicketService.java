@@ -1,18 +1,32 @@
 package org.cinema.service;
 
+import org.cinema.dto.Page;
+import org.cinema.dto.TicketExportRow;
+import org.cinema.dto.TicketView;
+import org.cinema.dto.UserTicketView;
 import org.cinema.model.FilmSession;
 import org.cinema.model.Ticket;
+import java.util.List;
 import java.util.Optional;
-import java.util.Set;
+import java.util.function.Consumer;
 
 public interface TicketService {
     Optional<Ticket> getById(String ticketId);
     String delete(String id);
-    Set<Ticket> findAll();
+    String deleteAll(List<String> ids);
+    Page<TicketView> findPage(String pageToken);
     String save(String userId, String sessionId, String seatNumber, String statusStr, String requestTypeStr);
-    String update(String id, String userId, String sessionId, String seatNumber, String statusStr, String requestTypeStr);
-    FilmSession getSessionDetailsWithTickets(String sessionId);
+    String update(String id, String userId, String sessionId, String seatNumber, String statusStr, String requestTypeStr,
+                  String versionStr);
+    FilmSession getSessionDetailsWithTickets(String sessionId, String viewerId);
     String processTicketAction(String action, String ticketIdParam);
+    String processBulkAction(String action, List<String> ticketIds);
+    String confirmAllOfSession(String sessionId);
+    String cancelPendingOlderThan(String minutes);
     String purchaseTicket(String userId, String sessionId, String seatNumber);
-    Set<Ticket> findByUserId(String userId);
+    String purchaseTickets(String userId, String sessionId, List<String> seatNumbers);
+    List<UserTicketView> findByUserId(String userId);
+    long export(String from, String to, String status, Consumer<TicketExportRow> sink);
+    List<Integer> findBestAvailableSeats(FilmSession sessionWithTickets, String seatCount);
+    int getMaxSeatsTogether();
 }
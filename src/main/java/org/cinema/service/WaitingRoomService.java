@@ -0,0 +1,14 @@
+package org.cinema.service;
+
+import org.cinema.dto.WaitingRoomStatus;
+
+public interface WaitingRoomService {
+    boolean isEnabled();
+    boolean isEnabled(String sessionId);
+    int getPollIntervalSeconds();
+    WaitingRoomStatus enter(String userId, String sessionId);
+    WaitingRoomStatus getStatus(String userId, String sessionId);
+    void leave(String userId, String sessionId);
+    int admitWaitingUsers();
+    int sweepInactiveEntries();
+}
@@ -11,6 +11,7 @@ import org.cinema.util.OmdbApiUtil;
 import org.cinema.util.ValidationUtil;
 
 import java.util.List;
+import java.util.Optional;
 
 @Slf4j
 public class MovieServiceImpl implements MovieService {
@@ -23,45 +24,48 @@ public class MovieServiceImpl implements MovieService {
     @Override
     public List<Movie> searchMovies(String title) {
         ValidationUtil.validateTitle(title);
-        List<Movie> moviesFromDb = movieRepository.findByTitle(title);
+        List<Movie> moviesFromDb = movieRepository.search(title);
         if (!moviesFromDb.isEmpty()) {
             log.info("Found {} movie(s) with title '{}'", moviesFromDb.size(), title);
             return moviesFromDb;
         }
 
-        List<MovieAPI> apiMovies = OmdbApiUtil.searchMovies(title);
-        return apiMovies.stream()
-                .map(this::convertToMovie)
-                .peek(this::saveMovieToDatabase)
-                .toList();
+        return importMovies(title);
     }
 
+    /**
+     * Returns the stored movie with exactly this title, or imports it from OMDb if there is none.
+     * Used when film sessions are scheduled, so it looks the title up by its index instead of searching.
+     */
     @Override
     public Movie getMovie(String title) {
         ValidationUtil.validateTitle(title);
-        List<Movie> moviesFromDb = movieRepository.findByTitle(title);
-        if (!moviesFromDb.isEmpty()) {
-            log.info("Returning the first found movie with title '{}'", title);
-            return moviesFromDb.get(0);
+        Optional<Movie> movieFromDb = movieRepository.findByTitle(title.trim());
+        if (movieFromDb.isPresent()) {
+            log.info("Returning the stored movie with title '{}'", title);
+            return movieFromDb.get();
         }
 
-        List<MovieAPI> apiMovies = OmdbApiUtil.searchMovies(title);
-        List<Movie> movies = apiMovies.stream()
-                .map(this::convertToMovie)
-                .peek(this::saveMovieToDatabase)
-                .toList();
-
-        Movie movie = movies.get(0);
-        if (movie == null) {
+        List<Movie> movies = importMovies(title);
+        if (movies.isEmpty()) {
             throw new NoDataFoundException("No movie found with title: " + title);
         }
 
-        return movie;
+        return movies.stream()
+                .filter(movie -> movie.getTitle().equalsIgnoreCase(title.trim()))
+                .findFirst()
+                .orElse(movies.get(0));
     }
 
-    private void saveMovieToDatabase(Movie movie) {
-        movieRepository.save(movie);
-        log.info("Saved movie '{}' to database", movie.getTitle());
+    private List<Movie> importMovies(String title) {
+        List<Movie> movies = OmdbApiUtil.searchMovies(title).stream()
+                .map(this::convertToMovie)
+                .toList();
+        if (!movies.isEmpty()) {
+            movieRepository.saveAll(movies);
+            log.info("Imported {} movie(s) for title '{}' to database", movies.size(), title);
+        }
+        return movies;
     }
 
     private Movie convertToMovie(MovieAPI apiMovie) {
@@ -0,0 +1,90 @@
+package org.cinema.service.impl;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.cinema.repository.UnitOfWork;
+import org.cinema.util.PasswordUtil;
+import org.cinema.util.PropertiesUtil;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the bcrypt password checks of logins on a pool sized to the CPUs ({@code password.verify.threads})
+ * instead of on the request threads, with at most {@code password.verify.queue.size} checks waiting for a thread.
+ * During a login storm the hashing then can't occupy more than the CPUs it has, the request threads stay
+ * free for everything else, and a login that finds the queue full fails at once instead of piling up.
+ */
+@Slf4j
+public class PasswordVerifier {
+
+    @Getter
+    private static final PasswordVerifier instance = new PasswordVerifier();
+
+    /**
+     * Outcome of a check: whether the password matched and, if its hash was made with an outdated cost factor,
+     * a new hash of it made with the current one.
+     */
+    public record Verification(boolean matches, String upgradedHash) {
+    }
+
+    private final int timeoutMillis = PropertiesUtil.getInt("password.verify.timeout.millis", 5000);
+
+    private final ThreadPoolExecutor executor;
+
+    private PasswordVerifier() {
+        int threads = PropertiesUtil.getInt("password.verify.threads", Runtime.getRuntime().availableProcessors());
+        int queueSize = PropertiesUtil.getInt("password.verify.queue.size", threads * 16);
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "cinema-password-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        log.info("Password verifier started with {} threads and room for {} waiting checks.", threads, queueSize);
+    }
+
+    /**
+     * Checks the password against the stored hash, rehashing it when the hash's cost factor is outdated.
+     * The caller's unit of work is committed first, so a waiting login doesn't hold on to a pooled connection.
+     *
+     * @throws RejectedExecutionException if too many checks are waiting already, or this one waited too long
+     */
+    public Verification verify(String password, String storedHash) {
+        UnitOfWork.release();
+        Future<Verification> verification;
+        try {
+            verification = executor.submit(() -> {
+                if (!PasswordUtil.checkPassword(password, storedHash)) {
+                    return new Verification(false, null);
+                }
+                return new Verification(true,
+                        PasswordUtil.needsRehash(storedHash) ? PasswordUtil.hashPassword(password) : null);
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Password check rejected, {} checks are waiting already.", executor.getQueue().size());
+            throw e;
+        }
+        try {
+            return verification.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            verification.cancel(true);
+            log.warn("Password check timed out after {} ms with {} checks waiting.",
+                    timeoutMillis, executor.getQueue().size());
+            throw new RejectedExecutionException("Password check timed out.", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            verification.cancel(true);
+            throw new RejectedExecutionException("Password check interrupted.", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new RuntimeException(e.getCause());
+        }
+    }
+}
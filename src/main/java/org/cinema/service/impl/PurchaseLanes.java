@@ -0,0 +1,205 @@
+package org.cinema.service.impl;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.cinema.dto.SeatOrder;
+import org.cinema.exception.SeatTakenException;
+import org.cinema.repository.UnitOfWork;
+import org.cinema.repository.impl.TicketRepositoryImpl;
+import org.cinema.util.PropertiesUtil;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+
+/**
+ * Single-writer purchase lanes, one per film session.
+ * Concurrent purchases for the same session are queued on its lane, and whichever caller wins the lane's
+ * writer flag drains up to {@code ticket.purchase.lane.group.size} queued orders into one database transaction
+ * on behalf of everybody waiting. Each caller still gets its own outcome: orders are isolated by savepoints,
+ * and seats already claimed earlier in the same group are rejected before reaching the database.
+ * Callers block on their order's outcome. A writer stops after a few groups, so its own request isn't held up
+ * by a steady stream of orders, and hands the lane to the longest-waiting caller; a lane left empty is removed.
+ * Lanes of different sessions share nothing, so unrelated sessions are purchased in parallel.
+ */
+@Slf4j
+public class PurchaseLanes {
+
+    @Getter
+    private static final PurchaseLanes instance = new PurchaseLanes();
+
+    private static final int MAX_GROUPS_PER_TURN = 4;
+
+    private final BiFunction<Integer, List<SeatOrder>, List<RuntimeException>> groupWriter;
+    private final int groupSize;
+    private final int timeoutMillis;
+
+    private final ConcurrentHashMap<Integer, Lane> lanes = new ConcurrentHashMap<>();
+
+    private PurchaseLanes() {
+        this((sessionId, orders) -> TicketRepositoryImpl.getInstance().purchaseAll(sessionId, orders),
+                PropertiesUtil.getInt("ticket.purchase.lane.group.size", 32),
+                PropertiesUtil.getInt("ticket.purchase.lane.timeout.millis", 10000));
+    }
+
+    /**
+     * @param groupWriter writes a group of orders for a session and returns each order's failure, or null,
+     *                    like {@link org.cinema.repository.TicketRepository#purchaseAll(int, List)}
+     */
+    PurchaseLanes(BiFunction<Integer, List<SeatOrder>, List<RuntimeException>> groupWriter, int groupSize,
+                  int timeoutMillis) {
+        this.groupWriter = groupWriter;
+        this.groupSize = groupSize;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Queues the order on its session's lane and waits until it is purchased or rejected.
+     * The caller's unit of work is committed first, so a waiting request doesn't hold on to a pooled connection.
+     *
+     * @throws SeatTakenException if one of the seats was taken or held by someone else
+     * @throws org.cinema.exception.NoDataFoundException if the session doesn't exist or a seat exceeds its capacity
+     * @throws IllegalStateException if the order wasn't processed within the lane timeout
+     */
+    public void purchase(int sessionId, SeatOrder order) {
+        UnitOfWork.release();
+        PendingOrder pending = new PendingOrder(order);
+        // Queued inside compute, so a lane is never removed while an order is being added to it.
+        Lane lane = lanes.compute(sessionId, (id, existing) -> {
+            Lane joined = existing != null ? existing : new Lane();
+            joined.queue.add(pending);
+            return joined;
+        });
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (!pending.result.isDone()) {
+            pending.turn = new CompletableFuture<>();
+            write(sessionId, lane);
+            try {
+                CompletableFuture.anyOf(pending.result, pending.turn)
+                        .get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException e) {
+                // The order failed, reported below.
+            } catch (TimeoutException e) {
+                if (lane.queue.remove(pending)) {
+                    write(sessionId, lane);
+                    throw new IllegalStateException("Purchase for session " + sessionId
+                            + " timed out. Please try again.");
+                }
+                // The order is being written right now, so its outcome is on the way.
+                deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Purchase for session " + sessionId + " was interrupted.", e);
+            }
+        }
+        try {
+            pending.result.join();
+        } catch (CompletionException e) {
+            throw (RuntimeException) e.getCause();
+        }
+    }
+
+    /**
+     * @return number of orders queued on the session's lane, or -1 if the session has no lane
+     */
+    int queuedOrders(int sessionId) {
+        Lane lane = lanes.get(sessionId);
+        return lane == null ? -1 : lane.queue.size();
+    }
+
+    /**
+     * Writes the lane's queued orders unless another caller is already writing them, then hands the lane
+     * to the caller at the head of the queue, or removes it if nothing is queued. The writer flag is released
+     * before the queue is looked at, so an order queued meanwhile is always either seen here or written
+     * by the caller who queued it.
+     */
+    private void write(int sessionId, Lane lane) {
+        if (!lane.writer.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            drain(sessionId, lane);
+        } finally {
+            lane.writer.set(false);
+        }
+        PendingOrder next = lane.queue.peek();
+        if (next != null) {
+            next.turn.complete(null);
+        } else {
+            lanes.computeIfPresent(sessionId, (id, existing) ->
+                    existing == lane && lane.queue.isEmpty() && !lane.writer.get() ? null : existing);
+        }
+    }
+
+    private void drain(int sessionId, Lane lane) {
+        for (int turn = 0; turn < MAX_GROUPS_PER_TURN && !lane.queue.isEmpty(); turn++) {
+            List<PendingOrder> group = new ArrayList<>(groupSize);
+            for (PendingOrder next; group.size() < groupSize && (next = lane.queue.poll()) != null; ) {
+                group.add(next);
+            }
+            writeGroup(sessionId, group);
+        }
+    }
+
+    private void writeGroup(int sessionId, List<PendingOrder> group) {
+        List<PendingOrder> accepted = new ArrayList<>(group.size());
+        Set<Integer> claimed = new HashSet<>();
+        for (PendingOrder pending : group) {
+            List<Integer> seats = pending.order.getSeatNumbers();
+            if (seats.stream().anyMatch(claimed::contains)) {
+                pending.result.completeExceptionally(new SeatTakenException("One of the seats " + seats
+                        + " is already taken. Choose another one."));
+            } else {
+                claimed.addAll(seats);
+                accepted.add(pending);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<RuntimeException> failures = groupWriter.apply(sessionId,
+                    accepted.stream().map(pending -> pending.order).toList());
+            for (int i = 0; i < accepted.size(); i++) {
+                if (failures.get(i) == null) {
+                    accepted.get(i).result.complete(null);
+                } else {
+                    accepted.get(i).result.completeExceptionally(failures.get(i));
+                }
+            }
+            log.debug("Purchase lane of session {} wrote a group of {} order(s).", sessionId, accepted.size());
+        } catch (RuntimeException e) {
+            log.error("Purchase group of {} order(s) for session {} failed: {}", accepted.size(), sessionId,
+                    e.getMessage(), e);
+            accepted.forEach(pending -> pending.result.completeExceptionally(e));
+        }
+    }
+
+    private static class Lane {
+        private final Queue<PendingOrder> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean writer = new AtomicBoolean();
+    }
+
+    private static class PendingOrder {
+        private final SeatOrder order;
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+        private volatile CompletableFuture<Void> turn = new CompletableFuture<>();
+
+        private PendingOrder(SeatOrder order) {
+            this.order = order;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package org.cinema.service.impl;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.cinema.model.FilmSession;
+import org.cinema.repository.impl.SessionRepositoryImpl;
+import org.cinema.util.IntervalTree;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory schedule of the film sessions from today on, with one {@link IntervalTree} per date,
+ * so overlapping sessions are found in O(log n + k) without a database round trip.
+ * Two sessions overlap when their closed time ranges share a minute and they show the same movie; once sessions
+ * get a hall, the hall joins the date in the key of the trees.
+ * The index is loaded on first use, reloaded after another node changed a session and periodically by the
+ * scheduler; it is only a fast pre-check, and the database query made before every write stays the final guard.
+ */
+@Slf4j
+public class ScheduleIndex {
+
+    @Getter
+    private static final ScheduleIndex instance = new ScheduleIndex();
+
+    public record Entry(int id, String movieTitle, LocalDate date, LocalTime startTime, LocalTime endTime) {
+    }
+
+    private final SessionRepositoryImpl sessionRepository = SessionRepositoryImpl.getInstance();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<LocalDate, IntervalTree<LocalTime, Entry>> trees = new HashMap<>();
+    private Map<Integer, Entry> entries = new HashMap<>();
+    private volatile boolean loaded;
+    private final AtomicLong staleMarks = new AtomicLong();
+
+    /**
+     * @return the indexed sessions of the same movie on the date whose time range overlaps the given one,
+     *         in order of their start, leaving out the session with the excluded ID
+     */
+    public List<Entry> findConflicts(String movieTitle, LocalDate date, LocalTime startTime, LocalTime endTime,
+                                     int excludedId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            IntervalTree<LocalTime, Entry> tree = trees.get(date);
+            if (tree == null) {
+                return List.of();
+            }
+            return tree.findOverlapping(startTime, endTime).stream()
+                    .filter(entry -> entry.id() != excludedId && entry.movieTitle().equals(movieTitle))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the saved sessions to the index, replacing their previous version if they were indexed already.
+     * Like {@link #remove(Collection)}, it counts as a stale mark for a reload running meanwhile, whose result
+     * may predate the change and is therefore loaded again on the next use.
+     */
+    public void put(Collection<FilmSession> filmSessions) {
+        staleMarks.incrementAndGet();
+        if (!loaded) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        lock.writeLock().lock();
+        try {
+            for (FilmSession filmSession : filmSessions) {
+                removeEntry(filmSession.getId());
+                if (!filmSession.getDate().isBefore(today)
+                        && !filmSession.getStartTime().isAfter(filmSession.getEndTime())) {
+                    addEntry(toEntry(filmSession));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Collection<Integer> filmSessionIds) {
+        staleMarks.incrementAndGet();
+        if (!loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            filmSessionIds.forEach(this::removeEntry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Has the index reloaded on its next use, e.g. after another node changed a session.
+     */
+    public void markStale() {
+        staleMarks.incrementAndGet();
+        loaded = false;
+    }
+
+    /**
+     * Rebuilds the index from the sessions stored from today on; dates that have passed drop out on the way.
+     * If the index is marked stale or changed meanwhile, the result is kept but loaded again on the next use.
+     */
+    public void reload() {
+        long marksBefore = staleMarks.get();
+        List<FilmSession> filmSessions = sessionRepository.findScheduledFrom(LocalDate.now());
+        Map<LocalDate, IntervalTree<LocalTime, Entry>> newTrees = new HashMap<>();
+        Map<Integer, Entry> newEntries = new HashMap<>();
+        for (FilmSession filmSession : filmSessions) {
+            if (filmSession.getStartTime().isAfter(filmSession.getEndTime())) {
+                log.warn("Film session with ID '{}' ends before it starts, leaving it out of the schedule index.",
+                        filmSession.getId());
+                continue;
+            }
+            Entry entry = toEntry(filmSession);
+            newTrees.computeIfAbsent(entry.date(), date -> new IntervalTree<>())
+                    .insert(entry.startTime(), entry.endTime(), entry.id(), entry);
+            newEntries.put(entry.id(), entry);
+        }
+
+        lock.writeLock().lock();
+        try {
+            trees = newTrees;
+            entries = newEntries;
+            loaded = staleMarks.get() == marksBefore;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Schedule index loaded: {} film sessions on {} dates.", newEntries.size(), newTrees.size());
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (!loaded) {
+                reload();
+            }
+        }
+    }
+
+    private void addEntry(Entry entry) {
+        trees.computeIfAbsent(entry.date(), date -> new IntervalTree<>())
+                .insert(entry.startTime(), entry.endTime(), entry.id(), entry);
+        entries.put(entry.id(), entry);
+    }
+
+    private void removeEntry(int id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        IntervalTree<LocalTime, Entry> tree = trees.get(entry.date());
+        if (tree != null && tree.remove(entry.startTime(), id) && tree.isEmpty()) {
+            trees.remove(entry.date());
+        }
+    }
+
+    private static Entry toEntry(FilmSession filmSession) {
+        return new Entry(filmSession.getId(), filmSession.getMovieTitle(), filmSession.getDate(),
+                filmSession.getStartTime(), filmSession.getEndTime());
+    }
+}
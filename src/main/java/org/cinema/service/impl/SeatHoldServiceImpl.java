@@ -0,0 +1,109 @@
+package org.cinema.service.impl;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.cinema.exception.NoDataFoundException;
+import org.cinema.exception.SeatTakenException;
+import org.cinema.model.FilmSession;
+import org.cinema.model.SeatHold;
+import org.cinema.repository.impl.SeatHoldRepositoryImpl;
+import org.cinema.repository.impl.SessionRepositoryImpl;
+import org.cinema.service.SeatHoldService;
+import org.cinema.util.PropertiesUtil;
+import org.cinema.util.ValidationUtil;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Short-lived seat holds placed while a user completes checkout.
+ * The {@code seat_hold} table is the only record of the holds: a hold is placed with an upsert that takes over
+ * only expired or own rows, and the purchase insert refuses seats held by others. Expiry is always judged by
+ * the database clock ({@code NOW()}), so every node sees the same holds and no node keeps state that could go stale.
+ */
+@Slf4j
+public class SeatHoldServiceImpl implements SeatHoldService {
+
+    @Getter
+    private static final SeatHoldServiceImpl instance = new SeatHoldServiceImpl();
+
+    private static final int MAX_SWEEP_BATCHES = 20;
+
+    private final SeatHoldRepositoryImpl seatHoldRepository = SeatHoldRepositoryImpl.getInstance();
+    private final SessionRepositoryImpl sessionRepository = SessionRepositoryImpl.getInstance();
+
+    private final int ttlSeconds = PropertiesUtil.getInt("seat.hold.ttl.seconds", 300);
+    private final int sweepBatchSize = PropertiesUtil.getInt("seat.hold.sweep.batch.size", 500);
+    private final int maxSeatsPerPurchase = PropertiesUtil.getInt("ticket.purchase.max.seats", 8);
+
+    /**
+     * Holds the seat for the user, at most {@code ticket.purchase.max.seats} seats per user and session,
+     * since holding more than one purchase can buy would only keep the seats from other customers.
+     *
+     * @throws IllegalArgumentException if the user already holds as many seats of the session as they can buy
+     */
+    @Override
+    public String holdSeat(String userId, String sessionId, String seatNumber) {
+        int parsedUserId = ValidationUtil.parseId(userId);
+        int parsedSessionId = ValidationUtil.parseId(sessionId);
+        int seat = ValidationUtil.parseSeatNumber(seatNumber);
+        FilmSession filmSession = sessionRepository.getById(parsedSessionId)
+                .orElseThrow(() -> new NoDataFoundException("Session not found with ID: " + parsedSessionId));
+        ValidationUtil.validateSeatNumber(String.valueOf(seat), filmSession.getCapacity());
+        if (seatHoldRepository.countActiveByUser(parsedSessionId, parsedUserId, seat) >= maxSeatsPerPurchase) {
+            log.warn("User {} already holds {} seats of session {}.", parsedUserId, maxSeatsPerPurchase, parsedSessionId);
+            throw new IllegalArgumentException("You can hold at most " + maxSeatsPerPurchase
+                    + " seats at once. Release one or complete your purchase first.");
+        }
+
+        if (!seatHoldRepository.hold(parsedSessionId, seat, parsedUserId, ttlSeconds)) {
+            throw new SeatTakenException("Seat " + seat + " is held by another customer. Choose another one.");
+        }
+
+        log.info("Seat {} of session {} held by user {} for {} seconds.", seat, parsedSessionId, parsedUserId, ttlSeconds);
+        return "Success! Seat " + seat + " is held for you for " + ttlSeconds / 60 + " minutes.";
+    }
+
+    @Override
+    public String releaseSeat(String userId, String sessionId, String seatNumber) {
+        releaseAfterPurchase(ValidationUtil.parseId(userId), ValidationUtil.parseId(sessionId),
+                List.of(ValidationUtil.parseSeatNumber(seatNumber)));
+        return "Success! Seat " + seatNumber + " released.";
+    }
+
+    @Override
+    public Set<Integer> getSeatsHeldByOthers(int userId, int sessionId) {
+        return seatHoldRepository.findActiveBySession(sessionId).stream()
+                .filter(hold -> hold.getUserId() != userId)
+                .map(SeatHold::getSeatNumber)
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    public void releaseAfterPurchase(int userId, int sessionId, List<Integer> seatNumbers) {
+        seatHoldRepository.release(sessionId, seatNumbers, userId);
+    }
+
+    /**
+     * Reclaims expired holds, deleting the expired rows in bounded batches.
+     *
+     * @return the number of database rows deleted
+     */
+    @Override
+    public int sweepExpiredHolds() {
+        int deleted = 0;
+        for (int batch = 0; batch < MAX_SWEEP_BATCHES; batch++) {
+            int rows = seatHoldRepository.deleteExpired(sweepBatchSize);
+            deleted += rows;
+            if (rows < sweepBatchSize) {
+                break;
+            }
+        }
+
+        if (deleted > 0) {
+            log.info("Seat hold sweep: {} expired row(s) deleted.", deleted);
+        }
+        return deleted;
+    }
+}
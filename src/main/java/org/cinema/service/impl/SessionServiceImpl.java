@@ -2,23 +2,41 @@ package org.cinema.service.impl;
 
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.cinema.config.InvalidationBus;
+import org.cinema.config.ReplicaRouter;
 import org.cinema.dto.FilmSessionDTO;
+import org.cinema.dto.Page;
 import org.cinema.exception.EntityAlreadyExistException;
 import org.cinema.exception.NoDataFoundException;
 import org.cinema.mapper.FilmSessionMapper;
 import org.cinema.model.FilmSession;
 import org.cinema.model.Movie;
+import org.cinema.repository.UnitOfWork;
 import org.cinema.repository.impl.SessionRepositoryImpl;
 import org.cinema.service.SessionService;
+import org.cinema.util.PropertiesUtil;
 import org.cinema.util.ValidationUtil;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
-import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+/**
+ * Film session operations. The session listings shown to users are cached per date as immutable lists in
+ * listing order; a missing listing is loaded by the first request that needs it while concurrent requests wait
+ * for that load instead of running their own, and every write drops the listings of the dates it touches.
+ * Writes are announced to the other nodes through {@link InvalidationBus}, and listings are only served from
+ * memory while the bus is fresh.
+ */
 @Slf4j
 public class SessionServiceImpl implements SessionService {
 
@@ -27,9 +45,24 @@ public class SessionServiceImpl implements SessionService {
 
     private final SessionRepositoryImpl sessionRepository = SessionRepositoryImpl.getInstance();
     private final MovieServiceImpl movieService = MovieServiceImpl.getInstance();
+    private final ScheduleIndex scheduleIndex = ScheduleIndex.getInstance();
 
     private final FilmSessionMapper filmSessionMapper = FilmSessionMapper.INSTANCE;
 
+    private static final int MAX_REPEAT_DAYS = 31;
+
+    private static final LocalDate ALL_DATES = LocalDate.MIN;
+
+    private final int pageSize = PropertiesUtil.getInt("admin.page.size", 50);
+    private final int listingCacheDates = PropertiesUtil.getInt("session.listing.cache.max.dates", 64);
+
+    private final ConcurrentHashMap<LocalDate, CompletableFuture<List<FilmSessionDTO>>> listings =
+            new ConcurrentHashMap<>();
+
+    private SessionServiceImpl() {
+        InvalidationBus.getInstance().subscribe(SessionRepositoryImpl.SCHEDULE_REGION, this::applyRemoteChange);
+    }
+
     @Override
     public String save(String movieTitle, String dateStr, String startTimeStr, String endTimeStr,
                        String capacityStr, String priceStr) {
@@ -38,25 +71,59 @@ public class SessionServiceImpl implements SessionService {
         FilmSessionDTO dto = FilmSessionDTO.fromStrings(movie.getTitle(), dateStr, startTimeStr,
                 endTimeStr, capacityStr, priceStr);
         FilmSession filmSession = filmSessionMapper.toEntity(dto);
-
-        if (sessionRepository.checkIfSessionExists(filmSession)) {
-            throw new EntityAlreadyExistException("Film session already exists on this film and time. Try again.");
-        }
+        checkNoConflict(filmSession);
 
         sessionRepository.save(filmSession);
+        sessionsSaved(List.of(filmSession));
+        return "Film session successfully added.";
+    }
+
+    /**
+     * Schedules the same session on several consecutive days, starting from the given date,
+     * and inserts all of them in one batched transaction.
+     * Every day is checked against the schedule index first, and the database confirms all days in one query.
+     */
+    @Override
+    public String saveForDays(String movieTitle, String dateStr, String startTimeStr, String endTimeStr,
+                              String capacityStr, String priceStr, String repeatDaysStr) {
+        int days = ValidationUtil.parseRepeatDays(repeatDaysStr, MAX_REPEAT_DAYS);
+        Movie movie = movieService.getMovie(movieTitle);
+        FilmSessionDTO dto = FilmSessionDTO.fromStrings(movie.getTitle(), dateStr, startTimeStr,
+                endTimeStr, capacityStr, priceStr);
 
-        if (!sessionRepository.checkIfSessionExists(filmSession)) {
-            throw new EntityAlreadyExistException("Film session not found in database after saving. Try again.");
+        List<FilmSession> filmSessions = new ArrayList<>(days);
+        List<LocalDate> conflictingDates = new ArrayList<>();
+        for (int day = 0; day < days; day++) {
+            FilmSession filmSession = filmSessionMapper.toEntity(dto);
+            filmSession.setDate(dto.getDate().plusDays(day));
+            if (!findConflicts(filmSession).isEmpty()) {
+                conflictingDates.add(filmSession.getDate());
+            }
+            filmSessions.add(filmSession);
         }
-        return "Film session successfully added.";
+        if (conflictingDates.isEmpty()) {
+            conflictingDates = sessionRepository.findConflictingDates(filmSessions.get(0),
+                    filmSessions.stream().map(FilmSession::getDate).toList());
+        }
+        if (!conflictingDates.isEmpty()) {
+            throw new EntityAlreadyExistException("Film session already exists on " + conflictingDates.stream()
+                    .map(LocalDate::toString).collect(Collectors.joining(", ")) + " for this film and time. Try again.");
+        }
+
+        sessionRepository.saveAll(filmSessions);
+        sessionsSaved(filmSessions);
+        return days + " film sessions successfully added.";
     }
 
     @Override
-    public Set<FilmSessionDTO> findAll() {
-        Set<FilmSession> sessions = sessionRepository.findAll();
-        return sessions.stream()
-                .map(filmSessionMapper::toDTO)
-                .collect(Collectors.toSet());
+    public List<FilmSessionDTO> findAll() {
+        return getListing(ALL_DATES, sessionRepository::findAll);
+    }
+
+    @Override
+    public Page<FilmSessionDTO> findPage(String pageToken) {
+        Page<FilmSession> page = sessionRepository.findPage(pageToken, pageSize);
+        return new Page<>(page.getItems().stream().map(filmSessionMapper::toDTO).toList(), page.getNextPageToken());
     }
 
     @Override
@@ -70,34 +137,173 @@ public class SessionServiceImpl implements SessionService {
 
     @Override
     public String update(String id, String movieTitle, String dateStr, String startTimeStr,
-                         String endTimeStr, String capacityStr, String priceStr) {
+                         String endTimeStr, String capacityStr, String priceStr, String versionStr) {
 
         Movie movie = movieService.getMovie(movieTitle);
         FilmSessionDTO dto = FilmSessionDTO.fromStringsWithId(id, movie.getTitle(), dateStr, 
-                                                            startTimeStr, endTimeStr, capacityStr, priceStr);
+                                                            startTimeStr, endTimeStr, capacityStr, priceStr, versionStr);
         FilmSession filmSession = filmSessionMapper.toEntity(dto);
-        sessionRepository.update(filmSession);
+        checkNoConflict(filmSession);
 
-        if (!sessionRepository.checkIfSessionExists(filmSession)) {
-            throw new EntityAlreadyExistException("Film session not found in database after updating. Try again.");
-        }
+        sessionRepository.update(filmSession);
+        sessionsSaved(List.of(filmSession));
         return "Film session successfully updated.";
     }
 
+    /**
+     * Switches the waiting room of the session's purchase flow on or off; it only takes effect while
+     * {@code waiting.room.enabled} is set.
+     */
+    @Override
+    public String setWaitingRoom(String id, String enabledStr) {
+        int sessionId = ValidationUtil.parseId(id);
+        boolean enabled = Boolean.parseBoolean(enabledStr);
+        FilmSession filmSession = sessionRepository.setWaitingRoom(sessionId, enabled);
+        sessionsSaved(List.of(filmSession));
+        return "Waiting room of the film session switched " + (enabled ? "on." : "off.");
+    }
+
     @Override
     public String delete(String id) {
         int sessionId = ValidationUtil.parseId(id);
         sessionRepository.delete(sessionId);
+        sessionsDeleted(List.of(sessionId));
         return "Film session successfully deleted.";
     }
 
     @Override
-    public Set<FilmSessionDTO> findByDate(String dateStr) {
+    public String deleteAll(List<String> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("Select at least one film session.");
+        }
+        List<Integer> sessionIds = ids.stream()
+                .map(ValidationUtil::parseId)
+                .distinct()
+                .toList();
+
+        int deleted = sessionRepository.deleteAllByIds(sessionIds);
+        sessionsDeleted(sessionIds);
+        if (deleted == 0) {
+            throw new NoDataFoundException("None of the selected film sessions exist.");
+        }
+        return deleted + " film session(s) successfully deleted.";
+    }
+
+    @Override
+    public List<FilmSessionDTO> findByDate(String dateStr) {
         ValidationUtil.validateDate(dateStr);
         LocalDate date = LocalDate.parse(dateStr);
-        Set<FilmSession> sessions = sessionRepository.findByDate(date);
-        return sessions.stream()
-                .map(filmSessionMapper::toDTO)
-                .collect(Collectors.toSet());
+        return getListing(date, () -> sessionRepository.findByDate(date));
+    }
+
+    /**
+     * Rejects the session if it overlaps another one of the same movie: the schedule index answers first,
+     * and only a session it lets through costs a database query.
+     */
+    private void checkNoConflict(FilmSession filmSession) {
+        List<ScheduleIndex.Entry> conflicts = findConflicts(filmSession);
+        if (!conflicts.isEmpty()) {
+            ScheduleIndex.Entry conflict = conflicts.get(0);
+            throw new EntityAlreadyExistException("Film session already exists on this film and time ("
+                    + conflict.startTime() + "-" + conflict.endTime() + "). Try again.");
+        }
+        if (sessionRepository.checkIfSessionExists(filmSession)) {
+            throw new EntityAlreadyExistException("Film session already exists on this film and time. Try again.");
+        }
+    }
+
+    /**
+     * Returns the cached listing, loading it if it is missing. Only the request that finds the listing missing
+     * runs the query; concurrent requests for it wait for that result. The listing is cached until a write
+     * drops it, so it is always loaded from the primary: a lagging replica could otherwise bring back the rows
+     * of a write that has just dropped it. While changes from other nodes may be missing, the listing is read
+     * from the database instead.
+     */
+    private List<FilmSessionDTO> getListing(LocalDate date, Supplier<List<FilmSession>> loader) {
+        if (!InvalidationBus.getInstance().isFresh()) {
+            log.debug("Changes from other nodes may be missing, loading the film session listing uncached.");
+            return loader.get().stream().map(filmSessionMapper::toDTO).toList();
+        }
+        CompletableFuture<List<FilmSessionDTO>> listing = listings.get(date);
+        if (listing == null) {
+            if (listings.size() >= listingCacheDates) {
+                listings.keySet().stream()
+                        .filter(cached -> !cached.equals(ALL_DATES))
+                        .findFirst()
+                        .ifPresent(listings::remove);
+            }
+            CompletableFuture<List<FilmSessionDTO>> loading = new CompletableFuture<>();
+            listing = listings.putIfAbsent(date, loading);
+            if (listing == null) {
+                listing = loading;
+                try {
+                    loading.complete(ReplicaRouter.runOnPrimary(loader).stream()
+                            .map(filmSessionMapper::toDTO).toList());
+                    log.debug("Film session listing for {} cached.", date.equals(ALL_DATES) ? "all dates" : date);
+                } catch (RuntimeException e) {
+                    listings.remove(date, loading);
+                    loading.completeExceptionally(e);
+                }
+            }
+        }
+        try {
+            return listing.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Brings the schedule index and the listings up to date with saved sessions once the transaction that wrote
+     * them has committed. The other nodes are told by the repository, from inside that transaction.
+     */
+    private void sessionsSaved(List<FilmSession> filmSessions) {
+        List<LocalDate> dates = filmSessions.stream().map(FilmSession::getDate).distinct().toList();
+        List<Integer> sessionIds = filmSessions.stream().map(FilmSession::getId).toList();
+        UnitOfWork.afterCommit(() -> {
+            scheduleIndex.put(filmSessions);
+            dropListings(dates, sessionIds);
+        });
+    }
+
+    private void sessionsDeleted(List<Integer> sessionIds) {
+        UnitOfWork.afterCommit(() -> {
+            scheduleIndex.remove(sessionIds);
+            dropListings(List.of(), sessionIds);
+        });
+    }
+
+    /**
+     * Applies a session change made on another node. Its key is the session ID followed by the date it is on
+     * now, which is empty if it was deleted. The schedule index can't take the session over from the key alone,
+     * so it is reloaded on its next use.
+     */
+    private void applyRemoteChange(String key) {
+        scheduleIndex.markStale();
+        if (InvalidationBus.ALL_KEYS.equals(key)) {
+            listings.clear();
+            return;
+        }
+        int separator = key.indexOf(SessionRepositoryImpl.SCHEDULE_KEY_SEPARATOR);
+        int sessionId = Integer.parseInt(key.substring(0, separator));
+        String date = key.substring(separator + 1);
+        dropListings(date.isEmpty() ? List.of() : List.of(LocalDate.parse(date)), List.of(sessionId));
+    }
+
+    /**
+     * Drops the listing of all dates, the listings of the given dates and every listing that contains one of
+     * the given sessions, which covers the date a session was moved away from or deleted on. Listings still
+     * being loaded are dropped as well, since they may have read the sessions before the change.
+     */
+    private void dropListings(Collection<LocalDate> dates, Collection<Integer> sessionIds) {
+        listings.remove(ALL_DATES);
+        dates.forEach(listings::remove);
+        listings.values().removeIf(listing -> !listing.isDone() || listing.isCompletedExceptionally()
+                || listing.join().stream().anyMatch(dto -> sessionIds.contains(dto.getId())));
+    }
+
+    private List<ScheduleIndex.Entry> findConflicts(FilmSession filmSession) {
+        return scheduleIndex.findConflicts(filmSession.getMovieTitle(), filmSession.getDate(),
+                filmSession.getStartTime(), filmSession.getEndTime(), filmSession.getId());
     }
-}
\ No newline at end of file
+}
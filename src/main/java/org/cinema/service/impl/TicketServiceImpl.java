@@ -2,19 +2,29 @@ package org.cinema.service.impl;
 
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
-import org.cinema.exception.EntityAlreadyExistException;
+import org.cinema.config.ReplicaRouter;
+import org.cinema.dto.Page;
+import org.cinema.dto.SeatOrder;
+import org.cinema.dto.TicketBulkResult;
+import org.cinema.dto.TicketExportRow;
+import org.cinema.dto.TicketView;
+import org.cinema.dto.UserTicketView;
 import org.cinema.exception.NoDataFoundException;
 import org.cinema.model.*;
 import org.cinema.repository.impl.SessionRepositoryImpl;
 import org.cinema.repository.impl.TicketRepositoryImpl;
 import org.cinema.repository.impl.UserRepositoryImpl;
 import org.cinema.service.TicketService;
+import org.cinema.util.PropertiesUtil;
 import org.cinema.util.ValidationUtil;
 
-import java.util.HashSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Slf4j
 public class TicketServiceImpl implements TicketService {
@@ -25,6 +35,13 @@ public class TicketServiceImpl implements TicketService {
     private final TicketRepositoryImpl ticketRepository = TicketRepositoryImpl.getInstance();
     private final UserRepositoryImpl userRepository = UserRepositoryImpl.getInstance();
     private final SessionRepositoryImpl sessionRepository = SessionRepositoryImpl.getInstance();
+    private final SeatHoldServiceImpl seatHoldService = SeatHoldServiceImpl.getInstance();
+    private final PurchaseLanes purchaseLanes = PurchaseLanes.getInstance();
+
+    private final int maxSeatsPerPurchase = PropertiesUtil.getInt("ticket.purchase.max.seats", 8);
+    private final int pageSize = PropertiesUtil.getInt("admin.page.size", 50);
+
+    private static final int MAX_PENDING_AGE_MINUTES = 60 * 24 * 365;
 
     @Override
     public String save(String userId, String sessionId, String seatNumber, String statusStr, String requestTypeStr) {
@@ -39,22 +56,14 @@ public class TicketServiceImpl implements TicketService {
 
         ValidationUtil.validateSeatNumber(seatNumber, filmSession.getCapacity());
 
-        Ticket ticket = new Ticket(0, user, filmSession, seatNumber, null, status, requestType);
-
-        if (ticketRepository.checkIfTicketExists(ticket)) {
-            throw new EntityAlreadyExistException("Ticket already exists with this session and seat. Try again.");
-        }
-
+        Ticket ticket = new Ticket(0, user, filmSession, seatNumber, null, status, requestType, 0);
         ticketRepository.save(ticket);
-
-        if (!ticketRepository.checkIfTicketExists(ticket)) {
-            throw new NoDataFoundException("Ticket not found in database after saving. Try again.");
-        }
         return "Success! Ticket was successfully added to the database!";
     }
 
     @Override
-    public String update(String id, String userId, String sessionId, String seatNumber, String statusStr, String requestTypeStr) {
+    public String update(String id, String userId, String sessionId, String seatNumber, String statusStr, String requestTypeStr,
+                         String versionStr) {
         Status status = Status.valueOf(statusStr.toUpperCase());
         RequestType requestType = RequestType.valueOf(requestTypeStr.toUpperCase());
 
@@ -66,17 +75,13 @@ public class TicketServiceImpl implements TicketService {
         ValidationUtil.validateSeatNumber(seatNumber, filmSession.getCapacity());
 
         int ticketId = ValidationUtil.parseId(id);
-        Ticket ticket = new Ticket(ticketId, user, filmSession, seatNumber, null, status, requestType);
+        Ticket ticket = new Ticket(ticketId, user, filmSession, seatNumber, null, status, requestType,
+                ValidationUtil.parseVersion(versionStr));
 
-        Ticket existingTicket = ticketRepository.getById(ticketId).orElseThrow(() ->
+        ticketRepository.getById(ticketId).orElseThrow(() ->
                 new NoDataFoundException("Ticket with this ID doesn't exist!"));
 
-        ticketRepository.update(ticket, existingTicket.getPurchaseTime());
-
-        if (!ticketRepository.checkIfTicketExists(ticket)) {
-            throw new NoDataFoundException("Ticket not found in database after updating. Try again.");
-        }
-
+        ticketRepository.update(ticket);
         return "Success! Ticket was successfully updated in the database!";
     }
 
@@ -86,89 +91,151 @@ public class TicketServiceImpl implements TicketService {
         return "Success! Ticket was successfully deleted!";
     }
 
+    @Override
+    public String deleteAll(List<String> ticketIds) {
+        if (ticketIds == null || ticketIds.isEmpty()) {
+            throw new IllegalArgumentException("Select at least one ticket.");
+        }
+        List<Integer> ids = ticketIds.stream()
+                .map(ValidationUtil::parseId)
+                .distinct()
+                .toList();
+
+        int deleted = ticketRepository.deleteAllByIds(ids);
+        if (deleted == 0) {
+            throw new NoDataFoundException("None of the selected tickets exist.");
+        }
+        return "Success! " + deleted + " ticket(s) were successfully deleted!";
+    }
+
     @Override
     public Optional<Ticket> getById(String ticketIdStr) {
         return ticketRepository.getById(ValidationUtil.parseId(ticketIdStr));
     }
 
     @Override
-    public Set<Ticket> findAll() {
-        Set<Ticket> tickets = ticketRepository.findAll();
-
-        if (tickets.isEmpty()) {
-            throw new NoDataFoundException("No tickets found in the database.");
-        }
-
-        log.info("{} tickets retrieved successfully.", tickets.size());
-        return tickets;
+    public Page<TicketView> findPage(String pageToken) {
+        Page<TicketView> page = ticketRepository.findPage(pageToken, pageSize);
+        log.info("{} tickets retrieved successfully.", page.getItems().size());
+        return page;
     }
 
     @Override
     public String purchaseTicket(String userId, String sessionId, String seatNumber) {
+        return purchaseTickets(userId, sessionId, List.of(seatNumber));
+    }
 
-        User user = userRepository.getById(ValidationUtil.parseId(userId))
-                .orElseThrow(() -> new NoDataFoundException("User not found with ID: " + userId));
-        FilmSession session = sessionRepository.getById(ValidationUtil.parseId(sessionId))
-                .orElseThrow(() -> new NoDataFoundException("Session not found with ID: " + sessionId));
+    @Override
+    public String purchaseTickets(String userId, String sessionId, List<String> seatNumbers) {
+        int parsedUserId = ValidationUtil.parseId(userId);
+        int parsedSessionId = ValidationUtil.parseId(sessionId);
+        ValidationUtil.validateSeatCount(seatNumbers, maxSeatsPerPurchase);
 
-        ValidationUtil.validateSeatNumber(seatNumber, session.getCapacity());
-        log.debug("Seat number {} validated successfully for session {}.", seatNumber, sessionId);
+        FilmSession session = sessionRepository.getById(parsedSessionId)
+                .orElseThrow(() -> new NoDataFoundException("Session not found with ID: " + sessionId));
 
-        Ticket ticket = new Ticket(0, user, session, seatNumber, null, Status.PENDING, RequestType.PURCHASE);
-        if (ticketRepository.checkIfTicketExists(ticket)) {
-            throw new EntityAlreadyExistException("Ticket already exists with this session and seat. Try again.");
+        List<Integer> seats = new ArrayList<>(seatNumbers.size());
+        for (String seatNumber : seatNumbers) {
+            int seat = ValidationUtil.parseSeatNumber(seatNumber);
+            ValidationUtil.validateSeatNumber(String.valueOf(seat), session.getCapacity());
+            if (seats.contains(seat)) {
+                throw new IllegalArgumentException("Seat " + seat + " is selected more than once.");
+            }
+            seats.add(seat);
         }
 
-        ticketRepository.save(ticket);
-        if (!ticketRepository.checkIfTicketExists(ticket)) {
-            throw new NoDataFoundException("Ticket not found in database after purchasing. Try again.");
-        }
-        log.info("Ticket successfully created for session {} and seat {}.", sessionId, seatNumber);
-        return "Success! Ticket purchased, awaiting confirmation.";
+        purchaseLanes.purchase(parsedSessionId, new SeatOrder(parsedUserId, seats));
+        seatHoldService.releaseAfterPurchase(parsedUserId, parsedSessionId, seats);
+
+        log.info("{} ticket(s) successfully created for session {} and seats {}.", seats.size(), sessionId, seats);
+        return seats.size() == 1
+                ? "Success! Ticket purchased, awaiting confirmation."
+                : "Success! " + seats.size() + " tickets purchased, awaiting confirmation.";
     }
 
     @Override
-    public FilmSession getSessionDetailsWithTickets(String sessionIdStr) {
+    public FilmSession getSessionDetailsWithTickets(String sessionIdStr, String viewerIdStr) {
         int sessionId = ValidationUtil.parseId(sessionIdStr);
+        int viewerId = ValidationUtil.parseId(viewerIdStr);
         FilmSession session = sessionRepository.getById(sessionId)
                 .orElseThrow(() -> new NoDataFoundException("Session not found with ID: " + sessionId));
 
         List<Ticket> tickets = ticketRepository.getTicketsBySession(sessionId);
-        List<Integer> takenSeats = tickets.stream()
-                .map(ticket -> Integer.parseInt(ticket.getSeatNumber()))
-                .toList();
+        SeatInventory inventory = new SeatInventory(session.getCapacity());
+        for (Ticket ticket : tickets) {
+            int seat = Integer.parseInt(ticket.getSeatNumber());
+            if (inventory.contains(seat)) {
+                inventory.mark(seat, SeatState.of(ticket.getStatus()));
+            }
+        }
+        for (int seat : seatHoldService.getSeatsHeldByOthers(viewerId, sessionId)) {
+            if (inventory.contains(seat) && inventory.isFree(seat)) {
+                inventory.mark(seat, SeatState.HELD);
+            }
+        }
 
-        session.setTakenSeats(takenSeats);
+        session.setSeatInventory(inventory);
         return session;
     }
 
     @Override
-    public Set<Ticket> findByUserId(String userId) {
+    public List<Integer> findBestAvailableSeats(FilmSession sessionWithTickets, String seatCountStr) {
+        int seatCount = ValidationUtil.parseSeatCount(seatCountStr, getMaxSeatsTogether());
+
+        List<Integer> seats = sessionWithTickets.getSeatInventory().findBestBlock(seatCount);
+        if (seats.isEmpty()) {
+            throw new NoDataFoundException("No " + seatCount + " adjacent seats are available for this session.");
+        }
+        log.debug("Best {} adjacent seats for session {}: {}", seatCount, sessionWithTickets.getId(), seats);
+        return seats;
+    }
+
+    /**
+     * @return the most seats that can be looked for together: a purchase's limit, but never more than a row
+     */
+    @Override
+    public int getMaxSeatsTogether() {
+        return Math.min(maxSeatsPerPurchase, SeatInventory.ROW_WIDTH);
+    }
+
+    @Override
+    public List<UserTicketView> findByUserId(String userId) {
         int parsedUserId = ValidationUtil.parseId(userId);
-        List<Ticket> ticketsList = ticketRepository.getTicketsByUserId(parsedUserId);
+        List<UserTicketView> tickets = ticketRepository.getTicketsByUserId(parsedUserId);
 
-        if (ticketsList.isEmpty()) {
+        if (tickets.isEmpty()) {
             throw new NoDataFoundException("Your tickets are absent!");
         }
 
-        Set<Ticket> tickets = new HashSet<>(ticketsList);
         log.info("{} tickets found for user with ID: {}", tickets.size(), userId);
         return tickets;
     }
 
+    @Override
+    public long export(String fromStr, String toStr, String statusStr, Consumer<TicketExportRow> sink) {
+        LocalDate from = ValidationUtil.parseOptionalDate(fromStr, "Start date");
+        LocalDate to = ValidationUtil.parseOptionalDate(toStr, "End date");
+        ValidationUtil.validateDateRange(from, to);
+        Status status = ValidationUtil.parseOptionalStatus(statusStr);
+
+        return ticketRepository.streamForExport(from, to, status, sink);
+    }
 
     @Override
     public String processTicketAction(String action, String ticketIdParam) {
 
         ValidationUtil.validateParameters(action, ticketIdParam);
-        Ticket ticket = getById(ticketIdParam).orElseThrow(() ->
-                new NoDataFoundException("Ticket with this ID doesn't exist!"));
+        int ticketId = ValidationUtil.parseId(ticketIdParam);
 
         return switch (action) {
-            case "confirm" -> confirmTicket(ticket);
-            case "return" -> returnTicket(ticket);
-            case "cancel" -> cancelTicket(ticket);
-            case "returnMyTicket" -> returnMyTicket(ticket);
+            case "confirm" -> applyTransition(ticketId, TicketTransition.CONFIRM,
+                    "Success! Ticket Confirmed!", "Error! Invalid action for this ticket.");
+            case "return" -> applyTransition(ticketId, TicketTransition.RETURN,
+                    "Success! Ticket Returned!", "Error! Invalid action for this ticket.");
+            case "cancel" -> applyTransition(ticketId, TicketTransition.CANCEL,
+                    "Success! Ticket Cancelled!", "Error! Invalid action for this ticket.");
+            case "returnMyTicket" -> applyTransition(ticketId, TicketTransition.REQUEST_RETURN,
+                    "Success! Ticket Returned!", "Error! Ticket cannot be returned.");
             default -> {
                 log.warn("Unknown action: {}", action);
                 yield "Error! Unknown action.";
@@ -176,39 +243,68 @@ public class TicketServiceImpl implements TicketService {
         };
     }
 
-    private String returnMyTicket(Ticket ticket) {
-        if (ticket.getStatus() == Status.PENDING) {
-            ticket.setRequestType(RequestType.RETURN);
-            ticketRepository.update(ticket, ticket.getPurchaseTime());
-            return "Success! Ticket Returned!";
+    @Override
+    public String processBulkAction(String action, List<String> ticketIds) {
+        ValidationUtil.validateNotBlank(action, "Action");
+        if (ticketIds == null || ticketIds.isEmpty()) {
+            throw new IllegalArgumentException("Select at least one ticket.");
         }
-        return "Error! Ticket cannot be returned.";
+        List<Integer> ids = ticketIds.stream()
+                .map(ValidationUtil::parseId)
+                .distinct()
+                .toList();
+
+        return switch (action) {
+            case "confirmSelected" -> describeBulkResult(
+                    ticketRepository.transitionAll(ids, TicketTransition.CONFIRM), "confirmed");
+            case "cancelSelected" -> describeBulkResult(
+                    ticketRepository.transitionAll(ids, TicketTransition.CANCEL), "cancelled");
+            default -> {
+                log.warn("Unknown bulk action: {}", action);
+                yield "Error! Unknown action.";
+            }
+        };
     }
 
-    private String confirmTicket(Ticket ticket) {
-        if (ticket.getStatus() == Status.PENDING && ticket.getRequestType() == RequestType.PURCHASE) {
-            ticket.setStatus(Status.CONFIRMED);
-            ticketRepository.update(ticket, ticket.getPurchaseTime());
-            return "Success! Ticket Confirmed!";
-        }
-        return "Error! Invalid action for this ticket.";
+    @Override
+    public String confirmAllOfSession(String sessionId) {
+        int parsedSessionId = ValidationUtil.parseId(sessionId);
+        return describeBulkResult(
+                ticketRepository.transitionAllOfSession(parsedSessionId, TicketTransition.CONFIRM), "confirmed");
     }
 
-    private String returnTicket(Ticket ticket) {
-        if (ticket.getRequestType() == RequestType.RETURN) {
-            ticket.setStatus(Status.RETURNED);
-            ticketRepository.update(ticket, ticket.getPurchaseTime());
-            return "Success! Ticket Returned!";
-        }
-        return "Error! Invalid action for this ticket.";
+    @Override
+    public String cancelPendingOlderThan(String minutes) {
+        int ageMinutes = ValidationUtil.parseAgeMinutes(minutes, MAX_PENDING_AGE_MINUTES);
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(ageMinutes);
+        return describeBulkResult(
+                ticketRepository.transitionAllPurchasedBefore(cutoff, TicketTransition.CANCEL), "cancelled");
+    }
+
+    private String describeBulkResult(TicketBulkResult result, String verb) {
+        String counts = result.getStatusCounts().entrySet().stream()
+                .map(entry -> entry.getValue() + " " + entry.getKey().name().toLowerCase())
+                .collect(Collectors.joining(", "));
+        String message = result.getUpdated() > 0
+                ? "Success! " + result.getUpdated() + " ticket(s) " + verb + "."
+                : "Error! No ticket could be " + verb + ".";
+        return counts.isEmpty() ? message : message + " Targeted tickets now: " + counts + ".";
     }
 
-    private String cancelTicket(Ticket ticket) {
-        if (ticket.getStatus() == Status.PENDING) {
-            ticket.setStatus(Status.CANCELLED);
-            ticketRepository.update(ticket, ticket.getPurchaseTime());
-            return "Success! Ticket Cancelled!";
+    /**
+     * Applies the transition in one conditional update. Only when it doesn't apply is the ticket read
+     * (from the primary, so the message shows the state that actually won the race).
+     */
+    private String applyTransition(int ticketId, TicketTransition transition, String successMessage,
+                                   String errorMessage) {
+        if (ticketRepository.transition(ticketId, transition)) {
+            return successMessage;
         }
-        return "Error! Invalid action for this ticket.";
+        Ticket ticket = ReplicaRouter.runOnPrimary(() -> ticketRepository.getById(ticketId)).orElseThrow(() ->
+                new NoDataFoundException("Ticket with this ID doesn't exist!"));
+        log.warn("Transition {} of ticket {} rejected, the ticket is {} ({}).", transition, ticketId,
+                ticket.getStatus(), ticket.getRequestType());
+        return errorMessage + " The ticket is " + ticket.getStatus().name().toLowerCase()
+                + " (" + ticket.getRequestType().name().toLowerCase() + ").";
     }
 }
@@ -1,26 +1,53 @@
 package org.cinema.service.impl;
 
-import jakarta.servlet.http.HttpSession;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.cinema.config.InvalidationBus;
+import org.cinema.dto.AuthenticatedUser;
+import org.cinema.dto.Page;
 import org.cinema.exception.EntityAlreadyExistException;
 import org.cinema.exception.NoDataFoundException;
 import org.cinema.model.Role;
 import org.cinema.model.User;
+import org.cinema.repository.UnitOfWork;
 import org.cinema.repository.impl.UserRepositoryImpl;
 import org.cinema.service.UserService;
 import org.cinema.util.PasswordUtil;
+import org.cinema.util.PropertiesUtil;
 import org.cinema.util.ValidationUtil;
 import java.util.Optional;
-import java.util.Set;
-
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * User operations. Logins read the user's credentials from a small cache by username, which every change to a
+ * user drops on all nodes (through {@link InvalidationBus}), and verify the password on {@link PasswordVerifier}.
+ * A password whose hash was made with an outdated bcrypt cost is rehashed on the next successful login.
+ */
 @Slf4j
 public class UserServiceImpl implements UserService {
 
     @Getter
     private static final UserServiceImpl instance = new UserServiceImpl();
 
+    private static final String CREDENTIALS_REGION = "user.credentials";
+
+    private record Credentials(int userId, String passwordHash, Role role, long loadedAtNanos) {
+    }
+
     private final UserRepositoryImpl userRepository = UserRepositoryImpl.getInstance();
+    private final PasswordVerifier passwordVerifier = PasswordVerifier.getInstance();
+
+    private final int pageSize = PropertiesUtil.getInt("admin.page.size", 50);
+    private final int credentialCacheEntries = PropertiesUtil.getInt("login.credential.cache.entries", 10000);
+    private final long credentialCacheTtlNanos = TimeUnit.SECONDS.toNanos(
+            PropertiesUtil.getInt("login.credential.cache.ttl.seconds", 300));
+
+    private final ConcurrentHashMap<String, Credentials> credentials = new ConcurrentHashMap<>();
+
+    private UserServiceImpl() {
+        InvalidationBus.getInstance().subscribe(CREDENTIALS_REGION, this::applyRemoteChange);
+    }
 
     @Override
     public String save(String username, String password, String role) {
@@ -62,6 +89,7 @@ public class UserServiceImpl implements UserService {
         existingUser.setRole(Role.valueOf(role.toUpperCase()));
 
         userRepository.update(existingUser);
+        userChanged(existingUser.getId());
 
         if (userRepository.getByUsername(username).isEmpty()) {
             throw new NoDataFoundException("User not found in database after updating. Try again.");
@@ -73,7 +101,9 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public String delete(String userIdStr) {
-        userRepository.delete(ValidationUtil.parseId(userIdStr));
+        int userId = ValidationUtil.parseId(userIdStr);
+        userRepository.delete(userId);
+        userChanged(userId);
         return "Success! User was successfully deleted!";
     }
 
@@ -83,32 +113,29 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    public Set<User> findAll() {
-        Set<User> users = userRepository.findAll();
-
-        if (users.isEmpty()) {
-            throw new NoDataFoundException("No users found in the database.");
-        }
-
-        log.info("{} users retrieved successfully.", users.size());
-        return users;
+    public Page<User> findPage(String pageToken) {
+        Page<User> page = userRepository.findPage(pageToken, pageSize);
+        log.info("{} users retrieved successfully.", page.getItems().size());
+        return page;
     }
 
     @Override
-    public HttpSession login(String username, String password, HttpSession session) {
+    public AuthenticatedUser login(String username, String password) {
         ValidationUtil.validateUsername(username);
         ValidationUtil.validatePassword(password);
 
-        User user = userRepository.getByUsername(username)
+        Credentials user = getCredentials(username)
                 .orElseThrow(() -> new IllegalArgumentException("Invalid username or password."));
 
-        if (!PasswordUtil.checkPassword(password, user.getPassword())) {
+        PasswordVerifier.Verification verification = passwordVerifier.verify(password, user.passwordHash());
+        if (!verification.matches()) {
             throw new IllegalArgumentException("Invalid username or password.");
         }
+        if (verification.upgradedHash() != null) {
+            upgradePassword(user, verification.upgradedHash());
+        }
 
-        session.setAttribute("userId", user.getId());
-        session.setAttribute("role", user.getRole().toString());
-        return session;
+        return new AuthenticatedUser(user.userId(), user.role());
     }
 
     @Override
@@ -148,6 +175,69 @@ public class UserServiceImpl implements UserService {
 
         user.setUsername(username);
         userRepository.update(user);
+        userChanged(userId);
         log.info("User with ID {} updated their profile.", userId);
     }
+
+    /**
+     * Returns the user's credentials from the cache, reading them from the database if they aren't cached,
+     * have expired, or changes from other nodes may be missing. Unknown usernames aren't cached, so a user
+     * registered on another node can log in right away.
+     */
+    private Optional<Credentials> getCredentials(String username) {
+        boolean fresh = InvalidationBus.getInstance().isFresh();
+        Credentials cached = credentials.get(username);
+        if (fresh && cached != null && System.nanoTime() - cached.loadedAtNanos() < credentialCacheTtlNanos) {
+            return Optional.of(cached);
+        }
+
+        Optional<Credentials> loaded = userRepository.getByUsername(username)
+                .map(user -> new Credentials(user.getId(), user.getPassword(), user.getRole(), System.nanoTime()));
+        if (fresh && loaded.isPresent()) {
+            if (credentials.size() >= credentialCacheEntries) {
+                credentials.keySet().stream().findFirst().ifPresent(credentials::remove);
+            }
+            credentials.put(username, loaded.get());
+        } else {
+            credentials.remove(username);
+        }
+        return loaded;
+    }
+
+    /**
+     * Stores the password hash made with the current bcrypt cost. A failure only means that the next login
+     * tries again, so it doesn't fail this one.
+     */
+    private void upgradePassword(Credentials user, String upgradedHash) {
+        try {
+            if (userRepository.replacePassword(user.userId(), user.passwordHash(), upgradedHash)) {
+                userChanged(user.userId());
+                log.info("Password hash of user with ID {} upgraded to the current bcrypt cost.", user.userId());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to upgrade the password hash of user with ID {}: {}", user.userId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Drops the user's cached credentials here, again when the request's transaction completes, and on the other
+     * nodes.
+     */
+    private void userChanged(int userId) {
+        evictCredentials(userId);
+        UnitOfWork.afterCompletion(() -> evictCredentials(userId));
+        InvalidationBus.getInstance().publish(CREDENTIALS_REGION, String.valueOf(userId));
+    }
+
+    private void applyRemoteChange(String key) {
+        if (InvalidationBus.ALL_KEYS.equals(key)) {
+            credentials.clear();
+            return;
+        }
+        evictCredentials(Integer.parseInt(key));
+    }
+
+    private void evictCredentials(int userId) {
+        credentials.values().removeIf(cached -> cached.userId() == userId);
+    }
 }
@@ -0,0 +1,140 @@
+package org.cinema.service.impl;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.cinema.dto.WaitingRoomStatus;
+import org.cinema.model.FilmSession;
+import org.cinema.repository.impl.SessionRepositoryImpl;
+import org.cinema.repository.impl.WaitingRoomRepositoryImpl;
+import org.cinema.service.WaitingRoomService;
+import org.cinema.util.PropertiesUtil;
+import org.cinema.util.ValidationUtil;
+
+/**
+ * Admission control for the purchase flow of the film sessions that have their waiting room switched on
+ * ({@code waiting.room.enabled} and the session's own flag). At most {@code waiting.room.active.limit} users are
+ * admitted per session at a time; everybody else waits in line and polls until a slot frees up. The line lives in
+ * the shared {@code waiting_room} table, so all web nodes see the same positions.
+ * Polling only reads the line. Admissions are handed out by {@link #admitWaitingUsers()}, which the scheduler runs
+ * every {@code waiting.room.admit.interval.seconds}, and have to be claimed by the user's next purchase request
+ * within {@code waiting.room.claim.seconds}; a claimed admission runs for {@code waiting.room.admission.seconds}.
+ * Users who left the line never claim theirs, so their slots come back after the claim window.
+ */
+@Slf4j
+public class WaitingRoomServiceImpl implements WaitingRoomService {
+
+    @Getter
+    private static final WaitingRoomServiceImpl instance = new WaitingRoomServiceImpl();
+
+    private static final int MAX_SWEEP_BATCHES = 20;
+
+    private final WaitingRoomRepositoryImpl waitingRoomRepository = WaitingRoomRepositoryImpl.getInstance();
+    private final SessionRepositoryImpl sessionRepository = SessionRepositoryImpl.getInstance();
+
+    private final boolean enabled = Boolean.parseBoolean(PropertiesUtil.get("waiting.room.enabled", "false"));
+    private final int activeLimit = PropertiesUtil.getInt("waiting.room.active.limit", 200);
+    private final int admissionSeconds = PropertiesUtil.getInt("waiting.room.admission.seconds", 600);
+    private final int claimSeconds = PropertiesUtil.getInt("waiting.room.claim.seconds", 30);
+    private final int pollIntervalSeconds = PropertiesUtil.getInt("waiting.room.poll.interval.seconds", 5);
+    private final int sweepBatchSize = PropertiesUtil.getInt("waiting.room.sweep.batch.size", 500);
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return whether the purchase flow of the film session goes through the waiting room
+     */
+    @Override
+    public boolean isEnabled(String sessionId) {
+        if (!enabled) {
+            return false;
+        }
+        int parsedSessionId = ValidationUtil.parseId(sessionId);
+        return sessionRepository.getById(parsedSessionId).map(FilmSession::isWaitingRoom).orElse(false);
+    }
+
+    @Override
+    public int getPollIntervalSeconds() {
+        return pollIntervalSeconds;
+    }
+
+    /**
+     * Lets the user into the purchase flow if they hold an admission, claiming it if it is new.
+     * Otherwise the user joins the line (keeping their place if they are in it already), and the head of the line
+     * is admitted right away if the session has free slots.
+     */
+    @Override
+    public WaitingRoomStatus enter(String userId, String sessionId) {
+        int parsedUserId = ValidationUtil.parseId(userId);
+        int parsedSessionId = ValidationUtil.parseId(sessionId);
+
+        WaitingRoomStatus status = waitingRoomRepository.findStatus(parsedSessionId, parsedUserId);
+        if (status.getPosition() == 0 && !status.isAdmitted()) {
+            waitingRoomRepository.join(parsedSessionId, parsedUserId);
+            waitingRoomRepository.admitNext(parsedSessionId, activeLimit, claimSeconds);
+            status = waitingRoomRepository.findStatus(parsedSessionId, parsedUserId);
+        }
+        if (status.isAdmitted() && !status.isClaimed()) {
+            waitingRoomRepository.claim(parsedSessionId, parsedUserId, admissionSeconds);
+        }
+        log.debug("Waiting room of session {} for user {}: {}", parsedSessionId, parsedUserId, status);
+        return status;
+    }
+
+    /**
+     * Reports the user's place in line without changing it, for the waiting page's polls.
+     */
+    @Override
+    public WaitingRoomStatus getStatus(String userId, String sessionId) {
+        return waitingRoomRepository.findStatus(ValidationUtil.parseId(sessionId), ValidationUtil.parseId(userId));
+    }
+
+    @Override
+    public void leave(String userId, String sessionId) {
+        waitingRoomRepository.leave(ValidationUtil.parseId(sessionId), ValidationUtil.parseId(userId));
+    }
+
+    /**
+     * Admits the head of every session's line into the slots that have freed up.
+     *
+     * @return the number of users admitted
+     */
+    @Override
+    public int admitWaitingUsers() {
+        if (!enabled) {
+            return 0;
+        }
+        int admitted = 0;
+        for (int sessionId : waitingRoomRepository.findSessionsWithWaitingUsers()) {
+            admitted += waitingRoomRepository.admitNext(sessionId, activeLimit, claimSeconds);
+        }
+        if (admitted > 0) {
+            log.info("Waiting room: {} user(s) admitted.", admitted);
+        }
+        return admitted;
+    }
+
+    /**
+     * Deletes admissions that have run out, claimed or not, in bounded batches.
+     *
+     * @return the number of rows deleted
+     */
+    @Override
+    public int sweepInactiveEntries() {
+        int deleted = 0;
+        for (int batch = 0; batch < MAX_SWEEP_BATCHES; batch++) {
+            int rows = waitingRoomRepository.deleteInactive(sweepBatchSize);
+            deleted += rows;
+            if (rows < sweepBatchSize) {
+                break;
+            }
+        }
+
+        if (deleted > 0) {
+            log.info("Waiting room sweep: {} inactive entry(ies) deleted.", deleted);
+        }
+        return deleted;
+    }
+}
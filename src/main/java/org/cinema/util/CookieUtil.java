@@ -0,0 +1,48 @@
+package org.cinema.util;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Reads and writes the application's own cookies, which carry per-user state from one request to the next
+ * on whichever node serves it. They are scoped to the context path and sent with the same flags as the
+ * session cookie in {@code web.xml}: HttpOnly and Secure, plus SameSite=Lax.
+ */
+public class CookieUtil {
+
+    /**
+     * @return the value of the named cookie, or empty if the request doesn't carry it
+     */
+    public static Optional<String> read(HttpServletRequest request, String name) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return Optional.empty();
+        }
+        return Arrays.stream(cookies)
+                .filter(cookie -> name.equals(cookie.getName()))
+                .map(Cookie::getValue)
+                .findFirst();
+    }
+
+    /**
+     * Sets the cookie for {@code maxAgeSeconds}, or clears it if that is 0.
+     */
+    public static void write(HttpServletRequest request, HttpServletResponse response, String name, String value,
+                             int maxAgeSeconds) {
+        Cookie cookie = new Cookie(name, value);
+        cookie.setPath(request.getContextPath().isEmpty() ? "/" : request.getContextPath());
+        cookie.setMaxAge(maxAgeSeconds);
+        cookie.setHttpOnly(true);
+        cookie.setSecure(true);
+        cookie.setAttribute("SameSite", "Lax");
+        response.addCookie(cookie);
+    }
+
+    public static void clear(HttpServletRequest request, HttpServletResponse response, String name) {
+        write(request, response, name, "", 0);
+    }
+}
@@ -0,0 +1,202 @@
+package org.cinema.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Interval tree over closed intervals {@code [start, end]}: an AVL tree ordered by interval start (ties broken by
+ * the interval's ID), where every node also knows the largest end in its subtree. Insertion and removal take
+ * O(log n), and finding the k intervals that overlap a query interval takes O(log n + k), because subtrees whose
+ * largest end lies before the query start, or whose smallest start lies after the query end, are skipped.
+ * Not thread-safe.
+ *
+ * @param <P> the type of the interval endpoints
+ * @param <V> the type of the values stored with the intervals
+ */
+public class IntervalTree<P extends Comparable<P>, V> {
+
+    private static final class Node<P, V> {
+        private final P start;
+        private final P end;
+        private final int id;
+        private final V value;
+        private P maxEnd;
+        private int height = 1;
+        private Node<P, V> left;
+        private Node<P, V> right;
+
+        private Node(P start, P end, int id, V value) {
+            this.start = start;
+            this.end = end;
+            this.id = id;
+            this.value = value;
+            this.maxEnd = end;
+        }
+    }
+
+    private Node<P, V> root;
+    private int size;
+
+    /**
+     * Adds the interval. An interval with the same start and ID is replaced.
+     */
+    public void insert(P start, P end, int id, V value) {
+        if (start.compareTo(end) > 0) {
+            throw new IllegalArgumentException("Interval start " + start + " is after its end " + end + ".");
+        }
+        root = insert(root, new Node<>(start, end, id, value));
+    }
+
+    /**
+     * Removes the interval with the given start and ID.
+     *
+     * @return true if it was in the tree
+     */
+    public boolean remove(P start, int id) {
+        int before = size;
+        root = remove(root, start, id);
+        return size < before;
+    }
+
+    /**
+     * @return the values of all intervals that share at least one point with {@code [start, end]},
+     *         in order of their start
+     */
+    public List<V> findOverlapping(P start, P end) {
+        List<V> found = new ArrayList<>();
+        collectOverlapping(root, start, end, found);
+        return found;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the number of levels, which an AVL tree keeps below {@code 1.45 * log2(size + 2)}
+     */
+    int height() {
+        return height(root);
+    }
+
+    private void collectOverlapping(Node<P, V> node, P start, P end, List<V> found) {
+        if (node == null || node.maxEnd.compareTo(start) < 0) {
+            return;
+        }
+        collectOverlapping(node.left, start, end, found);
+        if (node.start.compareTo(end) > 0) {
+            return;
+        }
+        if (node.end.compareTo(start) >= 0) {
+            found.add(node.value);
+        }
+        collectOverlapping(node.right, start, end, found);
+    }
+
+    private Node<P, V> insert(Node<P, V> node, Node<P, V> added) {
+        if (node == null) {
+            size++;
+            return added;
+        }
+        int order = compare(added.start, added.id, node);
+        if (order == 0) {
+            added.left = node.left;
+            added.right = node.right;
+            return rebalance(added);
+        }
+        if (order < 0) {
+            node.left = insert(node.left, added);
+        } else {
+            node.right = insert(node.right, added);
+        }
+        return rebalance(node);
+    }
+
+    private Node<P, V> remove(Node<P, V> node, P start, int id) {
+        if (node == null) {
+            return null;
+        }
+        int order = compare(start, id, node);
+        if (order < 0) {
+            node.left = remove(node.left, start, id);
+        } else if (order > 0) {
+            node.right = remove(node.right, start, id);
+        } else {
+            size--;
+            if (node.left == null || node.right == null) {
+                return node.left != null ? node.left : node.right;
+            }
+            Node<P, V> successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            Node<P, V> replacement = new Node<>(successor.start, successor.end, successor.id, successor.value);
+            size++;
+            replacement.right = remove(node.right, successor.start, successor.id);
+            replacement.left = node.left;
+            return rebalance(replacement);
+        }
+        return rebalance(node);
+    }
+
+    private int compare(P start, int id, Node<P, V> node) {
+        int order = start.compareTo(node.start);
+        return order != 0 ? order : Integer.compare(id, node.id);
+    }
+
+    private Node<P, V> rebalance(Node<P, V> node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private Node<P, V> rotateLeft(Node<P, V> node) {
+        Node<P, V> pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private Node<P, V> rotateRight(Node<P, V> node) {
+        Node<P, V> pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private void update(Node<P, V> node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        P maxEnd = node.end;
+        if (node.left != null && node.left.maxEnd.compareTo(maxEnd) > 0) {
+            maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd.compareTo(maxEnd) > 0) {
+            maxEnd = node.right.maxEnd;
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private int height(Node<P, V> node) {
+        return node == null ? 0 : node.height;
+    }
+}
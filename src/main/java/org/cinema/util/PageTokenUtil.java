@@ -0,0 +1,52 @@
+package org.cinema.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Encodes the sort key of the last row of a page into an opaque, URL-safe page token and back.
+ * Keyset pagination continues right after that key, so a page costs the same however deep it is.
+ */
+@Slf4j
+public class PageTokenUtil {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * @param keyParts the sort key columns of the last row; {@code null} parts are kept as empty strings
+     */
+    public static String encode(Object... keyParts) {
+        String key = Arrays.stream(keyParts)
+                .map(part -> Objects.toString(part, ""))
+                .collect(Collectors.joining(SEPARATOR));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param token         the page token, or {@code null}/blank for the first page
+     * @param expectedParts number of sort key columns the token has to contain
+     * @return the key parts, or {@code null} for the first page
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static String[] decode(String token, int expectedParts) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            String[] parts = key.split("\\|", -1);
+            if (parts.length == expectedParts) {
+                return parts;
+            }
+        } catch (IllegalArgumentException e) {
+            log.debug("Page token '{}' is not valid Base64: {}", token, e.getMessage());
+        }
+        log.error("Validation failed: page token '{}' is malformed", token);
+        throw new IllegalArgumentException("Invalid page token.");
+    }
+}
@@ -6,13 +6,17 @@ import org.mindrot.jbcrypt.BCrypt;
 /**
  * Utility class for password hashing and validation using bcrypt.
  * This class provides methods to securely hash passwords with a salt and verify passwords against stored hashes.
+ * New hashes use the cost factor {@code password.bcrypt.cost}; hashes made with another cost still verify,
+ * and {@link #needsRehash(String)} tells when one should be replaced.
  */
 @Slf4j
 public class PasswordUtil {
 
+    private static final int cost = PropertiesUtil.getInt("password.bcrypt.cost", 10);
+
     public static String hashPassword(String password) {
         try {
-            String hashedPassword = BCrypt.hashpw(password, BCrypt.gensalt());
+            String hashedPassword = BCrypt.hashpw(password, BCrypt.gensalt(cost));
             log.debug("Password hashed successfully.");
             return hashedPassword;
         } catch (Exception e) {
@@ -29,4 +33,21 @@ public class PasswordUtil {
             throw new RuntimeException("Error checking password", e);
         }
     }
+
+    /**
+     * @return true if the hash wasn't made with the configured cost factor, or isn't a bcrypt hash this class
+     *         can read the cost factor of
+     */
+    public static boolean needsRehash(String storedHash) {
+        // $2a$10$<salt and hash>: the cost factor is the two digits after the second '$'
+        if (storedHash == null || storedHash.length() < 7 || storedHash.charAt(0) != '$'
+                || storedHash.charAt(3) != '$' || storedHash.charAt(6) != '$') {
+            return true;
+        }
+        try {
+            return Integer.parseInt(storedHash.substring(4, 6)) != cost;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
 }
@@ -0,0 +1,46 @@
+package org.cinema.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * Utility class for reading tunables from {@code application.properties}.
+ * A JVM system property with the same key takes precedence over the file, so a single node can be tuned
+ * with {@code -Dkey=value} without rebuilding the war.
+ */
+@Slf4j
+public class PropertiesUtil {
+
+    private static final Properties properties = new Properties();
+
+    static {
+        try (InputStream input = PropertiesUtil.class.getClassLoader().getResourceAsStream("application.properties")) {
+            if (input != null) {
+                properties.load(input);
+            }
+        } catch (IOException e) {
+            log.error("Failed to load application.properties: {}", e.getMessage());
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static String get(String key, String defaultValue) {
+        return System.getProperty(key, properties.getProperty(key, defaultValue));
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        String value = get(key, null);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            log.warn("Property '{}' has invalid value '{}', using default {}", key, value, defaultValue);
+            return defaultValue;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package org.cinema.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.cinema.dto.AuthenticatedUser;
+import org.cinema.model.Role;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Issues and verifies the signed session tokens of the {@code token} session mode.
+ * A token carries the user's ID, role and expiry time, signed with HMAC-SHA256 under {@code auth.token.secret},
+ * so any node sharing the secret can verify it without server-side state. Tokens signed under
+ * {@code auth.token.previous.secret} are still accepted, so the secret can be rotated without signing everyone out.
+ */
+@Slf4j
+public class SessionTokenUtil {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String SEPARATOR = "|";
+    private static final int MIN_SECRET_LENGTH = 32;
+
+    private static final Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder decoder = Base64.getUrlDecoder();
+
+    private static final int ttlSeconds = PropertiesUtil.getInt("auth.token.ttl.seconds", 1800);
+    private static final List<SecretKeySpec> keys = loadKeys();
+
+    /**
+     * A verified token: the user it was issued to and the time it expires at.
+     */
+    public record SessionToken(AuthenticatedUser user, Instant expiresAt) {
+    }
+
+    /**
+     * @return whether {@code auth.token.secret} is set; every node has to share it, so without it tokens can't be
+     *         issued at all
+     */
+    public static boolean isSecretConfigured() {
+        return !keys.isEmpty();
+    }
+
+    public static int getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    /**
+     * @return a token for the user that expires {@code auth.token.ttl.seconds} from now
+     * @throws IllegalStateException if {@code auth.token.secret} isn't set
+     */
+    public static String issue(AuthenticatedUser user) {
+        if (keys.isEmpty()) {
+            throw new IllegalStateException("auth.token.secret isn't set, session tokens can't be issued.");
+        }
+        long expiresAt = Instant.now().getEpochSecond() + ttlSeconds;
+        String payload = encoder.encodeToString((user.getUserId() + SEPARATOR + user.getRole() + SEPARATOR + expiresAt)
+                .getBytes(StandardCharsets.UTF_8));
+        return payload + "." + encoder.encodeToString(sign(keys.get(0), payload));
+    }
+
+    /**
+     * @param token the token, or {@code null}
+     * @return the token's claims, or empty if it is missing, malformed, not signed under a configured secret
+     *         or expired
+     */
+    public static Optional<SessionToken> verify(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot != token.lastIndexOf('.')) {
+            log.debug("Session token is malformed.");
+            return Optional.empty();
+        }
+        String payload = token.substring(0, dot);
+        try {
+            byte[] signature = decoder.decode(token.substring(dot + 1));
+            if (keys.stream().noneMatch(key -> MessageDigest.isEqual(sign(key, payload), signature))) {
+                log.warn("Session token with an invalid signature rejected.");
+                return Optional.empty();
+            }
+
+            String[] parts = new String(decoder.decode(payload), StandardCharsets.UTF_8).split("\\|", -1);
+            if (parts.length != 3) {
+                log.warn("Signed session token has {} parts instead of 3.", parts.length);
+                return Optional.empty();
+            }
+            Instant expiresAt = Instant.ofEpochSecond(Long.parseLong(parts[2]));
+            if (!expiresAt.isAfter(Instant.now())) {
+                log.debug("Session token of user {} expired at {}.", parts[0], expiresAt);
+                return Optional.empty();
+            }
+            return Optional.of(new SessionToken(
+                    new AuthenticatedUser(Integer.parseInt(parts[0]), Role.valueOf(parts[1])), expiresAt));
+        } catch (IllegalArgumentException e) {
+            log.debug("Session token is malformed: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static byte[] sign(SecretKeySpec key, String payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available.", e);
+        }
+    }
+
+    private static List<SecretKeySpec> loadKeys() {
+        List<SecretKeySpec> loaded = new ArrayList<>();
+        String secret = PropertiesUtil.get("auth.token.secret", "");
+        if (!secret.isBlank()) {
+            loaded.add(toKey("auth.token.secret", secret));
+            String previous = PropertiesUtil.get("auth.token.previous.secret", "");
+            if (!previous.isBlank()) {
+                loaded.add(toKey("auth.token.previous.secret", previous));
+            }
+        }
+        return List.copyOf(loaded);
+    }
+
+    private static SecretKeySpec toKey(String property, String secret) {
+        byte[] bytes = secret.trim().getBytes(StandardCharsets.UTF_8);
+        if (bytes.length < MIN_SECRET_LENGTH) {
+            log.warn("Property '{}' is shorter than {} bytes, use a longer random secret.", property, MIN_SECRET_LENGTH);
+        }
+        return new SecretKeySpec(bytes, ALGORITHM);
+    }
+}
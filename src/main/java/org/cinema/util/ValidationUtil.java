@@ -2,11 +2,14 @@ package org.cinema.util;
 
 import lombok.extern.slf4j.Slf4j;
 import org.cinema.model.Role;
+import org.cinema.model.Status;
 
 import javax.xml.bind.ValidationException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
 import java.util.Objects;
 
 @Slf4j
@@ -111,6 +114,77 @@ public class ValidationUtil {
         }
     }
 
+    public static void validateSeatCount(List<String> seatNumbers, int maxSeats) {
+        if (seatNumbers == null || seatNumbers.isEmpty()) {
+            log.error("Validation failed: no seats selected");
+            throw new IllegalArgumentException("Select at least one seat.");
+        }
+        if (seatNumbers.size() > maxSeats) {
+            log.error("Validation failed: {} seats selected, maximum is {}", seatNumbers.size(), maxSeats);
+            throw new IllegalArgumentException("You can buy at most " + maxSeats + " tickets at once.");
+        }
+    }
+
+    public static int parseSeatCount(String seatCountStr, int maxSeats) {
+        validateNotBlank(seatCountStr, "Number of seats");
+        try {
+            int seatCount = Integer.parseInt(seatCountStr.trim());
+            if (seatCount <= 0 || seatCount > maxSeats) {
+                log.error("Validation failed: number of seats '{}' is out of range 1..{}", seatCount, maxSeats);
+                throw new IllegalArgumentException("Number of seats must be between 1 and " + maxSeats + ".");
+            }
+            return seatCount;
+        } catch (NumberFormatException e) {
+            log.error("Validation failed: number of seats '{}' has invalid format", seatCountStr);
+            throw new IllegalArgumentException("Invalid number of seats format.");
+        }
+    }
+
+    public static int parseRepeatDays(String repeatDaysStr, int maxDays) {
+        validateNotBlank(repeatDaysStr, "Number of days");
+        try {
+            int days = Integer.parseInt(repeatDaysStr.trim());
+            if (days <= 0 || days > maxDays) {
+                log.error("Validation failed: number of days '{}' is out of range 1..{}", days, maxDays);
+                throw new IllegalArgumentException("Number of days must be between 1 and " + maxDays + ".");
+            }
+            return days;
+        } catch (NumberFormatException e) {
+            log.error("Validation failed: number of days '{}' has invalid format", repeatDaysStr);
+            throw new IllegalArgumentException("Invalid number of days format.");
+        }
+    }
+
+    public static int parseAgeMinutes(String minutesStr, int maxMinutes) {
+        validateNotBlank(minutesStr, "Age in minutes");
+        try {
+            int minutes = Integer.parseInt(minutesStr.trim());
+            if (minutes <= 0 || minutes > maxMinutes) {
+                log.error("Validation failed: age in minutes '{}' is out of range 1..{}", minutes, maxMinutes);
+                throw new IllegalArgumentException("Age in minutes must be between 1 and " + maxMinutes + ".");
+            }
+            return minutes;
+        } catch (NumberFormatException e) {
+            log.error("Validation failed: age in minutes '{}' has invalid format", minutesStr);
+            throw new IllegalArgumentException("Invalid age in minutes format.");
+        }
+    }
+
+    public static int parseSeatNumber(String seatNumberStr) {
+        validateNotBlank(seatNumberStr, "Seat number");
+        try {
+            int seatNum = Integer.parseInt(seatNumberStr.trim());
+            if (seatNum <= 0) {
+                log.error("Validation failed: seat number '{}' is not positive", seatNum);
+                throw new IllegalArgumentException("Seat number must be a positive integer.");
+            }
+            return seatNum;
+        } catch (NumberFormatException e) {
+            log.error("Validation failed: seat number '{}' has invalid format", seatNumberStr);
+            throw new IllegalArgumentException("Invalid seat number format.");
+        }
+    }
+
     public static int parseId(String id) {
         validateNotBlank(id, "ID");
         try {
@@ -126,6 +200,61 @@ public class ValidationUtil {
         }
     }
 
+    /**
+     * Parses the version an edit form was rendered from.
+     */
+    public static int parseVersion(String version) {
+        validateNotBlank(version, "Version");
+        try {
+            int parsedVersion = Integer.parseInt(version);
+            if (parsedVersion < 0) {
+                log.error("Validation failed: version '{}' is negative", version);
+                throw new IllegalArgumentException("Version must not be negative.");
+            }
+            return parsedVersion;
+        } catch (NumberFormatException e) {
+            log.error("Validation failed: version '{}' has invalid format", version);
+            throw new IllegalArgumentException("Version must be a valid integer.");
+        }
+    }
+
+    /**
+     * @return the parsed date, or {@code null} if the value is blank
+     */
+    public static LocalDate parseOptionalDate(String dateStr, String fieldName) {
+        if (isNullOrBlank(dateStr)) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(dateStr.trim());
+        } catch (DateTimeParseException e) {
+            log.error("Validation failed: {} '{}' has invalid format", fieldName, dateStr);
+            throw new IllegalArgumentException("Invalid " + fieldName.toLowerCase() + " format.");
+        }
+    }
+
+    public static void validateDateRange(LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            log.error("Validation failed: date range '{}'..'{}' is reversed", from, to);
+            throw new IllegalArgumentException("Start date must not be after end date.");
+        }
+    }
+
+    /**
+     * @return the parsed status, or {@code null} if the value is blank
+     */
+    public static Status parseOptionalStatus(String statusStr) {
+        if (isNullOrBlank(statusStr)) {
+            return null;
+        }
+        try {
+            return Status.valueOf(statusStr.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            log.error("Validation failed: status '{}' is not valid", statusStr);
+            throw new IllegalArgumentException("Invalid status selected.");
+        }
+    }
+
     public static void validateTitle(String title) {
         validateNotBlank(title, "Movie title");
     }
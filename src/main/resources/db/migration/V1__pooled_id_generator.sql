@@ -0,0 +1,19 @@
+-- Moves users, movies, film_session and ticket from AUTO_INCREMENT ids to the pooled table generator.
+-- Every segment starts right after the highest existing id, so ids already handed out are never reused.
+-- Running it again is harmless.
+-- The AUTO_INCREMENT attribute stays on the id columns, but the application no longer relies on it.
+
+CREATE TABLE IF NOT EXISTS `id_sequence` (
+    `sequence_name` VARCHAR(255) NOT NULL COLLATE 'utf8mb4_0900_ai_ci',
+    `next_val` BIGINT NOT NULL,
+    PRIMARY KEY (`sequence_name`) USING BTREE
+);
+
+INSERT INTO `id_sequence` (`sequence_name`, `next_val`)
+SELECT * FROM (
+    SELECT 'users' AS `sequence_name`, COALESCE(MAX(`id`), 0) + 1 AS `next_val` FROM `users`
+    UNION ALL SELECT 'movies', COALESCE(MAX(`id`), 0) + 1 FROM `movies`
+    UNION ALL SELECT 'film_session', COALESCE(MAX(`id`), 0) + 1 FROM `film_session`
+    UNION ALL SELECT 'ticket', COALESCE(MAX(`id`), 0) + 1 FROM `ticket`
+) AS `current_max`
+ON DUPLICATE KEY UPDATE `next_val` = GREATEST(`id_sequence`.`next_val`, `current_max`.`next_val`);
@@ -0,0 +1,57 @@
+-- Indexes for the query patterns of the repositories.
+-- Databases created from init.sql or by the former hbm2ddl update already have some of them,
+-- so every index is created only if an equivalent one is missing; running the script again is harmless.
+
+-- film_session(date, start_time): sessions of a day in start order and the keyset pages of the admin list.
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.statistics WHERE table_schema = DATABASE()
+        AND table_name = 'film_session' AND index_name = 'idx_film_session_date_start'),
+    'DO 0',
+    'CREATE INDEX `idx_film_session_date_start` ON `film_session` (`date`, `start_time`)');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- film_session(movie_title, date): the duplicate check made before every session is saved.
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.statistics WHERE table_schema = DATABASE()
+        AND table_name = 'film_session' AND index_name = 'idx_film_session_title_date'),
+    'DO 0',
+    'CREATE INDEX `idx_film_session_title_date` ON `film_session` (`movie_title`, `date`)');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- ticket(session_id, seat_number): seat lookups of a session; unique, a seat is sold only once.
+-- Seats sold more than once before the key existed stop the migration, listing the tickets involved:
+-- refund and delete all but one ticket of every listed seat, then start the application again.
+SELECT 'Seats sold more than once, the unique seat key can''t be created. Refund and delete all but one ticket of each listed seat, then restart.' AS problem,
+       session_id, seat_number, GROUP_CONCAT(id ORDER BY id) AS ticket_ids
+FROM ticket
+GROUP BY session_id, seat_number
+HAVING COUNT(*) > 1
+ORDER BY session_id, seat_number;
+
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.statistics WHERE table_schema = DATABASE()
+        AND table_name = 'ticket' AND index_name = 'uq_ticket_session_seat'),
+    'DO 0',
+    'CREATE UNIQUE INDEX `uq_ticket_session_seat` ON `ticket` (`session_id`, `seat_number`)');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- ticket(user_id): a user's tickets. The foreign key usually brings such an index along already.
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.statistics WHERE table_schema = DATABASE()
+        AND table_name = 'ticket' AND column_name = 'user_id' AND seq_in_index = 1),
+    'DO 0',
+    'CREATE INDEX `idx_ticket_user` ON `ticket` (`user_id`)');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- users(created_at): the keyset pages of the admin user list.
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.statistics WHERE table_schema = DATABASE()
+        AND table_name = 'users' AND index_name = 'idx_users_created_at'),
+    'DO 0',
+    'CREATE INDEX `idx_users_created_at` ON `users` (`created_at`)');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -0,0 +1,19 @@
+-- Full-text indexes for the movie search: titles on their own, so title matches can be ranked first,
+-- and titles together with directors and actors for the matching itself.
+-- Every index is created only if it is missing; running the script again is harmless.
+
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.statistics WHERE table_schema = DATABASE()
+        AND table_name = 'movies' AND index_name = 'ft_movies_title'),
+    'DO 0',
+    'CREATE FULLTEXT INDEX `ft_movies_title` ON `movies` (`title`)');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.statistics WHERE table_schema = DATABASE()
+        AND table_name = 'movies' AND index_name = 'ft_movies_search'),
+    'DO 0',
+    'CREATE FULLTEXT INDEX `ft_movies_search` ON `movies` (`title`, `director`, `actors`)');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -0,0 +1,19 @@
+-- Version columns for the optimistic locking of film sessions and tickets.
+-- Rows inserted without going through Hibernate (e.g. the batched ticket purchase) start at version 0.
+-- Every column is added only if it is missing; running the script again is harmless.
+
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.columns WHERE table_schema = DATABASE()
+        AND table_name = 'film_session' AND column_name = 'version'),
+    'DO 0',
+    'ALTER TABLE `film_session` ADD COLUMN `version` INT NOT NULL DEFAULT 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.columns WHERE table_schema = DATABASE()
+        AND table_name = 'ticket' AND column_name = 'version'),
+    'DO 0',
+    'ALTER TABLE `ticket` ADD COLUMN `version` INT NOT NULL DEFAULT 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -0,0 +1,10 @@
+-- ticket(status, purchase_time): cancelling the pending tickets that were bought before a cutoff.
+-- The index is created only if it is missing; running the script again is harmless.
+
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.statistics WHERE table_schema = DATABASE()
+        AND table_name = 'ticket' AND index_name = 'idx_ticket_status_purchase'),
+    'DO 0',
+    'CREATE INDEX `idx_ticket_status_purchase` ON `ticket` (`status`, `purchase_time`)');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -0,0 +1,12 @@
+-- cache_change_log: entity-change events that every web node tails to evict its local caches.
+-- Nodes poll by primary key (id > last seen id), and old events are purged by created_at.
+
+CREATE TABLE IF NOT EXISTS `cache_change_log` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT,
+    `region` VARCHAR(64) NOT NULL,
+    `entity_key` VARCHAR(255) NOT NULL,
+    `node_id` VARCHAR(64) NOT NULL,
+    `created_at` DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    PRIMARY KEY (`id`) USING BTREE,
+    INDEX `idx_cache_change_log_created` (`created_at`) USING BTREE
+);
@@ -0,0 +1,28 @@
+-- seat_hold and waiting_room, which databases older than the migrations only got from the former hbm2ddl update.
+-- Databases created from init.sql or by hbm2ddl already have them, so both tables are created only if missing;
+-- running the script again is harmless.
+
+-- seat_hold: temporary seat holds during checkout, one per seat of a session, swept by expires_at.
+CREATE TABLE IF NOT EXISTS `seat_hold` (
+    `id` INT NOT NULL AUTO_INCREMENT,
+    `session_id` INT NOT NULL,
+    `seat_number` INT NOT NULL,
+    `user_id` INT NOT NULL,
+    `expires_at` DATETIME NOT NULL,
+    PRIMARY KEY (`id`) USING BTREE,
+    UNIQUE INDEX `uq_seat_hold_session_seat` (`session_id`, `seat_number`) USING BTREE,
+    INDEX `idx_seat_hold_expires` (`expires_at`) USING BTREE
+);
+
+-- waiting_room: one entry per user queueing for a session; admitted entries carry admitted_until.
+CREATE TABLE IF NOT EXISTS `waiting_room` (
+    `id` INT NOT NULL AUTO_INCREMENT,
+    `session_id` INT NOT NULL,
+    `user_id` INT NOT NULL,
+    `last_seen_at` DATETIME NOT NULL,
+    `admitted_until` DATETIME NULL DEFAULT NULL,
+    PRIMARY KEY (`id`) USING BTREE,
+    UNIQUE INDEX `uq_waiting_room_session_user` (`session_id`, `user_id`) USING BTREE,
+    INDEX `idx_waiting_room_admitted` (`session_id`, `admitted_until`) USING BTREE,
+    INDEX `idx_waiting_room_last_seen` (`last_seen_at`) USING BTREE
+);
@@ -0,0 +1,19 @@
+-- The waiting room is switched on per film session (film_session.waiting_room), and an admission has to be
+-- claimed by the user's next purchase request (waiting_room.claimed_at) before it runs for its full length.
+-- Every column is added only if it is missing; running the script again is harmless.
+
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.columns WHERE table_schema = DATABASE()
+        AND table_name = 'film_session' AND column_name = 'waiting_room'),
+    'DO 0',
+    'ALTER TABLE `film_session` ADD COLUMN `waiting_room` BOOLEAN NOT NULL DEFAULT FALSE');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.columns WHERE table_schema = DATABASE()
+        AND table_name = 'waiting_room' AND column_name = 'claimed_at'),
+    'DO 0',
+    'ALTER TABLE `waiting_room` ADD COLUMN `claimed_at` DATETIME NULL DEFAULT NULL');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
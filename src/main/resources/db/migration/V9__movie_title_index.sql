@@ -0,0 +1,10 @@
+-- B-tree index on movie titles for the exact title lookup used when film sessions are scheduled.
+-- The index is created only if it is missing; running the script again is harmless.
+
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.statistics WHERE table_schema = DATABASE()
+        AND table_name = 'movies' AND index_name = 'idx_movies_title'),
+    'DO 0',
+    'CREATE INDEX `idx_movies_title` ON `movies` (`title`)');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -1,4 +1,4 @@
-<%@ page contentType="text/html;charset=UTF-8" language="java" %>
+<%@ page contentType="text/html;charset=UTF-8" language="java" session="false" %>
 <%@ taglib uri="http://java.sun.com/jsp/jstl/core" prefix="c" %>
 <html>
 <head>
@@ -50,7 +50,6 @@
     <div class="alert alert-warning text-center">
         ${message}
     </div>
-    ${pageContext.session.removeAttribute("message")}
   </c:if>
 
   <div class="row">
@@ -1,4 +1,4 @@
-<%@ page contentType="text/html;charset=UTF-8" language="java" %>
+<%@ page contentType="text/html;charset=UTF-8" language="java" session="false" %>
 <%@ taglib uri="http://java.sun.com/jsp/jstl/core" prefix="c" %>
 <%@ page import="java.time.format.DateTimeFormatter" %>
 <html>
@@ -24,17 +24,34 @@
          role="alert">
         ${message}
     </div>
-    ${pageContext.session.removeAttribute("message")}
   </c:if>
 
+  <div class="d-flex flex-wrap justify-content-center gap-3 mb-3">
+    <form method="post" action="${pageContext.request.contextPath}/admin/tickets/confirm" class="d-flex gap-2">
+      <input type="hidden" name="action" value="confirmSession">
+      <input type="number" name="sessionId" min="1" class="form-control form-control-sm" placeholder="Session ID" required>
+      <button type="submit" class="btn btn-outline-success btn-sm text-nowrap">Confirm all pending of session</button>
+    </form>
+    <form method="post" action="${pageContext.request.contextPath}/admin/tickets/confirm" class="d-flex gap-2">
+      <input type="hidden" name="action" value="cancelStale">
+      <input type="number" name="olderThanMinutes" min="1" class="form-control form-control-sm" placeholder="Minutes" required>
+      <button type="submit" class="btn btn-outline-danger btn-sm text-nowrap">Cancel pending older than</button>
+    </form>
+  </div>
+
   <c:choose>
     <c:when test="${empty tickets}">
       <p class="text-center">No tickets available.</p>
     </c:when>
     <c:otherwise>
+      <form method="post" action="${pageContext.request.contextPath}/admin/tickets/confirm" id="bulkActionForm" class="mb-2">
+        <button type="submit" name="action" value="confirmSelected" class="btn btn-success btn-sm">Confirm Selected</button>
+        <button type="submit" name="action" value="cancelSelected" class="btn btn-danger btn-sm">Cancel Selected</button>
+      </form>
       <table class="table table-bordered">
         <thead>
         <tr>
+          <th></th>
           <th>Ticket ID</th>
           <th>User</th>
           <th>Session</th>
@@ -48,9 +65,14 @@
         <tbody>
         <c:forEach var="ticket" items="${tickets}">
           <tr>
+            <td>
+              <c:if test="${ticket.status == 'PENDING'}">
+                <input type="checkbox" name="ids" value="${ticket.id}" form="bulkActionForm">
+              </c:if>
+            </td>
             <td>${ticket.id}</td>
-            <td>${ticket.user.username}</td>
-            <td>${ticket.filmSession.movieTitle}</td>
+            <td>${ticket.username}</td>
+            <td>${ticket.movieTitle}</td>
             <td>${ticket.seatNumber}</td>
             <td><c:out value="${ticket.purchaseTime.format(DateTimeFormatter.ofPattern('dd.MM.yyyy HH:mm'))}" /></td>
             <td>${ticket.status}</td>
@@ -107,6 +129,18 @@
       </table>
     </c:otherwise>
   </c:choose>
+
+  <c:if test="${not empty param.page or not empty nextPageToken}">
+      <nav class="d-flex justify-content-center gap-2 mb-3">
+          <c:if test="${not empty param.page}">
+              <a href="${pageContext.request.contextPath}/admin/tickets/confirm" class="btn btn-outline-secondary btn-sm">First page</a>
+          </c:if>
+          <c:if test="${not empty nextPageToken}">
+              <c:url var="nextPageUrl" value="/admin/tickets/confirm"><c:param name="page" value="${nextPageToken}"/></c:url>
+              <a href="${nextPageUrl}" class="btn btn-outline-primary btn-sm">Next page</a>
+          </c:if>
+      </nav>
+  </c:if>
 </div>
 </body>
 </html>
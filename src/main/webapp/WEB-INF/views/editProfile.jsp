@@ -1,3 +1,4 @@
+<%@ page session="false" %>
 <%@ taglib uri="http://java.sun.com/jsp/jstl/core" prefix="c" %>
 <html>
 <head>
@@ -18,7 +19,6 @@
            role="alert">
           ${message}
       </div>
-      ${pageContext.session.removeAttribute("message")}
     </c:if>
 
     <form method="post" action="${pageContext.request.contextPath}/user/edit">
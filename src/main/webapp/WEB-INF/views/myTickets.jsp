@@ -1,4 +1,4 @@
-<%@ page contentType="text/html;charset=UTF-8" language="java" %>
+<%@ page contentType="text/html;charset=UTF-8" language="java" session="false" %>
 <%@ taglib uri="http://java.sun.com/jsp/jstl/core" prefix="c" %>
 <html lang="en">
 <head>
@@ -49,7 +49,6 @@
              role="alert">
                 ${message}
         </div>
-        ${pageContext.session.removeAttribute("message")}
     </c:if>
 
     <c:if test="${empty tickets}">
@@ -73,7 +72,7 @@
                 <c:forEach var="ticket" items="${tickets}">
                     <tr>
                         <td>${ticket.id}</td>
-                        <td>${ticket.filmSession.movieTitle}</td>
+                        <td>${ticket.movieTitle}</td>
                         <td>${ticket.seatNumber}</td>
                         <td>${ticket.status}</td>
                         <td>${ticket.requestType}</td>
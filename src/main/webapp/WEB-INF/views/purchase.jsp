@@ -1,4 +1,4 @@
-<%@ page contentType="text/html;charset=UTF-8" language="java" %>
+<%@ page contentType="text/html;charset=UTF-8" language="java" session="false" %>
 <%@ taglib uri="http://java.sun.com/jsp/jstl/core" prefix="c" %>
 <html>
 <head>
@@ -25,7 +25,6 @@
            role="alert">
           ${message}
       </div>
-      ${pageContext.session.removeAttribute("message")}
     </c:if>
 
     <form action="${pageContext.request.contextPath}/user/tickets/purchase" method="get" class="mb-4 text-center">
@@ -54,24 +53,39 @@
 
     <c:if test="${not empty selectedSession}">
       <h3 class="text-center">Select your seat for '${selectedSession.movieTitle}'</h3>
+      <form action="${pageContext.request.contextPath}/user/tickets/purchase" method="get" class="mb-4 text-center">
+        <input type="hidden" name="sessionId" value="${selectedSession.id}">
+        <input type="hidden" name="date" value="${selectedDate}">
+        <div class="mb-3">
+          <label for="seatCount" class="form-label">Seats together:</label>
+          <input type="number" name="seatCount" id="seatCount" class="form-control ${not empty seatCountError ? 'is-invalid' : ''}"
+                 min="1" max="${maxSeatsTogether}" value="${seatCount}">
+          <c:if test="${not empty seatCountError}">
+            <div class="invalid-feedback">${seatCountError}</div>
+          </c:if>
+        </div>
+        <button type="submit" class="btn btn-secondary mx-auto d-block">Find Best Seats</button>
+      </form>
       <h2 class="text-center">+--------------------------------+</h2>
       <h2 class="text-center">|----------- SCREEN -----------|</h2>
       <h2 class="text-center">+--------------------------------+</h2>
       <form action="${pageContext.request.contextPath}/user/tickets/purchase" method="post" id="seatForm" class="text-center">
         <input type="hidden" name="sessionId" value="${selectedSession.id}">
-        <input type="hidden" name="seatNumber" id="selectedSeat" value="">
+        <input type="hidden" name="seatNumbers" id="selectedSeats" value="">
         <div class="seat-map">
           <c:forEach var="row" begin="0" end="${(selectedSession.capacity / 10) - 1}">
             <div class="seat-row">
               <c:forEach var="seat" begin="${row * 10 + 1}" end="${row * 10 + 10}">
-                <button type="button" class="seat-btn ${selectedSession.takenSeats.contains(seat) ? 'taken' : ''}"
-                        data-seat-number="${seat}" ${selectedSession.takenSeats.contains(seat) ? 'disabled' : ''}>
+                <c:set var="seatState" value="${selectedSession.seatInventory.getState(seat)}"/>
+                <button type="button" class="seat-btn ${seatState.cssClass}"
+                        data-seat-number="${seat}" ${seatState.free ? '' : 'disabled'}>
                     ${seat}
                 </button>
               </c:forEach>
             </div>
           </c:forEach>
         </div>
+        <p class="mt-3 mb-0">Selected seats: <span id="selectedSeatsLabel">none</span></p>
         <button type="submit" class="btn btn-success mt-3 mx-auto d-block">Purchase</button>
       </form>
     </c:if>
@@ -79,19 +93,59 @@
 </div>
 
 <script>
+  const holdUrl = '${pageContext.request.contextPath}/user/tickets/hold';
+  const selectedSeatsInput = document.getElementById('selectedSeats');
+  const selectedSeatsLabel = document.getElementById('selectedSeatsLabel');
+
+  function sendHoldRequest(action, seatNumber) {
+    const body = new URLSearchParams({
+      action: action,
+      sessionId: document.querySelector('#seatForm input[name="sessionId"]').value,
+      seatNumber: seatNumber
+    });
+    return fetch(holdUrl, { method: 'POST', body: body }).then(response => response.json());
+  }
+
+  function updateSelectedSeats() {
+    const seats = Array.from(document.querySelectorAll('.seat-btn.selected'))
+        .map(button => button.getAttribute('data-seat-number'));
+    selectedSeatsInput.value = seats.join(',');
+    selectedSeatsLabel.textContent = seats.length > 0 ? seats.join(', ') : 'none';
+  }
+
+  const suggestedSeats = [<c:forEach var="seat" items="${suggestedSeats}" varStatus="status">${seat}${status.last ? '' : ','}</c:forEach>];
+
   document.querySelectorAll('.seat-btn').forEach(button => {
     button.addEventListener('click', () => {
-      const selectedSeatInput = document.getElementById('selectedSeat');
-      const previouslySelected = document.querySelector('.seat-btn.selected');
+      const seatNumber = button.getAttribute('data-seat-number');
 
-      if (previouslySelected) {
-        previouslySelected.classList.remove('selected');
+      if (button.classList.contains('selected')) {
+        button.classList.remove('selected');
+        updateSelectedSeats();
+        sendHoldRequest('release', seatNumber);
+        return;
       }
 
-      button.classList.add('selected');
-      selectedSeatInput.value = button.getAttribute('data-seat-number');
+      sendHoldRequest('hold', seatNumber).then(result => {
+        if (!result.success) {
+          button.classList.add('held');
+          button.disabled = true;
+          alert(result.message);
+          return;
+        }
+        button.classList.add('selected');
+        updateSelectedSeats();
+      });
     });
   });
+
+  // Suggested seats are only highlighted: a hold is placed when the user picks a seat, never by loading the page.
+  suggestedSeats.forEach(seat => {
+    const button = document.querySelector('.seat-btn[data-seat-number="' + seat + '"]');
+    if (button && !button.disabled) {
+      button.classList.add('suggested');
+    }
+  });
 </script>
 
 <script src="https://cdn.jsdelivr.net/npm/bootstrap@5.3.0-alpha1/dist/js/bootstrap.bundle.min.js"></script>
@@ -1,4 +1,4 @@
-<%@ page contentType="text/html;charset=UTF-8" language="java"%>
+<%@ page contentType="text/html;charset=UTF-8" language="java" session="false" %>
 <%@ taglib uri="http://java.sun.com/jsp/jstl/core" prefix="c" %>
 <%@ page import="java.time.format.DateTimeFormatter" %>
 <html>
@@ -26,7 +26,6 @@
              role="alert">
                 ${message}
         </div>
-        ${pageContext.session.removeAttribute("message")}
     </c:if>
 
     <c:choose>
@@ -34,27 +33,44 @@
             <p class="text-center">No sessions available.</p>
         </c:when>
         <c:otherwise>
+            <form method="post" action="${pageContext.request.contextPath}/admin/sessions" id="bulkDeleteForm" class="mb-2">
+                <input type="hidden" name="action" value="deleteSelected">
+                <button type="submit" class="btn btn-danger btn-sm">Delete Selected</button>
+            </form>
             <table class="table table-bordered">
                 <thead>
                 <tr>
+                    <th></th>
                     <th>Movie</th>
                     <th>Price (BYN)</th>
                     <th>Date</th>
                     <th>Start Time</th>
                     <th>End Time</th>
                     <th>Capacity (people)</th>
+                    <th>Waiting room</th>
                     <th>Actions</th>
                 </tr>
                 </thead>
                 <tbody>
                 <c:forEach var="filmSession" items="${filmSessions}">
                     <tr>
+                        <td><input type="checkbox" name="ids" value="${filmSession.id}" form="bulkDeleteForm"></td>
                         <td>${filmSession.movieTitle}</td>
                         <td>${filmSession.price}</td>
                         <td><c:out value="${filmSession.date.format(DateTimeFormatter.ofPattern('dd.MM.yyyy'))}" /></td>
                         <td><c:out value="${filmSession.startTime.format(DateTimeFormatter.ofPattern('HH:mm'))}" /></td>
                         <td><c:out value="${filmSession.endTime.format(DateTimeFormatter.ofPattern('HH:mm'))}" /></td>
                         <td>${filmSession.capacity}</td>
+                        <td>
+                            <form method="post" action="${pageContext.request.contextPath}/admin/sessions" class="d-inline">
+                                <input type="hidden" name="id" value="${filmSession.id}">
+                                <input type="hidden" name="action" value="waitingRoom">
+                                <input type="hidden" name="enabled" value="${!filmSession.waitingRoom}">
+                                <button type="submit" class="btn btn-sm ${filmSession.waitingRoom ? 'btn-success' : 'btn-outline-secondary'}">
+                                    ${filmSession.waitingRoom ? 'On' : 'Off'}
+                                </button>
+                            </form>
+                        </td>
                         <td>
                             <form method="post" action="${pageContext.request.contextPath}/admin/sessions" class="d-inline">
                                 <input type="hidden" name="id" value="${filmSession.id}">
@@ -74,6 +90,18 @@
         </c:otherwise>
     </c:choose>
 
+    <c:if test="${not empty param.page or not empty nextPageToken}">
+        <nav class="d-flex justify-content-center gap-2 mb-3">
+            <c:if test="${not empty param.page}">
+                <a href="${pageContext.request.contextPath}/admin/sessions" class="btn btn-outline-secondary btn-sm">First page</a>
+            </c:if>
+            <c:if test="${not empty nextPageToken}">
+                <c:url var="nextPageUrl" value="/admin/sessions"><c:param name="page" value="${nextPageToken}"/></c:url>
+                <a href="${nextPageUrl}" class="btn btn-outline-primary btn-sm">Next page</a>
+            </c:if>
+        </nav>
+    </c:if>
+
     <div class="row justify-content-between">
         <div class="col-md-6">
             <h2 class="text-center">Add Session</h2>
@@ -97,6 +125,9 @@
                 <div class="mb-3">
                     <input type="number" class="form-control form-control-sm" name="capacity" placeholder="Capacity" required>
                 </div>
+                <div class="mb-3">
+                    <input type="number" class="form-control form-control-sm" name="repeatDays" placeholder="Repeat for days (1-31)" min="1" max="31">
+                </div>
                 <div class="text-center">
                     <button type="submit" class="btn btn-secondary btn-sm" id="addButton">
                         <span class="button-text">Add</span>
@@ -112,6 +143,7 @@
                 <form method="post" action="${pageContext.request.contextPath}/admin/sessions">
                     <input type="hidden" name="action" value="edit">
                     <input type="hidden" name="id" value="${sessionToEdit.id}">
+                    <input type="hidden" name="version" value="${sessionToEdit.version}">
                     <div class="mb-3">
                         <input type="text" class="form-control form-control-sm" name="movieTitle" value="${sessionToEdit.movieTitle}" required>
                     </div>
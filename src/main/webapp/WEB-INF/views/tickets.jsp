@@ -1,4 +1,4 @@
-<%@ page contentType="text/html;charset=UTF-8" language="java"%>
+<%@ page contentType="text/html;charset=UTF-8" language="java" session="false" %>
 <%@ taglib uri="http://java.sun.com/jsp/jstl/core" prefix="c" %>
 <%@ page import="java.time.format.DateTimeFormatter" %>
 <html>
@@ -26,7 +26,6 @@
              role="alert">
                 ${message}
         </div>
-        ${pageContext.session.removeAttribute("message")}
     </c:if>
 
     <c:choose>
@@ -34,9 +33,14 @@
             <p class="text-center">No tickets available.</p>
         </c:when>
         <c:otherwise>
+            <form method="post" action="${pageContext.request.contextPath}/admin/tickets" id="bulkDeleteForm" class="mb-2">
+                <input type="hidden" name="action" value="deleteSelected">
+                <button type="submit" class="btn btn-danger btn-sm">Delete Selected</button>
+            </form>
             <table class="table table-bordered">
                 <thead>
                 <tr>
+                    <th></th>
                     <th>Ticket ID</th>
                     <th>User</th>
                     <th>Session</th>
@@ -50,11 +54,12 @@
                 <tbody>
                 <c:forEach var="ticket" items="${tickets}">
                     <tr>
+                        <td><input type="checkbox" name="ids" value="${ticket.id}" form="bulkDeleteForm"></td>
                         <td>${ticket.id}</td>
-                        <td>${ticket.user.username}</td>
+                        <td>${ticket.username}</td>
                         <td>
-                                ${ticket.filmSession.movieTitle} -
-                            <c:out value="${ticket.filmSession.date.format(DateTimeFormatter.ofPattern('dd.MM.yyyy'))} ${ticket.filmSession.startTime.format(DateTimeFormatter.ofPattern('HH:mm'))}" />
+                                ${ticket.movieTitle} -
+                            <c:out value="${ticket.date.format(DateTimeFormatter.ofPattern('dd.MM.yyyy'))} ${ticket.startTime.format(DateTimeFormatter.ofPattern('HH:mm'))}" />
                         </td>
                         <td>${ticket.seatNumber}</td>
                         <td><c:out value="${ticket.purchaseTime.format(DateTimeFormatter.ofPattern('dd.MM.yyyy HH:mm'))}" /></td>
@@ -79,18 +84,53 @@
         </c:otherwise>
     </c:choose>
 
+    <c:if test="${not empty param.page or not empty nextPageToken}">
+        <nav class="d-flex justify-content-center gap-2 mb-3">
+            <c:if test="${not empty param.page}">
+                <a href="${pageContext.request.contextPath}/admin/tickets" class="btn btn-outline-secondary btn-sm">First page</a>
+            </c:if>
+            <c:if test="${not empty nextPageToken}">
+                <c:url var="nextPageUrl" value="/admin/tickets"><c:param name="page" value="${nextPageToken}"/></c:url>
+                <a href="${nextPageUrl}" class="btn btn-outline-primary btn-sm">Next page</a>
+            </c:if>
+        </nav>
+    </c:if>
+
+    <form method="get" action="${pageContext.request.contextPath}/admin/tickets/export"
+          class="d-flex flex-wrap align-items-end justify-content-center gap-2 mb-3">
+        <div>
+            <label for="exportFrom" class="form-label mb-0">Purchased from</label>
+            <input type="date" id="exportFrom" name="from" class="form-control form-control-sm">
+        </div>
+        <div>
+            <label for="exportTo" class="form-label mb-0">to</label>
+            <input type="date" id="exportTo" name="to" class="form-control form-control-sm">
+        </div>
+        <select name="status" class="form-select form-select-sm w-auto">
+            <option value="">All statuses</option>
+            <option value="PENDING">Pending</option>
+            <option value="CONFIRMED">Confirmed</option>
+            <option value="CANCELLED">Cancelled</option>
+            <option value="RETURNED">Returned</option>
+        </select>
+        <select name="format" class="form-select form-select-sm w-auto">
+            <option value="csv">CSV</option>
+            <option value="ndjson">NDJSON</option>
+        </select>
+        <div class="form-check">
+            <input type="checkbox" id="exportGzip" name="gzip" value="true" class="form-check-input">
+            <label for="exportGzip" class="form-check-label">gzip</label>
+        </div>
+        <button type="submit" class="btn btn-outline-success btn-sm">Export</button>
+    </form>
+
     <div class="row justify-content-between">
         <div class="col-md-6">
             <h2 class="text-center">Add Ticket</h2>
             <form method="post" action="${pageContext.request.contextPath}/admin/tickets">
                 <input type="hidden" name="action" value="add">
                 <div class="mb-3">
-                    <select class="form-control form-control-sm" name="userId" required>
-                        <option value="" disabled selected>-- Select user --</option>
-                        <c:forEach var="user" items="${users}">
-                            <option value="${user.id}">${user.username}</option>
-                        </c:forEach>
-                    </select>
+                    <input type="number" class="form-control form-control-sm" name="userId" placeholder="User ID" min="1" required>
                 </div>
                 <div class="mb-3">
                     <select class="form-control form-control-sm" name="sessionId" required>
@@ -135,12 +175,10 @@
                 <form method="post" action="${pageContext.request.contextPath}/admin/tickets">
                     <input type="hidden" name="action" value="update">
                     <input type="hidden" name="id" value="${ticketToEdit.id}">
+                    <input type="hidden" name="version" value="${ticketToEdit.version}">
                     <div class="mb-3">
-                        <select class="form-control form-control-sm" placeholder="Select user" name="userId" required>
-                            <c:forEach var="user" items="${users}">
-                                <option value="${user.id}" <c:if test="${user.id == ticketToEdit.user.id}">selected</c:if>>${user.username}</option>
-                            </c:forEach>
-                        </select>
+                        <label class="form-label small">User ID (currently ${ticketToEdit.user.username})</label>
+                        <input type="number" class="form-control form-control-sm" placeholder="User ID" name="userId" value="${ticketToEdit.user.id}" min="1" required>
                     </div>
                     <div class="mb-3">
                         <select class="form-control form-control-sm" placeholder="Select film session" name="sessionId" required>
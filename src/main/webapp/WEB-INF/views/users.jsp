@@ -1,4 +1,4 @@
-<%@ page contentType="text/html;charset=UTF-8" language="java"%>
+<%@ page contentType="text/html;charset=UTF-8" language="java" session="false" %>
 <%@ taglib uri="http://java.sun.com/jsp/jstl/core" prefix="c" %>
 <%@ page import="java.time.format.DateTimeFormatter" %>
 <!DOCTYPE html>
@@ -28,7 +28,6 @@
          role="alert">
         ${message}
     </div>
-    ${pageContext.session.removeAttribute("message")}
   </c:if>
 
   <c:choose>
@@ -81,6 +80,18 @@
     </c:otherwise>
   </c:choose>
 
+  <c:if test="${not empty param.page or not empty nextPageToken}">
+      <nav class="d-flex justify-content-center gap-2 mb-3">
+          <c:if test="${not empty param.page}">
+              <a href="${pageContext.request.contextPath}/admin/users" class="btn btn-outline-secondary btn-sm">First page</a>
+          </c:if>
+          <c:if test="${not empty nextPageToken}">
+              <c:url var="nextPageUrl" value="/admin/users"><c:param name="page" value="${nextPageToken}"/></c:url>
+              <a href="${nextPageUrl}" class="btn btn-outline-primary btn-sm">Next page</a>
+          </c:if>
+      </nav>
+  </c:if>
+
   <div class="row justify-content-between">
     <div class="col-md-6">
       <h2 class="text-center">Add User</h2>
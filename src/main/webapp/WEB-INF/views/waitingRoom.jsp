@@ -0,0 +1,52 @@
+<%@ page contentType="text/html;charset=UTF-8" language="java" session="false" %>
+<%@ taglib uri="http://java.sun.com/jsp/jstl/core" prefix="c" %>
+<html>
+<head>
+  <meta charset="UTF-8">
+  <meta name="viewport" content="width=device-width, initial-scale=1.0">
+  <title>Waiting Room</title>
+  <link href="https://cdn.jsdelivr.net/npm/bootstrap@5.3.0-alpha1/dist/css/bootstrap.min.css" rel="stylesheet">
+  <link rel="stylesheet" href="${pageContext.request.contextPath}/css/style.css">
+</head>
+<body class="bg-dark text-white">
+<div class="container my-5">
+  <div class="form-container mx-auto col-lg-8 text-center">
+    <div class="d-flex justify-content-center align-items-center mb-4 position-relative">
+      <a href="${pageContext.request.contextPath}/user" class="text-secondary text-decoration-none position-absolute start-0">
+        &larr; Back
+      </a>
+      <h1 class="mb-0 text-white text-center">Waiting Room</h1>
+    </div>
+
+    <p>This session is in high demand. You will be taken to seat selection automatically when it is your turn.</p>
+    <h2 class="my-4">Your place in line: <span id="queuePosition">${position}</span></h2>
+    <p class="text-secondary mb-0">Please keep this page open, leaving it will cost you your place.</p>
+  </div>
+</div>
+
+<script>
+  const statusUrl = '${pageContext.request.contextPath}/user/queue/status?sessionId=${sessionId}';
+  const purchaseUrl = '${pageContext.request.contextPath}/user/tickets/purchase?sessionId=${sessionId}';
+  const pollIntervalMillis = ${pollIntervalSeconds} * 1000;
+
+  function pollQueue() {
+    fetch(statusUrl, { cache: 'no-store' })
+        .then(response => response.json())
+        .then(status => {
+          if (status.admitted || status.position === 0) {
+            window.location.href = purchaseUrl;
+            return;
+          }
+          if (status.position) {
+            document.getElementById('queuePosition').textContent = status.position;
+          }
+          setTimeout(pollQueue, pollIntervalMillis);
+        })
+        .catch(() => setTimeout(pollQueue, pollIntervalMillis));
+  }
+
+  setTimeout(pollQueue, pollIntervalMillis);
+</script>
+<script src="https://cdn.jsdelivr.net/npm/bootstrap@5.3.0-alpha1/dist/js/bootstrap.bundle.min.js"></script>
+</body>
+</html>
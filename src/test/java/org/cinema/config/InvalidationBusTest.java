@@ -0,0 +1,180 @@
+package org.cinema.config;
+
+import org.cinema.dto.InvalidationEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InvalidationBusTest {
+
+    private static final long MAX_STALENESS_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long GAP_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final int RETENTION_SECONDS = 3600;
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(5));
+
+    @Test
+    void busesSharingInMemoryTransportApplyEachOthersEvents() {
+        InMemoryInvalidationTransport transport = new InMemoryInvalidationTransport();
+        InvalidationBus first = bus("first", transport);
+        InvalidationBus second = bus("second", transport);
+        List<String> firstKeys = subscribe(first, "movie");
+        List<String> secondKeys = subscribe(second, "movie");
+        List<String> otherRegionKeys = subscribe(second, "user");
+        first.poll();
+        second.poll();
+
+        first.publish("movie", "7");
+        first.poll();
+        second.poll();
+
+        assertEquals(List.of(), firstKeys);
+        assertEquals(List.of("7"), secondKeys);
+        assertEquals(List.of(), otherRegionKeys);
+    }
+
+    @Test
+    void newBusReplaysOnlyRecentEvents() {
+        InMemoryInvalidationTransport transport = new InMemoryInvalidationTransport();
+        for (int i = 1; i <= 150; i++) {
+            transport.publish("movie", String.valueOf(i), "other");
+        }
+        InvalidationBus bus = bus("local", transport);
+        List<String> keys = subscribe(bus, "movie");
+
+        bus.poll();
+
+        assertEquals(100, keys.size());
+        assertEquals("51", keys.get(0));
+        assertEquals("150", keys.get(99));
+    }
+
+    @Test
+    void lateEventIsAppliedOnceWhenItsGapIsFilled() {
+        ScriptedTransport transport = new ScriptedTransport();
+        InvalidationBus bus = bus("local", transport);
+        List<String> keys = subscribe(bus, "movie");
+        bus.poll();
+
+        long late = transport.reserve();
+        transport.publish("movie", "early", "other");
+        bus.poll();
+        advance(TimeUnit.SECONDS.toNanos(10));
+        transport.commit(late, "movie", "late", "other");
+        bus.poll();
+        bus.poll();
+
+        assertEquals(List.of("early", "late"), keys);
+    }
+
+    @Test
+    void gapIsForgottenAfterTimeout() {
+        ScriptedTransport transport = new ScriptedTransport();
+        InvalidationBus bus = bus("local", transport);
+        List<String> keys = subscribe(bus, "movie");
+        bus.poll();
+
+        long rolledBack = transport.reserve();
+        transport.publish("movie", "committed", "other");
+        bus.poll();
+        advance(GAP_TIMEOUT_NANOS + 1);
+        bus.poll();
+        transport.commit(rolledBack, "movie", "too late", "other");
+        bus.poll();
+
+        assertEquals(List.of("committed"), keys);
+    }
+
+    @Test
+    void busThatMissedRetentionDropsEveryRegion() {
+        InMemoryInvalidationTransport transport = new InMemoryInvalidationTransport();
+        InvalidationBus bus = bus("local", transport);
+        List<String> movieKeys = subscribe(bus, "movie");
+        List<String> userKeys = subscribe(bus, "user");
+        bus.poll();
+
+        advance(TimeUnit.SECONDS.toNanos(RETENTION_SECONDS) + 1);
+        bus.poll();
+
+        assertEquals(List.of(InvalidationBus.ALL_KEYS), movieKeys);
+        assertEquals(List.of(InvalidationBus.ALL_KEYS), userKeys);
+    }
+
+    @Test
+    void freshnessFollowsLastPollStart() {
+        InvalidationBus bus = bus("local", new InMemoryInvalidationTransport());
+        assertFalse(bus.isFresh());
+
+        bus.poll();
+        assertTrue(bus.isFresh());
+
+        advance(MAX_STALENESS_NANOS);
+        assertTrue(bus.isFresh());
+
+        advance(1);
+        assertFalse(bus.isFresh());
+
+        bus.poll();
+        assertTrue(bus.isFresh());
+    }
+
+    private InvalidationBus bus(String nodeId, InvalidationTransport transport) {
+        return new InvalidationBus(nodeId, transport, MAX_STALENESS_NANOS, GAP_TIMEOUT_NANOS, RETENTION_SECONDS,
+                clock::get);
+    }
+
+    private static List<String> subscribe(InvalidationBus bus, String region) {
+        List<String> keys = new ArrayList<>();
+        bus.subscribe(region, keys::add);
+        return keys;
+    }
+
+    private void advance(long nanos) {
+        clock.addAndGet(nanos);
+    }
+
+    /**
+     * Transport whose sequence numbers can be assigned before the event becomes readable,
+     * like those of a transaction that is still open or rolls back.
+     */
+    private static class ScriptedTransport implements InvalidationTransport {
+
+        private final TreeMap<Long, InvalidationEvent> readable = new TreeMap<>();
+        private long lastSequence;
+
+        long reserve() {
+            return ++lastSequence;
+        }
+
+        void commit(long sequence, String region, String key, String nodeId) {
+            readable.put(sequence, new InvalidationEvent(sequence, region, key, nodeId));
+        }
+
+        @Override
+        public void publish(String region, String key, String nodeId) {
+            commit(reserve(), region, key, nodeId);
+        }
+
+        @Override
+        public List<InvalidationEvent> receiveAfter(long sequence, int limit) {
+            return readable.tailMap(sequence, false).values().stream().limit(limit).toList();
+        }
+
+        @Override
+        public long latestSequence() {
+            return lastSequence;
+        }
+
+        @Override
+        public void purge(int retentionSeconds) {
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package org.cinema.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SeatInventoryTest {
+
+    @Test
+    void findsBlockEndingAtLastSeatOfPartialRow() {
+        SeatInventory inventory = new SeatInventory(25);
+        markRange(inventory, 1, 23, SeatState.SOLD);
+
+        assertEquals(List.of(24, 25), inventory.findBestBlock(2));
+    }
+
+    @Test
+    void findsBlockEndingAtLastSeatAcrossWordBoundary() {
+        SeatInventory inventory = new SeatInventory(70);
+        markRange(inventory, 1, 68, SeatState.SOLD);
+
+        assertEquals(List.of(69, 70), inventory.findBestBlock(2));
+    }
+
+    @Test
+    void singleSeatIsTakenFromCentreOfMiddleRow() {
+        SeatInventory inventory = new SeatInventory(30);
+
+        assertEquals(List.of(15), inventory.findBestBlock(1));
+    }
+
+    @Test
+    void rowBehindMiddleWinsTie() {
+        SeatInventory inventory = new SeatInventory(40);
+        markRange(inventory, 11, 20, SeatState.SOLD);
+
+        assertEquals(List.of(25, 26), inventory.findBestBlock(2));
+    }
+
+    @Test
+    void blockCanSpanWholeHall() {
+        SeatInventory inventory = new SeatInventory(SeatInventory.ROW_WIDTH);
+
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10), inventory.findBestBlock(SeatInventory.ROW_WIDTH));
+
+        inventory.mark(5, SeatState.HELD);
+        assertTrue(inventory.findBestBlock(SeatInventory.ROW_WIDTH).isEmpty());
+    }
+
+    @Test
+    void fullyBookedHallHasNoBlock() {
+        SeatInventory inventory = new SeatInventory(30);
+        markRange(inventory, 1, 10, SeatState.SOLD);
+        markRange(inventory, 11, 20, SeatState.PENDING);
+        markRange(inventory, 21, 30, SeatState.HELD);
+
+        assertEquals(0, inventory.getFreeCount());
+        assertTrue(inventory.findBestBlock(1).isEmpty());
+    }
+
+    @Test
+    void rejectsBlockSizeOutsideRowWidth() {
+        SeatInventory inventory = new SeatInventory(30);
+
+        assertThrows(IllegalArgumentException.class, () -> inventory.findBestBlock(0));
+        assertThrows(IllegalArgumentException.class, () -> inventory.findBestBlock(SeatInventory.ROW_WIDTH + 1));
+    }
+
+    private static void markRange(SeatInventory inventory, int from, int to, SeatState state) {
+        for (int seat = from; seat <= to; seat++) {
+            inventory.mark(seat, state);
+        }
+    }
+}
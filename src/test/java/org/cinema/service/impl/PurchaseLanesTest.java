@@ -0,0 +1,200 @@
+package org.cinema.service.impl;
+
+import org.cinema.dto.SeatOrder;
+import org.cinema.exception.SeatTakenException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Drives the lanes from real threads against a stubbed group writer that can be held up, so orders can be queued
+ * while another caller is writing.
+ */
+class PurchaseLanesTest {
+
+    private static final int SESSION_ID = 1;
+    private static final long WAIT_SECONDS = 5;
+
+    private final CountDownLatch writerReleased = new CountDownLatch(1);
+    private final List<List<Integer>> writtenGroups = Collections.synchronizedList(new ArrayList<>());
+    private final Map<Integer, String> writerOfUser = new ConcurrentHashMap<>();
+    private final Set<Integer> failingUsers = ConcurrentHashMap.newKeySet();
+
+    @Test
+    void queuedOrdersAreWrittenInGroupsWithTheirOwnOutcome() throws Exception {
+        PurchaseLanes lanes = lanes(3, 10000);
+        failingUsers.add(5);
+
+        CompletableFuture<Void> first = buy(lanes, SESSION_ID, 1, 1);
+        waitUntil(() -> writtenGroups.size() == 1);
+        CompletableFuture<Void> second = queue(lanes, 2, 2, 1);
+        CompletableFuture<Void> sameSeat = queue(lanes, 3, 2, 2);
+        CompletableFuture<Void> fourth = queue(lanes, 4, 3, 3);
+        CompletableFuture<Void> failing = queue(lanes, 5, 4, 4);
+        writerReleased.countDown();
+
+        first.get(WAIT_SECONDS, TimeUnit.SECONDS);
+        second.get(WAIT_SECONDS, TimeUnit.SECONDS);
+        fourth.get(WAIT_SECONDS, TimeUnit.SECONDS);
+        assertFailure(SeatTakenException.class, sameSeat);
+        assertFailure(SeatTakenException.class, failing);
+        assertEquals(List.of(List.of(1), List.of(2, 4), List.of(5)), writtenGroups);
+    }
+
+    @Test
+    void writerHandsLaneToLongestWaitingCallerAfterFourGroups() throws Exception {
+        PurchaseLanes lanes = lanes(1, 10000);
+
+        List<CompletableFuture<Void>> outcomes = new ArrayList<>();
+        outcomes.add(buy(lanes, SESSION_ID, 1, 1));
+        waitUntil(() -> writtenGroups.size() == 1);
+        for (int user = 2; user <= 7; user++) {
+            outcomes.add(queue(lanes, user, user, user - 1));
+        }
+        writerReleased.countDown();
+
+        for (CompletableFuture<Void> outcome : outcomes) {
+            outcome.get(WAIT_SECONDS, TimeUnit.SECONDS);
+        }
+        for (int user = 1; user <= 4; user++) {
+            assertEquals("buyer-1", writerOfUser.get(user), "writer of user " + user);
+        }
+        for (int user = 5; user <= 7; user++) {
+            assertEquals("buyer-5", writerOfUser.get(user), "writer of user " + user);
+        }
+        waitUntil(() -> lanes.queuedOrders(SESSION_ID) == -1);
+    }
+
+    @Test
+    void timedOutOrderIsWithdrawnFromLane() throws Exception {
+        PurchaseLanes lanes = lanes(4, 200);
+
+        CompletableFuture<Void> first = buy(lanes, SESSION_ID, 1, 1);
+        waitUntil(() -> writtenGroups.size() == 1);
+        CompletableFuture<Void> late = buy(lanes, SESSION_ID, 2, 2);
+
+        assertFailure(IllegalStateException.class, late);
+        assertEquals(0, lanes.queuedOrders(SESSION_ID));
+        writerReleased.countDown();
+        first.get(WAIT_SECONDS, TimeUnit.SECONDS);
+        assertEquals(List.of(List.of(1)), writtenGroups);
+        waitUntil(() -> lanes.queuedOrders(SESSION_ID) == -1);
+    }
+
+    @Test
+    void everyOrderIsWrittenOnceAndEmptyLanesAreRemoved() throws Exception {
+        PurchaseLanes lanes = lanes(4, 10000);
+        writerReleased.countDown();
+        int threads = 8;
+        int ordersPerThread = 100;
+        int sessions = 3;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> buyers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int firstUser = t * ordersPerThread + 1;
+                buyers.add(executor.submit(() -> {
+                    for (int user = firstUser; user < firstUser + ordersPerThread; user++) {
+                        lanes.purchase(user % sessions, new SeatOrder(user, List.of(user)));
+                    }
+                }));
+            }
+            for (Future<?> buyer : buyers) {
+                buyer.get(WAIT_SECONDS * 6, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(threads * ordersPerThread, writerOfUser.size());
+        assertEquals(threads * ordersPerThread, writtenGroups.stream().mapToInt(List::size).sum());
+        for (int session = 0; session < sessions; session++) {
+            int sessionId = session;
+            waitUntil(() -> lanes.queuedOrders(sessionId) == -1);
+        }
+    }
+
+    private PurchaseLanes lanes(int groupSize, int timeoutMillis) {
+        return new PurchaseLanes(this::writeGroup, groupSize, timeoutMillis);
+    }
+
+    private List<RuntimeException> writeGroup(int sessionId, List<SeatOrder> orders) {
+        writtenGroups.add(orders.stream().map(SeatOrder::getUserId).toList());
+        orders.forEach(order -> writerOfUser.put(order.getUserId(), Thread.currentThread().getName()));
+        try {
+            if (!writerReleased.await(WAIT_SECONDS, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Writer was never released.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        List<RuntimeException> failures = new ArrayList<>(orders.size());
+        for (SeatOrder order : orders) {
+            failures.add(failingUsers.contains(order.getUserId())
+                    ? new SeatTakenException("Seats " + order.getSeatNumbers() + " are taken.")
+                    : null);
+        }
+        return failures;
+    }
+
+    /**
+     * Starts a buyer and waits until its order is queued at the given position behind the current writer.
+     */
+    private CompletableFuture<Void> queue(PurchaseLanes lanes, int userId, int seat, int position) {
+        CompletableFuture<Void> outcome = buy(lanes, SESSION_ID, userId, seat);
+        waitUntil(() -> lanes.queuedOrders(SESSION_ID) == position);
+        return outcome;
+    }
+
+    private static CompletableFuture<Void> buy(PurchaseLanes lanes, int sessionId, int userId, int seat) {
+        CompletableFuture<Void> outcome = new CompletableFuture<>();
+        Thread buyer = new Thread(() -> {
+            try {
+                lanes.purchase(sessionId, new SeatOrder(userId, List.of(seat)));
+                outcome.complete(null);
+            } catch (RuntimeException e) {
+                outcome.completeExceptionally(e);
+            }
+        }, "buyer-" + userId);
+        buyer.setDaemon(true);
+        buyer.start();
+        return outcome;
+    }
+
+    private static void assertFailure(Class<? extends RuntimeException> expected, CompletableFuture<Void> outcome) {
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> outcome.get(WAIT_SECONDS, TimeUnit.SECONDS));
+        assertInstanceOf(expected, e.getCause());
+    }
+
+    private static void waitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(WAIT_SECONDS);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Condition not met within " + WAIT_SECONDS + " seconds.");
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
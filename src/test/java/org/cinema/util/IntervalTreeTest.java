@@ -0,0 +1,135 @@
+package org.cinema.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntervalTreeTest {
+
+    @Test
+    void staysBalancedWhenInsertedInOrder() {
+        IntervalTree<Integer, Integer> tree = new IntervalTree<>();
+        for (int i = 0; i < 1023; i++) {
+            tree.insert(i, i + 1, i, i);
+        }
+
+        assertEquals(1023, tree.size());
+        assertEquals(10, tree.height());
+    }
+
+    @Test
+    void staysBalancedWhenInsertedInReverseOrder() {
+        IntervalTree<Integer, Integer> tree = new IntervalTree<>();
+        for (int i = 1022; i >= 0; i--) {
+            tree.insert(i, i + 1, i, i);
+        }
+
+        assertEquals(10, tree.height());
+    }
+
+    @Test
+    void staysBalancedAfterRemovals() {
+        IntervalTree<Integer, Integer> tree = new IntervalTree<>();
+        for (int i = 0; i < 2000; i++) {
+            tree.insert(i, i, i, i);
+        }
+        for (int i = 0; i < 2000; i++) {
+            if (i % 3 != 0 || i < 1000) {
+                assertTrue(tree.remove(i, i));
+            }
+        }
+
+        assertEquals(333, tree.size());
+        assertTrue(tree.height() <= maxAvlHeight(tree.size()), "height " + tree.height());
+        assertEquals(List.of(1002, 1005), tree.findOverlapping(1001, 1005));
+    }
+
+    @Test
+    void matchesLinearScanUnderRandomInsertsAndRemovals() {
+        Random random = new Random(7);
+        IntervalTree<Integer, Integer> tree = new IntervalTree<>();
+        List<int[]> intervals = new ArrayList<>();
+        for (int id = 0; id < 3000; id++) {
+            if (!intervals.isEmpty() && random.nextInt(3) == 0) {
+                int[] removed = intervals.remove(random.nextInt(intervals.size()));
+                assertTrue(tree.remove(removed[0], removed[2]));
+            } else {
+                int start = random.nextInt(10000);
+                int[] interval = {start, start + random.nextInt(200), id};
+                intervals.add(interval);
+                tree.insert(interval[0], interval[1], interval[2], interval[2]);
+            }
+
+            if (id % 100 == 0) {
+                int from = random.nextInt(10000);
+                int to = from + random.nextInt(500);
+                assertEquals(overlapping(intervals, from, to), tree.findOverlapping(from, to));
+            }
+        }
+
+        assertEquals(intervals.size(), tree.size());
+        assertTrue(tree.height() <= maxAvlHeight(tree.size()), "height " + tree.height());
+    }
+
+    @Test
+    void touchingEndpointsOverlap() {
+        IntervalTree<Integer, String> tree = new IntervalTree<>();
+        tree.insert(10, 20, 1, "first");
+        tree.insert(20, 30, 2, "second");
+        tree.insert(31, 40, 3, "third");
+
+        assertEquals(List.of("first", "second"), tree.findOverlapping(20, 20));
+        assertEquals(List.of("second", "third"), tree.findOverlapping(30, 31));
+        assertEquals(List.of(), tree.findOverlapping(41, 50));
+    }
+
+    @Test
+    void sameStartAndIdReplacesInterval() {
+        IntervalTree<Integer, String> tree = new IntervalTree<>();
+        tree.insert(10, 20, 1, "old");
+        tree.insert(10, 15, 1, "new");
+
+        assertEquals(1, tree.size());
+        assertEquals(List.of(), tree.findOverlapping(16, 20));
+        assertEquals(List.of("new"), tree.findOverlapping(15, 15));
+    }
+
+    @Test
+    void removingMissingIntervalChangesNothing() {
+        IntervalTree<Integer, String> tree = new IntervalTree<>();
+        tree.insert(10, 20, 1, "only");
+
+        assertFalse(tree.remove(10, 2));
+        assertFalse(tree.remove(11, 1));
+        assertEquals(1, tree.size());
+        assertTrue(tree.remove(10, 1));
+        assertTrue(tree.isEmpty());
+    }
+
+    @Test
+    void rejectsIntervalEndingBeforeItStarts() {
+        IntervalTree<Integer, String> tree = new IntervalTree<>();
+
+        assertThrows(IllegalArgumentException.class, () -> tree.insert(20, 10, 1, "backwards"));
+    }
+
+    private static List<Integer> overlapping(List<int[]> intervals, int from, int to) {
+        return intervals.stream()
+                .filter(interval -> interval[0] <= to && interval[1] >= from)
+                .sorted(Comparator.<int[]>comparingInt(interval -> interval[0]).thenComparingInt(interval -> interval[2]))
+                .map(interval -> interval[2])
+                .toList();
+    }
+
+    private static int maxAvlHeight(int size) {
+        return (int) Math.floor(1.4405 * Math.log(size + 2) / Math.log(2) - 0.3277);
+    }
+}